@@ -0,0 +1,29 @@
+package fr.polytech.marechal.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so the allocation rate of each benchmark is reported. <br>
+ * The arguments are the usual JMH ones, e.g. {@code FieldValueTypeBenchmark -p kind=ADVERSARIAL}.
+ */
+public final class BenchmarkRunner
+{
+    /** No instance */
+    private BenchmarkRunner ()
+    {
+    }
+
+    public static void main (String[] args) throws RunnerException, CommandLineOptionException
+    {
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(new CommandLineOptions(args));
+        options.addProfiler(GCProfiler.class);
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,53 @@
+package fr.polytech.marechal.bench;
+
+import fr.polytech.marechal.FieldValueType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * Match throughput of every {@link FieldValueType}, on valid, invalid and adversarial contents. <br>
+ * {@code matches} is the path used by the validator, {@code regex} is the plain {@link java.util.regex} baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldValueTypeBenchmark
+{
+    /** The tested type, every constant by default */
+    @Param
+    public FieldValueType valueType;
+
+    /** The kind of content */
+    @Param
+    public Samples.Kind kind;
+
+    /** The tested content */
+    private String content;
+
+    /** The reused matcher of the regex baseline */
+    private Matcher matcher;
+
+    @Setup
+    public void setup ()
+    {
+        content = Samples.of(valueType, kind);
+        matcher = valueType.getPattern().matcher("");
+    }
+
+    @Benchmark
+    public boolean matches ()
+    {
+        return valueType.matches(content);
+    }
+
+    @Benchmark
+    public boolean regex ()
+    {
+        return matcher.reset(content).matches();
+    }
+}
@@ -0,0 +1,76 @@
+package fr.polytech.marechal.bench;
+
+import fr.polytech.marechal.FieldValueType;
+import fr.polytech.marechal.FormMap;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextField;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a form with {@link FormMap#add(String, FieldValueType, javafx.scene.control.Control, boolean)}
+ * as the number of fields grows. The controls are created before each invocation, out of the measurement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormMapAddBenchmark
+{
+    /** The number of fields of the form */
+    @Param({"10", "100", "1000", "5000"})
+    public int fieldCount;
+
+    /** The keys of the fields */
+    private String[] keys;
+
+    /** The controls of the next invocation */
+    private TextField[] controls;
+
+    /** The submit button of the next invocation */
+    private Button submitButton;
+
+    @Setup(Level.Trial)
+    public void setupKeys ()
+    {
+        FxToolkit.start();
+        keys = new String[fieldCount];
+
+        for (int i = 0; i < fieldCount; i++) {
+            keys[i] = "field" + i;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setupControls ()
+    {
+        FxToolkit.call(() -> {
+            controls = new TextField[fieldCount];
+
+            for (int i = 0; i < fieldCount; i++) {
+                controls[i] = new TextField("42");
+            }
+
+            submitButton = new Button("Submit");
+            return null;
+        });
+    }
+
+    @Benchmark
+    public FormMap add ()
+    {
+        return FxToolkit.call(() -> {
+            FormMap form = new FormMap();
+            form.setSubmitButton(submitButton);
+
+            for (int i = 0; i < fieldCount; i++) {
+                form.add(keys[i], FieldValueType.NUMBERS_INT, controls[i], i % 2 == 0);
+            }
+
+            return form;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package fr.polytech.marechal.bench;
+
+import javafx.application.Platform;
+import javafx.embed.swing.JFXPanel;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Access to the JavaFX thread from the benchmark threads. <br>
+ * The controls are created and validated on the JavaFX thread, by batches, so the cost of the thread hop
+ * is spread over many operations.
+ */
+final class FxToolkit
+{
+    /** Has the toolkit been started or not */
+    private static boolean started = false;
+
+    /** No instance */
+    private FxToolkit ()
+    {
+    }
+
+    /**
+     * Start the JavaFX toolkit, if it is not started yet
+     */
+    static synchronized void start ()
+    {
+        if (!started) {
+            new JFXPanel();
+            Platform.setImplicitExit(false);
+            started = true;
+        }
+    }
+
+    /**
+     * Run a task on the JavaFX thread and wait for its result
+     *
+     * @param callable the task
+     * @param <T>      the type of the result
+     * @return the result of the task
+     */
+    static <T> T call (Callable<T> callable)
+    {
+        FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+
+        try {
+            return task.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package fr.polytech.marechal.bench;
+
+import fr.polytech.marechal.FieldValueType;
+
+/**
+ * The contents tested by the benchmarks, for each {@link FieldValueType}
+ */
+public final class Samples
+{
+    /** The kinds of content */
+    public enum Kind
+    {
+        /** A content accepted by the type */
+        VALID,
+
+        /** A short content rejected by the type */
+        INVALID,
+
+        /** A long content, rejected at its very end, which makes a backtracking engine try many paths */
+        ADVERSARIAL
+    }
+
+    /** No instance */
+    private Samples ()
+    {
+    }
+
+    /**
+     * Get a content
+     *
+     * @param valueType the type of the value
+     * @param kind      the kind of content
+     * @return the content
+     */
+    static String of (FieldValueType valueType, Kind kind)
+    {
+        switch (kind) {
+            case VALID:
+                return valid(valueType);
+            case INVALID:
+                return invalid(valueType);
+            default:
+                return adversarial(valueType);
+        }
+    }
+
+    private static String valid (FieldValueType valueType)
+    {
+        switch (valueType) {
+            case FIRSTNAME:
+            case LASTNAME:
+                return "Jean-Pierre";
+            case NAME:
+                return "Robin Marechal";
+            case HOURS:
+            case MINUTES:
+            case SECONDS:
+                return "42";
+            case DATE:
+                return "2017-05-23";
+            case TIME:
+                return "12:30";
+            case DATETIME:
+                return "2017-05-23 12:30";
+            case EMAIL:
+                return "robin.marechal@etu.univ-tours.fr";
+            case URL:
+                return "https://github.com/RobinMarechal/FXorms?tab=readme";
+            case PRICE:
+            case NUMBERS_DOUBLE:
+                return "-1234.56";
+            case NUMBERS_DOUBLE_UNSIGNED:
+                return "1234.56";
+            case NUMBERS_INT:
+                return "-123456";
+            case NUMBERS_INT_UNSIGNED:
+                return "123456";
+            case CHARACTER_LETTER:
+            case CHARACTER_LETTER_NUMBER:
+            case CHARACTER:
+                return "a";
+            case CHARACTER_NUMBER:
+                return "7";
+            default:
+                return "Lorem ipsum dolor sit amet, consectetur adipiscing elit";
+        }
+    }
+
+    private static String invalid (FieldValueType valueType)
+    {
+        switch (valueType) {
+            case FIRSTNAME:
+            case LASTNAME:
+                return "jean--pierre";
+            case EMAIL:
+                return "robin.marechal@";
+            case URL:
+                return "ftp://github.com";
+            case VARCHAR:
+                return repeat("x", 256);
+            case TEXT:
+            case UNDEFINED:
+                return "";
+            case CHARACTER:
+                return "ab";
+            default:
+                return "12a";
+        }
+    }
+
+    private static String adversarial (FieldValueType valueType)
+    {
+        switch (valueType) {
+            case FIRSTNAME:
+            case LASTNAME:
+                return repeat("Ab-", 2000) + "1";
+            case NAME:
+                return "a" + repeat(" a", 5000) + "!";
+            case EMAIL:
+                return "a@" + repeat("a-", 30) + "!";
+            case URL:
+                return "http://" + repeat("a.", 128) + repeat("a", 2000) + " ";
+            case VARCHAR:
+                return repeat("x", 10000);
+            case TEXT:
+            case UNDEFINED:
+                return repeat("Lorem ipsum ", 10000);
+            case CHARACTER:
+            case CHARACTER_LETTER:
+            case CHARACTER_LETTER_NUMBER:
+            case CHARACTER_NUMBER:
+                return repeat("a", 10000);
+            default:
+                return repeat("1", 10000) + "x";
+        }
+    }
+
+    /**
+     * Repeat a String
+     *
+     * @param s     the String
+     * @param count the number of repetitions
+     * @return the repeated String
+     */
+    static String repeat (String s, int count)
+    {
+        StringBuilder builder = new StringBuilder(s.length() * count);
+
+        for (int i = 0; i < count; i++) {
+            builder.append(s);
+        }
+
+        return builder.toString();
+    }
+}
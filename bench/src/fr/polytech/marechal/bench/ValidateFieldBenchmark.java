@@ -0,0 +1,113 @@
+package fr.polytech.marechal.bench;
+
+import fr.polytech.marechal.FieldValueType;
+import fr.polytech.marechal.FormMap;
+import fr.polytech.marechal.validator.FormValidator;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Control;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.control.TextInputControl;
+import javafx.scene.web.HTMLEditor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link FormValidator#validateField(FormMap.Field)} for each kind of control. <br>
+ * {@code validateField} validates an unchanged content, {@code keystroke} changes the content between a valid
+ * and an invalid value, so the listener, the validation, the tooltip and the CSS state are all exercised.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateFieldBenchmark
+{
+    /** The number of operations per hop to the JavaFX thread */
+    private static final int BATCH = 1000;
+
+    /** The kind of control */
+    @Param({"TEXT_FIELD", "TEXT_AREA", "COMBO_BOX", "HTML_EDITOR"})
+    public String controlKind;
+
+    /** The tested field */
+    private FormMap.Field field;
+
+    /** The two alternated contents */
+    private final String[] contents = {"robin.marechal@etu.univ-tours.fr", "robin.marechal@"};
+
+    @Setup
+    public void setup ()
+    {
+        FxToolkit.start();
+        field = FxToolkit.call(() -> {
+            Control control = createControl();
+            FormMap form    = new FormMap();
+            form.add("field", FieldValueType.EMAIL, control, true);
+            return form.get("field");
+        });
+    }
+
+    private Control createControl ()
+    {
+        switch (controlKind) {
+            case "TEXT_FIELD":
+                return new TextField(contents[0]);
+            case "TEXT_AREA":
+                return new TextArea(Samples.repeat(contents[0] + " ", 1000));
+            case "COMBO_BOX":
+                ComboBox<String> comboBox = new ComboBox<>();
+                comboBox.getItems().addAll(contents);
+                comboBox.setValue(contents[0]);
+                return comboBox;
+            default:
+                HTMLEditor editor = new HTMLEditor();
+                editor.setHtmlText("<p>" + Samples.repeat(contents[0] + " ", 1000) + "</p>");
+                return editor;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean validateField ()
+    {
+        return FxToolkit.call(() -> {
+            boolean result = true;
+
+            for (int i = 0; i < BATCH; i++) {
+                result &= FormValidator.validateField(field);
+            }
+
+            return result;
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public boolean keystroke ()
+    {
+        return FxToolkit.call(() -> {
+            Control control = field.getField();
+
+            for (int i = 0; i < BATCH; i++) {
+                String content = contents[i & 1];
+
+                if (control instanceof TextInputControl) {
+                    ((TextInputControl) control).setText(content);
+                }
+                else if (control instanceof ComboBox) {
+                    ((ComboBox<String>) control).setValue(content);
+                }
+                else {
+                    // Through the field, so that the HTML is serialized again by the validation
+                    field.setHtmlText(content);
+                }
+            }
+
+            return field.getInvalidationReasonList().isEmpty();
+        });
+    }
+}
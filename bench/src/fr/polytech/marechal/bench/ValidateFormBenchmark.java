@@ -0,0 +1,53 @@
+package fr.polytech.marechal.bench;
+
+import fr.polytech.marechal.FieldValueType;
+import fr.polytech.marechal.FormMap;
+import fr.polytech.marechal.validator.FormValidator;
+import javafx.scene.control.TextField;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link FormValidator#validateForm()} as the number of fields grows. <br>
+ * The fields cycle through the value types, and one field out of two is invalid.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidateFormBenchmark
+{
+    /** The number of fields of the form */
+    @Param({"10", "100", "1000", "5000"})
+    public int fieldCount;
+
+    /** The validator of the form */
+    private FormValidator validator;
+
+    @Setup
+    public void setup ()
+    {
+        FxToolkit.start();
+        validator = FxToolkit.call(() -> {
+            FormMap          form  = new FormMap();
+            FieldValueType[] types = FieldValueType.values();
+
+            for (int i = 0; i < fieldCount; i++) {
+                FieldValueType type = types[i % types.length];
+                Samples.Kind   kind = i % 2 == 0 ? Samples.Kind.VALID : Samples.Kind.INVALID;
+                form.add("field" + i, type, new TextField(Samples.of(type, kind)), i % 3 == 0);
+            }
+
+            return new FormValidator(form);
+        });
+    }
+
+    @Benchmark
+    public boolean validateForm ()
+    {
+        return FxToolkit.call(validator::validateForm);
+    }
+}
@@ -0,0 +1,141 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.validator.ContentValidator;
+import fr.polytech.marechal.validator.FormValidator;
+import fr.polytech.marechal.validator.InvalidationReason;
+import fr.polytech.marechal.validator.ValidationEvents;
+import fr.polytech.marechal.validator.ValidationMetrics;
+import javafx.application.Platform;
+import javafx.scene.web.HTMLEditor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Validation of the fields off the JavaFX thread. <br>
+ * The content of the field is copied on the JavaFX thread and tested on a background executor.
+ * Each result is stamped with the edit generation of the field when it was copied, so the results
+ * of outdated contents, and of the fields removed from their form meanwhile, are dropped. Only the final commit of the result goes back to the JavaFX thread,
+ * where the metrics and the Flight Recorder event of the validation are recorded, see {@link FormValidator#setMetricsEnabled(boolean)}.
+ *
+ * @see FormMap.Field#setAsynchronous(boolean)
+ */
+public final class AsyncValidation
+{
+    /** The default executor, made of daemon threads */
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newFixedThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            runnable -> {
+                Thread thread = new Thread(runnable, "form-validation");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /** The executor running the validations */
+    private static volatile Executor executor = DEFAULT_EXECUTOR;
+
+    /** No instance */
+    private AsyncValidation ()
+    {
+    }
+
+    /**
+     * Set the executor running the validations
+     *
+     * @param executor the executor, or null to use the default one
+     */
+    public static void setExecutor (Executor executor)
+    {
+        AsyncValidation.executor = executor != null ? executor : DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * Get the executor running the validations
+     *
+     * @return the executor running the validations
+     */
+    public static Executor getExecutor ()
+    {
+        return executor;
+    }
+
+    /**
+     * Validate the current content of a field in background <br>
+     * This method has to be called from the JavaFX thread
+     *
+     * @param field the field to validate
+     */
+    static void submit (@NotNull FormMap.Field field)
+    {
+        final long           generation = field.generation;
+        final String         content    = field.getTextContent();
+        final FieldValueType valueType  = field.getValueTypes();
+        final boolean        required   = field.isRequired();
+        final boolean        html       = field.getField() instanceof HTMLEditor;
+
+        executor.execute(() -> {
+            if (field.removed || field.generation != generation) {
+                return;
+            }
+
+            boolean metrics = FormValidator.isMetricsEnabled();
+            Object  event   = metrics ? ValidationEvents.beginValidateField() : null;
+            long    start   = metrics ? System.nanoTime() : 0;
+
+            InvalidationReason reason = html ? ContentValidator.checkHtml(valueType, content, required)
+                                             : ContentValidator.check(valueType, content, required);
+
+            long checkNanos = metrics ? System.nanoTime() - start : -1;
+            ValidationEvents.endContentCheck(event);
+
+            Platform.runLater(() -> {
+                if (!field.removed && field.generation == generation) {
+                    commit(field, reason, checkNanos, event);
+                }
+            });
+        });
+    }
+
+    /**
+     * Commit the result of a background validation to a field <br>
+     * The validation is recorded in the metrics of the field and of its form if its test was measured, that is if the
+     * metrics were enabled when the test started. This method has to be called from the JavaFX thread, once the caller
+     * checked that the content did not change meanwhile
+     *
+     * @param field      the field
+     * @param reason     the invalidation reason, or null if the content is valid
+     * @param checkNanos the duration (in nanoseconds) of the test of the content, negative if it was not measured
+     * @param event      the Flight Recorder event of the test, ended by {@link ValidationEvents#endContentCheck(Object)}, may be null
+     */
+    static void commit (@NotNull FormMap.Field field, InvalidationReason reason, long checkNanos, Object event)
+    {
+        if (checkNanos < 0 || !FormValidator.isMetricsEnabled()) {
+            FormValidator.applyValidationResult(field, reason);
+            field.contentValidated();
+            return;
+        }
+
+        long    start = System.nanoTime();
+        boolean valid;
+
+        ValidationMetrics.beginMeasuredSpan();
+
+        try {
+            valid = FormValidator.applyValidationResult(field, reason);
+            field.contentValidated();
+        }
+        finally {
+            ValidationMetrics.endMeasuredSpan();
+        }
+
+        long nanos = System.nanoTime() - start;
+
+        field.getMetrics().recordBackgroundValidation(checkNanos, valid);
+        field.getForm().getMetrics().recordBackgroundValidation(checkNanos, valid);
+        field.getMetrics().recordFxThreadTime(nanos);
+        field.getForm().getMetrics().recordFxThreadTime(nanos);
+        ValidationEvents.commitValidateField(event, field, valid);
+    }
+}
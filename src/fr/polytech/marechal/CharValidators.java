@@ -0,0 +1,292 @@
+package fr.polytech.marechal;
+
+/**
+ * Regex-free validators of the simplest {@link FieldValueType}. <br>
+ * Each validator accepts exactly the same contents as the regexp of its value type, with a single scan of the chars.
+ */
+final class CharValidators
+{
+    /** No instance */
+    private CharValidators ()
+    {
+    }
+
+    /**
+     * Test {@code ^[\s\S]*$}
+     *
+     * @param content the content to test
+     * @return always true
+     */
+    static boolean isAnything (CharSequence content)
+    {
+        return true;
+    }
+
+    /**
+     * Test {@code ^[\s\S]{0,255}$}, the length being counted in code points like the regex engine does
+     *
+     * @param content the content to test
+     * @return true if the content has at most 255 code points, false otherwise
+     */
+    static boolean isVarchar (CharSequence content)
+    {
+        int length = content.length();
+
+        if (length <= 255) {
+            return true;
+        }
+
+        return length <= 510 && Character.codePointCount(content, 0, length) <= 255;
+    }
+
+    /**
+     * Test {@code ^[\s\S]$}
+     *
+     * @param content the content to test
+     * @return true if the content is a single code point, false otherwise
+     */
+    static boolean isCharacter (CharSequence content)
+    {
+        int length = content.length();
+
+        return length == 1 || (length == 2 && Character.codePointCount(content, 0, 2) == 1);
+    }
+
+    /**
+     * Test {@code ^\d{1}$}
+     *
+     * @param content the content to test
+     * @return true if the content is a single digit, false otherwise
+     */
+    static boolean isCharacterNumber (CharSequence content)
+    {
+        return content.length() == 1 && isDigit(content.charAt(0));
+    }
+
+    /**
+     * Test {@code ^[a-zA-Z]{1}$}
+     *
+     * @param content the content to test
+     * @return true if the content is a single ASCII letter, false otherwise
+     */
+    static boolean isCharacterLetter (CharSequence content)
+    {
+        return content.length() == 1 && isLetter(content.charAt(0));
+    }
+
+    /**
+     * Test {@code ^[a-zA-Z0-9]{1}$}
+     *
+     * @param content the content to test
+     * @return true if the content is a single ASCII letter or digit, false otherwise
+     */
+    static boolean isCharacterLetterNumber (CharSequence content)
+    {
+        return content.length() == 1 && (isLetter(content.charAt(0)) || isDigit(content.charAt(0)));
+    }
+
+    /**
+     * Test {@code ^[0-9]{0,2}$}
+     *
+     * @param content the content to test
+     * @return true if the content is made of at most 2 digits, false otherwise
+     */
+    static boolean isTwoDigitsAtMost (CharSequence content)
+    {
+        return content.length() <= 2 && digits(content, 0, 0, 2) == content.length();
+    }
+
+    /**
+     * Test {@code ^-?\d+$}
+     *
+     * @param content the content to test
+     * @return true if the content is an integer, false otherwise
+     */
+    static boolean isInteger (CharSequence content)
+    {
+        return isUnsignedInteger(content, sign(content));
+    }
+
+    /**
+     * Test {@code ^\d+$}
+     *
+     * @param content the content to test
+     * @return true if the content is an unsigned integer, false otherwise
+     */
+    static boolean isUnsignedInteger (CharSequence content)
+    {
+        return isUnsignedInteger(content, 0);
+    }
+
+    /**
+     * Test {@code ^-?\d+(\.\d+)?$}
+     *
+     * @param content the content to test
+     * @return true if the content is a decimal number, false otherwise
+     */
+    static boolean isDecimal (CharSequence content)
+    {
+        return isUnsignedDecimal(content, sign(content));
+    }
+
+    /**
+     * Test {@code ^\d+(\.\d+)?$}
+     *
+     * @param content the content to test
+     * @return true if the content is an unsigned decimal number, false otherwise
+     */
+    static boolean isUnsignedDecimal (CharSequence content)
+    {
+        return isUnsignedDecimal(content, 0);
+    }
+
+    /**
+     * Test {@code ^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$}
+     *
+     * @param content the content to test
+     * @return true if the content is a date, false otherwise
+     */
+    static boolean isDate (CharSequence content)
+    {
+        return date(content, 0) == content.length();
+    }
+
+    /**
+     * Test {@code ^[0-9]{1,2}:[0-9]{1,2}$}
+     *
+     * @param content the content to test
+     * @return true if the content is a time, false otherwise
+     */
+    static boolean isTime (CharSequence content)
+    {
+        return time(content, 0) == content.length();
+    }
+
+    /**
+     * Test {@code ^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2} [0-9]{1,2}:[0-9]{1,2}$}
+     *
+     * @param content the content to test
+     * @return true if the content is a date and a time, false otherwise
+     */
+    static boolean isDateTime (CharSequence content)
+    {
+        int i = date(content, 0);
+
+        return i != -1 && separator(content, i, ' ') && time(content, i + 1) == content.length();
+    }
+
+    // ------------------------------------------------------
+    // Scanning helpers
+    // ------------------------------------------------------
+
+    /**
+     * Test {@code \d+} from an index up to the end of the content
+     */
+    private static boolean isUnsignedInteger (CharSequence content, int from)
+    {
+        return digits(content, from, 1, Integer.MAX_VALUE) == content.length();
+    }
+
+    /**
+     * Test {@code \d+(\.\d+)?} from an index up to the end of the content
+     */
+    private static boolean isUnsignedDecimal (CharSequence content, int from)
+    {
+        int i = digits(content, from, 1, Integer.MAX_VALUE);
+
+        if (i == -1 || i == content.length()) {
+            return i != -1;
+        }
+
+        return separator(content, i, '.') && digits(content, i + 1, 1, Integer.MAX_VALUE) == content.length();
+    }
+
+    /**
+     * Scan {@code [0-9]{4}-[0-9]{1,2}-[0-9]{1,2}}
+     *
+     * @return the index following the date, or -1 if there is no date at this index
+     */
+    private static int date (CharSequence content, int from)
+    {
+        int i = digits(content, from, 4, 4);
+
+        if (i == -1 || !separator(content, i, '-')) {
+            return -1;
+        }
+
+        i = digits(content, i + 1, 1, 2);
+
+        if (i == -1 || !separator(content, i, '-')) {
+            return -1;
+        }
+
+        return digits(content, i + 1, 1, 2);
+    }
+
+    /**
+     * Scan {@code [0-9]{1,2}:[0-9]{1,2}}
+     *
+     * @return the index following the time, or -1 if there is no time at this index
+     */
+    private static int time (CharSequence content, int from)
+    {
+        int i = digits(content, from, 1, 2);
+
+        if (i == -1 || !separator(content, i, ':')) {
+            return -1;
+        }
+
+        return digits(content, i + 1, 1, 2);
+    }
+
+    /**
+     * Scan a run of digits, as long as possible
+     *
+     * @return the index following the digits, or -1 if there are less than {@code min} or more than {@code max} digits
+     */
+    private static int digits (CharSequence content, int from, int min, int max)
+    {
+        int length = content.length();
+        int i      = from;
+
+        while (i < length && isDigit(content.charAt(i))) {
+            i++;
+        }
+
+        int count = i - from;
+
+        return count >= min && count <= max ? i : -1;
+    }
+
+    /**
+     * @return 1 if the content starts with a minus sign, 0 otherwise
+     */
+    private static int sign (CharSequence content)
+    {
+        return content.length() > 0 && content.charAt(0) == '-' ? 1 : 0;
+    }
+
+    /**
+     * @return true if the char at this index is the separator, false otherwise
+     */
+    private static boolean separator (CharSequence content, int index, char separator)
+    {
+        return index < content.length() && content.charAt(index) == separator;
+    }
+
+    /**
+     * @return true if the char is an ASCII digit, like {@code \d}
+     */
+    private static boolean isDigit (char c)
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return true if the char is an ASCII letter
+     */
+    private static boolean isLetter (char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
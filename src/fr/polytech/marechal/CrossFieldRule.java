@@ -0,0 +1,107 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.validator.InvalidationReason;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A validation rule across several fields of a {@link FormMap} (e.g. "end is after start", "confirmation equals email") <br>
+ * The rule is tested when its target or one of its dependencies changes, and only when the content of the target
+ * and all its dependencies are validated, so the predicate can rely on valid values (an optional field may still be empty).
+ * While the rule fails, the target field is unvalidated with the {@link InvalidationReason#RULE_VIOLATION} reason. <br>
+ * <br>
+ * Example:
+ * <pre>
+ * form.addRule(new CrossFieldRule("confirmEmail", f -&gt; f.get("email").getValue().equals(f.get("confirmEmail").getValue()), "email"));
+ * </pre>
+ *
+ * @see FormMap#addRule(CrossFieldRule)
+ */
+public class CrossFieldRule
+{
+    /** The key of the field unvalidated when the rule fails */
+    private final String target;
+
+    /** The keys of the fields the rule depends on, the target excepted */
+    private final List<String> dependencies;
+
+    /** The rule, true when the form satisfies it */
+    private final Predicate<FormMap> predicate;
+
+    /** Is the rule currently failing or not */
+    boolean violated = false;
+
+    /**
+     * 3 parameters constructor
+     *
+     * @param target       the key of the field unvalidated when the rule fails
+     * @param predicate    the rule, true when the form satisfies it
+     * @param dependencies the keys of the other fields the rule reads
+     */
+    public CrossFieldRule (@NotNull String target, @NotNull Predicate<FormMap> predicate, @NotNull String... dependencies)
+    {
+        List<String> keys = new ArrayList<>(dependencies.length);
+
+        for (String dependency : dependencies) {
+            if (!dependency.equals(target) && !keys.contains(dependency)) {
+                keys.add(dependency);
+            }
+        }
+
+        this.target = target;
+        this.predicate = predicate;
+        this.dependencies = Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * Get the key of the field unvalidated when the rule fails
+     *
+     * @return the key of the target field
+     */
+    public String getTarget ()
+    {
+        return target;
+    }
+
+    /**
+     * Get the keys of the fields the rule depends on, the target excepted
+     *
+     * @return a read-only list of keys
+     */
+    public List<String> getDependencies ()
+    {
+        return dependencies;
+    }
+
+    /**
+     * Test the rule on a form
+     *
+     * @param form the form
+     * @return true if the form satisfies the rule, false otherwise
+     */
+    public boolean test (@NotNull FormMap form)
+    {
+        return predicate.test(form);
+    }
+
+    /**
+     * Know if the rule is currently failing or not
+     *
+     * @return true if the rule failed on its last evaluation, false otherwise
+     */
+    public boolean isViolated ()
+    {
+        return violated;
+    }
+
+    @Override
+    public String toString ()
+    {
+        return "CrossFieldRule: {target=" + target + ", dependencies=" + Arrays.toString(dependencies.toArray()) + ", violated=" + violated + "}";
+    }
+}
@@ -0,0 +1,293 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.exceptions.ErrorType;
+import fr.polytech.marechal.exceptions.FormException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The dependency graph of the {@link CrossFieldRule} of a {@link FormMap}. <br>
+ * Each rule is an edge from its dependencies to its target. The graph is kept acyclic, and every key
+ * has a rank such that a target always ranks after the keys its rules depend on.
+ * Rules are evaluated in the order of their target's rank, so that each rule is evaluated at most once per change,
+ * after every rule that can change the validity of its dependencies.
+ */
+class CrossFieldRuleGraph
+{
+    /** No rule */
+    private static final List<CrossFieldRule> NO_RULE = Collections.emptyList();
+
+    /** The rules, by key of their target */
+    private final Map<String, List<CrossFieldRule>> rulesByTarget = new HashMap<>();
+
+    /** The rules, by key of their dependencies */
+    private final Map<String, List<CrossFieldRule>> rulesByDependency = new HashMap<>();
+
+    /** The rank of the keys in the topological order, the keys missing from the map rank 0 */
+    private Map<String, Integer> ranks = new HashMap<>();
+
+    /** The number of rules */
+    private int size = 0;
+
+    /** Compares the rules by rank of their target */
+    private final Comparator<CrossFieldRule> rankComparator = Comparator.comparingInt(rule -> getRank(rule.getTarget()));
+
+    /**
+     * Add a rule to the graph
+     *
+     * @param rule the rule
+     * @throws FormException with the {@link ErrorType#CYCLIC_RULE} type if the rule closes a cycle, the graph is then left unchanged
+     */
+    void add (@NotNull CrossFieldRule rule)
+    {
+        put(rulesByTarget, rule.getTarget(), rule);
+
+        for (String dependency : rule.getDependencies()) {
+            put(rulesByDependency, dependency, rule);
+        }
+
+        size++;
+
+        Map<String, Integer> newRanks = computeRanks();
+
+        if (newRanks == null) {
+            remove(rule);
+            throw new FormException(ErrorType.CYCLIC_RULE, "The rule on \"" + rule.getTarget() + "\" creates a dependency cycle");
+        }
+
+        ranks = newRanks;
+    }
+
+    /**
+     * Remove a rule from the graph
+     *
+     * @param rule the rule
+     * @return true if the rule was in the graph, false otherwise
+     */
+    boolean remove (@NotNull CrossFieldRule rule)
+    {
+        if (!delete(rulesByTarget, rule.getTarget(), rule)) {
+            return false;
+        }
+
+        for (String dependency : rule.getDependencies()) {
+            delete(rulesByDependency, dependency, rule);
+        }
+
+        size--;
+        ranks = computeRanks();
+        return true;
+    }
+
+    /**
+     * Know if the graph has no rule
+     *
+     * @return true if there is no rule, false otherwise
+     */
+    boolean isEmpty ()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Get the rules unvalidating a field
+     *
+     * @param key the key of the field
+     * @return the rules targeting the field
+     */
+    List<CrossFieldRule> getRulesByTarget (String key)
+    {
+        return rulesByTarget.getOrDefault(key, NO_RULE);
+    }
+
+    /**
+     * Get the rules depending on a field, without the rules targeting it
+     *
+     * @param key the key of the field
+     * @return the rules depending on the field
+     */
+    List<CrossFieldRule> getRulesByDependency (String key)
+    {
+        return rulesByDependency.getOrDefault(key, NO_RULE);
+    }
+
+    /**
+     * Get the rules referencing a field, as target or dependency
+     *
+     * @param key the key of the field
+     * @return a new list of rules
+     */
+    List<CrossFieldRule> getRulesReferencing (String key)
+    {
+        List<CrossFieldRule> rules = new ArrayList<>(getRulesByTarget(key));
+        rules.addAll(getRulesByDependency(key));
+        return rules;
+    }
+
+    /**
+     * Create an empty queue of rules, ordered by rank of their target
+     *
+     * @return the queue
+     */
+    PriorityQueue<CrossFieldRule> newQueue ()
+    {
+        return new PriorityQueue<>(Math.max(1, size), rankComparator);
+    }
+
+    /**
+     * Add every rule of the graph to a queue
+     *
+     * @param queue  the queue
+     * @param queued the rules already in the queue
+     */
+    void enqueueAll (PriorityQueue<CrossFieldRule> queue, Set<CrossFieldRule> queued)
+    {
+        for (List<CrossFieldRule> rules : rulesByTarget.values()) {
+            enqueue(queue, queued, rules);
+        }
+    }
+
+    /**
+     * Add rules to a queue, unless they are already queued
+     *
+     * @param queue  the queue
+     * @param queued the rules already in the queue
+     * @param rules  the rules to add
+     */
+    static void enqueue (PriorityQueue<CrossFieldRule> queue, Set<CrossFieldRule> queued, List<CrossFieldRule> rules)
+    {
+        for (CrossFieldRule rule : rules) {
+            if (queued.add(rule)) {
+                queue.add(rule);
+            }
+        }
+    }
+
+    /**
+     * Get the rank of a key in the topological order
+     *
+     * @param key the key
+     * @return the rank of the key
+     */
+    private int getRank (String key)
+    {
+        Integer rank = ranks.get(key);
+        return rank == null ? 0 : rank;
+    }
+
+    /**
+     * Compute the rank of every key with Kahn's algorithm <br>
+     * A key ranks one after the highest ranked key its rules depend on
+     *
+     * @return the ranks, or null if the graph has a cycle
+     */
+    private Map<String, Integer> computeRanks ()
+    {
+        Map<String, Integer> inDegrees = new HashMap<>();
+
+        for (Map.Entry<String, List<CrossFieldRule>> entry : rulesByTarget.entrySet()) {
+            int inDegree = 0;
+
+            for (CrossFieldRule rule : entry.getValue()) {
+                inDegree += rule.getDependencies().size();
+            }
+
+            inDegrees.put(entry.getKey(), inDegree);
+        }
+
+        Map<String, Integer> newRanks = new HashMap<>();
+        ArrayDeque<String>   ready    = new ArrayDeque<>();
+
+        for (String key : rulesByDependency.keySet()) {
+            if (!inDegrees.containsKey(key)) {
+                ready.add(key);
+            }
+        }
+
+        for (Map.Entry<String, Integer> entry : inDegrees.entrySet()) {
+            if (entry.getValue() == 0) {
+                ready.add(entry.getKey());
+            }
+        }
+
+        while (!ready.isEmpty()) {
+            String key  = ready.poll();
+            int    rank = newRanks.getOrDefault(key, 0);
+
+            for (CrossFieldRule rule : getRulesByDependency(key)) {
+                String target = rule.getTarget();
+
+                if (newRanks.getOrDefault(target, 0) <= rank) {
+                    newRanks.put(target, rank + 1);
+                }
+
+                int inDegree = inDegrees.get(target) - 1;
+                inDegrees.put(target, inDegree);
+
+                if (inDegree == 0) {
+                    ready.add(target);
+                }
+            }
+        }
+
+        for (Integer inDegree : inDegrees.values()) {
+            if (inDegree != 0) {
+                return null;
+            }
+        }
+
+        return newRanks;
+    }
+
+    /**
+     * Add a rule to a multimap
+     *
+     * @param map  the multimap
+     * @param key  the key
+     * @param rule the rule
+     */
+    private static void put (Map<String, List<CrossFieldRule>> map, String key, CrossFieldRule rule)
+    {
+        map.computeIfAbsent(key, k -> new ArrayList<>(2)).add(rule);
+    }
+
+    /**
+     * Remove a rule from a multimap, comparing the rules by identity
+     *
+     * @param map  the multimap
+     * @param key  the key
+     * @param rule the rule
+     * @return true if the rule was found, false otherwise
+     */
+    private static boolean delete (Map<String, List<CrossFieldRule>> map, String key, CrossFieldRule rule)
+    {
+        List<CrossFieldRule> rules = map.get(key);
+
+        if (rules == null) {
+            return false;
+        }
+
+        for (int i = 0; i < rules.size(); i++) {
+            if (rules.get(i) == rule) {
+                rules.remove(i);
+
+                if (rules.isEmpty()) {
+                    map.remove(key);
+                }
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
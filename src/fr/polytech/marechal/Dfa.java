@@ -0,0 +1,960 @@
+package fr.polytech.marechal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deterministic finite automaton compiled from a regular expression. <br>
+ * Only the regular subset of {@link java.util.regex.Pattern} is supported: literals, escaped chars,
+ * {@code \d \D \w \W \s \S .}, character classes with ranges and negation, groups, alternations,
+ * greedy quantifiers, {@code ^} and {@code $} at the bounds of the expression, and {@code \b} when every
+ * char of the expression is ASCII. <br>
+ * A compiled automaton tests a whole content in O(n), without backtracking, and without allocation.
+ * It accepts exactly the contents accepted by {@link java.util.regex.Matcher#matches()}.
+ */
+final class Dfa
+{
+    /** The maximum number of NFA states, bigger expressions are not compiled */
+    private static final int MAX_NFA_STATES = 20_000;
+
+    /** The maximum number of DFA states, bigger automata are not compiled */
+    private static final int MAX_DFA_STATES = 5_000;
+
+    /** The biggest code point */
+    private static final int MAX_CODE_POINT = Character.MAX_CODE_POINT;
+
+    /** The first code point of each char class, sorted */
+    private final int[] classStarts;
+
+    /** The char class of each ASCII char */
+    private final byte[] asciiClasses;
+
+    /** The number of char classes */
+    private final int nbClasses;
+
+    /** The transitions, indexed by {@code state * nbClasses + class}, -1 for the dead state */
+    private final int[] transitions;
+
+    /** Is each state accepting or not */
+    private final boolean[] accepting;
+
+    /**
+     * Constructor
+     */
+    private Dfa (int[] classStarts, int[] transitions, boolean[] accepting)
+    {
+        this.classStarts = classStarts;
+        this.nbClasses = classStarts.length;
+        this.transitions = transitions;
+        this.accepting = accepting;
+        this.asciiClasses = new byte[128];
+
+        for (int c = 0; c < 128; c++) {
+            asciiClasses[c] = (byte) searchClass(c);
+        }
+    }
+
+    /**
+     * Compile a regular expression
+     *
+     * @param regexp the regular expression
+     * @return the automaton, or null if the expression is not supported
+     */
+    static Dfa compile (String regexp)
+    {
+        try {
+            Node root = new Parser(regexp).parse();
+            return new Builder(root).build();
+        }
+        catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Test a whole content
+     *
+     * @param content the content to test
+     * @return true if the automaton accepts the content, false otherwise
+     */
+    boolean matches (CharSequence content)
+    {
+        int length = content.length();
+        int state  = 0;
+        int i      = 0;
+
+        while (i < length) {
+            int c = content.charAt(i);
+            int charClass;
+
+            if (c < 128) {
+                charClass = asciiClasses[c];
+                i++;
+            }
+            else {
+                c = Character.codePointAt(content, i);
+                i += Character.charCount(c);
+                charClass = searchClass(c);
+            }
+
+            state = transitions[state * nbClasses + charClass];
+
+            if (state < 0) {
+                return false;
+            }
+        }
+
+        return accepting[state];
+    }
+
+    /**
+     * Get the number of states of the automaton
+     *
+     * @return the number of states
+     */
+    int getNbStates ()
+    {
+        return accepting.length;
+    }
+
+    /**
+     * Find the char class of a code point
+     */
+    private int searchClass (int codePoint)
+    {
+        int index = Arrays.binarySearch(classStarts, codePoint);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    // ------------------------------------------------------
+    // Syntax tree
+    // ------------------------------------------------------
+
+    /** A node of the syntax tree */
+    private static abstract class Node
+    {
+    }
+
+    /** A set of code points */
+    private static final class CharSet extends Node
+    {
+        /** The sorted and disjoint ranges, as [first, last] pairs */
+        final int[] ranges;
+
+        CharSet (int... ranges)
+        {
+            this.ranges = normalize(ranges);
+        }
+
+        CharSet union (CharSet other)
+        {
+            int[] all = Arrays.copyOf(ranges, ranges.length + other.ranges.length);
+            System.arraycopy(other.ranges, 0, all, ranges.length, other.ranges.length);
+            return new CharSet(all);
+        }
+
+        CharSet complement ()
+        {
+            int[] result = new int[ranges.length + 2];
+            int   size   = 0;
+            int   next   = 0;
+
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > next) {
+                    result[size++] = next;
+                    result[size++] = ranges[i] - 1;
+                }
+                next = ranges[i + 1] + 1;
+            }
+
+            if (next <= MAX_CODE_POINT) {
+                result[size++] = next;
+                result[size++] = MAX_CODE_POINT;
+            }
+
+            return new CharSet(Arrays.copyOf(result, size));
+        }
+
+        boolean contains (int codePoint)
+        {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (codePoint >= ranges[i] && codePoint <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        boolean isAscii ()
+        {
+            return ranges.length == 0 || ranges[ranges.length - 1] < 128;
+        }
+
+        /** Sort and merge ranges */
+        private static int[] normalize (int[] ranges)
+        {
+            int     nbRanges = ranges.length / 2;
+            int[][] pairs    = new int[nbRanges][];
+
+            for (int i = 0; i < nbRanges; i++) {
+                pairs[i] = new int[]{ranges[2 * i], ranges[2 * i + 1]};
+            }
+
+            Arrays.sort(pairs, (a, b) -> Integer.compare(a[0], b[0]));
+
+            int[] result = new int[ranges.length];
+            int   size   = 0;
+
+            for (int[] pair : pairs) {
+                if (size > 0 && pair[0] <= result[size - 1] + 1) {
+                    result[size - 1] = Math.max(result[size - 1], pair[1]);
+                }
+                else {
+                    result[size++] = pair[0];
+                    result[size++] = pair[1];
+                }
+            }
+
+            return Arrays.copyOf(result, size);
+        }
+    }
+
+    /** A sequence of nodes */
+    private static final class Concat extends Node
+    {
+        final List<Node> nodes;
+
+        Concat (List<Node> nodes)
+        {
+            this.nodes = nodes;
+        }
+    }
+
+    /** An alternation of nodes */
+    private static final class Alternation extends Node
+    {
+        final List<Node> nodes;
+
+        Alternation (List<Node> nodes)
+        {
+            this.nodes = nodes;
+        }
+    }
+
+    /** A greedy repetition of a node */
+    private static final class Repeat extends Node
+    {
+        final Node node;
+        final int  min;
+
+        /** The maximum count, -1 if unbounded */
+        final int max;
+
+        Repeat (Node node, int min, int max)
+        {
+            this.node = node;
+            this.min = min;
+            this.max = max;
+        }
+    }
+
+    /** A word boundary, {@code \b} */
+    private static final class WordBoundary extends Node
+    {
+    }
+
+    // ------------------------------------------------------
+    // Parser
+    // ------------------------------------------------------
+
+    /** The digits, {@code \d} */
+    private static final CharSet DIGITS = new CharSet('0', '9');
+
+    /** The word chars, {@code \w} */
+    private static final CharSet WORD = new CharSet('a', 'z', 'A', 'Z', '_', '_', '0', '9');
+
+    /** The white spaces, {@code \s} */
+    private static final CharSet SPACES = new CharSet(' ', ' ', '\t', '\r', 0x0B, 0x0B);
+
+    /** Any char but the line terminators, {@code .} */
+    private static final CharSet DOT = new CharSet('\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029).complement();
+
+    /**
+     * Recursive descent parser of the supported subset
+     */
+    private static final class Parser
+    {
+        private final String regexp;
+        private int          position = 0;
+        private int          end;
+
+        Parser (String regexp)
+        {
+            this.regexp = regexp;
+            this.end = regexp.length();
+        }
+
+        Node parse ()
+        {
+            // The bounds anchors are meaningless when the whole content has to match
+            if (position < end && regexp.charAt(position) == '^') {
+                position++;
+            }
+            if (end > position && regexp.charAt(end - 1) == '$' && !isEscaped(end - 1)) {
+                end--;
+            }
+
+            Node node = parseAlternation();
+
+            if (position != end) {
+                throw new UnsupportedOperationException();
+            }
+
+            return node;
+        }
+
+        private Node parseAlternation ()
+        {
+            List<Node> nodes = new ArrayList<>();
+            nodes.add(parseConcat());
+
+            while (position < end && regexp.charAt(position) == '|') {
+                position++;
+                nodes.add(parseConcat());
+            }
+
+            return nodes.size() == 1 ? nodes.get(0) : new Alternation(nodes);
+        }
+
+        private Node parseConcat ()
+        {
+            List<Node> nodes = new ArrayList<>();
+
+            while (position < end && regexp.charAt(position) != '|' && regexp.charAt(position) != ')') {
+                nodes.add(parseRepeat());
+            }
+
+            return nodes.size() == 1 ? nodes.get(0) : new Concat(nodes);
+        }
+
+        private Node parseRepeat ()
+        {
+            Node node = parseAtom();
+
+            while (position < end) {
+                char c = regexp.charAt(position);
+                int  min;
+                int  max;
+
+                if (c == '*') {
+                    min = 0;
+                    max = -1;
+                    position++;
+                }
+                else if (c == '+') {
+                    min = 1;
+                    max = -1;
+                    position++;
+                }
+                else if (c == '?') {
+                    min = 0;
+                    max = 1;
+                    position++;
+                }
+                else if (c == '{') {
+                    position++;
+                    min = parseNumber();
+                    max = min;
+
+                    if (peek() == ',') {
+                        position++;
+                        max = peek() == '}' ? -1 : parseNumber();
+                    }
+
+                    expect('}');
+
+                    if (max != -1 && max < min) {
+                        throw new UnsupportedOperationException();
+                    }
+                }
+                else {
+                    break;
+                }
+
+                // Lazy and possessive quantifiers are not supported
+                if (position < end && (regexp.charAt(position) == '?' || regexp.charAt(position) == '+')) {
+                    throw new UnsupportedOperationException();
+                }
+
+                if (node instanceof WordBoundary) {
+                    throw new UnsupportedOperationException();
+                }
+
+                node = new Repeat(node, min, max);
+            }
+
+            return node;
+        }
+
+        private Node parseAtom ()
+        {
+            char c = regexp.charAt(position++);
+
+            switch (c) {
+                case '(':
+                    if (peek() == '?') {
+                        position++;
+                        expect(':');
+                    }
+                    Node node = parseAlternation();
+                    expect(')');
+                    return node;
+                case '[':
+                    return parseClass();
+                case '.':
+                    return DOT;
+                case '\\':
+                    if (peek() == 'b') {
+                        position++;
+                        return new WordBoundary();
+                    }
+                    return parseEscape();
+                case '^':
+                case '$':
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                case ')':
+                    throw new UnsupportedOperationException();
+                default:
+                    return literal(Character.codePointAt(regexp, position - 1));
+            }
+        }
+
+        private CharSet parseClass ()
+        {
+            boolean negated = false;
+            CharSet set     = new CharSet();
+
+            if (peek() == '^') {
+                negated = true;
+                position++;
+            }
+
+            boolean first = true;
+
+            while (peek() != ']' || first) {
+                first = false;
+                char c = regexp.charAt(position);
+
+                if (c == '[' || (c == '&' && position + 1 < end && regexp.charAt(position + 1) == '&')) {
+                    throw new UnsupportedOperationException();
+                }
+
+                CharSet item;
+
+                if (c == '\\') {
+                    position++;
+                    item = parseEscape();
+
+                    // A predefined class can not start a range, a following '-' is a literal
+                    if (item.ranges.length != 2 || item.ranges[0] != item.ranges[1]) {
+                        set = set.union(item);
+                        continue;
+                    }
+                }
+                else {
+                    int codePoint = Character.codePointAt(regexp, position);
+                    position += Character.charCount(codePoint);
+                    item = literal(codePoint);
+                }
+
+                int from = item.ranges[0];
+
+                if (peek() == '-' && position + 1 < end && regexp.charAt(position + 1) != ']') {
+                    position++;
+                    int to;
+
+                    if (regexp.charAt(position) == '\\') {
+                        position++;
+                        CharSet bound = parseEscape();
+                        if (bound.ranges.length != 2 || bound.ranges[0] != bound.ranges[1]) {
+                            throw new UnsupportedOperationException();
+                        }
+                        to = bound.ranges[0];
+                    }
+                    else if (regexp.charAt(position) == '[') {
+                        throw new UnsupportedOperationException();
+                    }
+                    else {
+                        to = Character.codePointAt(regexp, position);
+                        position += Character.charCount(to);
+                    }
+
+                    if (to < from) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    item = new CharSet(from, to);
+                }
+
+                set = set.union(item);
+            }
+
+            position++;
+
+            return negated ? set.complement() : set;
+        }
+
+        private CharSet parseEscape ()
+        {
+            if (position >= end) {
+                throw new UnsupportedOperationException();
+            }
+
+            char c = regexp.charAt(position++);
+
+            switch (c) {
+                case 'd':
+                    return DIGITS;
+                case 'D':
+                    return DIGITS.complement();
+                case 'w':
+                    return WORD;
+                case 'W':
+                    return WORD.complement();
+                case 's':
+                    return SPACES;
+                case 'S':
+                    return SPACES.complement();
+                case 't':
+                    return literal('\t');
+                case 'n':
+                    return literal('\n');
+                case 'r':
+                    return literal('\r');
+                case 'f':
+                    return literal('\f');
+                default:
+                    if (c < 128 && !Character.isLetterOrDigit(c)) {
+                        return literal(c);
+                    }
+                    throw new UnsupportedOperationException();
+            }
+        }
+
+        private int parseNumber ()
+        {
+            int start = position;
+
+            while (position < end && Character.isDigit(regexp.charAt(position)) && regexp.charAt(position) < 128) {
+                position++;
+            }
+
+            if (start == position || position - start > 5) {
+                throw new UnsupportedOperationException();
+            }
+
+            return Integer.parseInt(regexp.substring(start, position));
+        }
+
+        private char peek ()
+        {
+            if (position >= end) {
+                throw new UnsupportedOperationException();
+            }
+
+            return regexp.charAt(position);
+        }
+
+        private void expect (char c)
+        {
+            if (peek() != c) {
+                throw new UnsupportedOperationException();
+            }
+
+            position++;
+        }
+
+        private boolean isEscaped (int index)
+        {
+            int backslashes = 0;
+
+            while (index - backslashes - 1 >= 0 && regexp.charAt(index - backslashes - 1) == '\\') {
+                backslashes++;
+            }
+
+            return backslashes % 2 == 1;
+        }
+
+        private static CharSet literal (int codePoint)
+        {
+            return new CharSet(codePoint, codePoint);
+        }
+    }
+
+    // ------------------------------------------------------
+    // Automata construction
+    // ------------------------------------------------------
+
+    /**
+     * Builds the NFA of a syntax tree, then the DFA with the subset construction
+     */
+    private static final class Builder
+    {
+        private final Node root;
+
+        /** The char sets of the expression */
+        private final List<CharSet> sets = new ArrayList<>();
+
+        /** The epsilon transitions of each NFA state */
+        private final List<int[]> epsilons = new ArrayList<>();
+
+        /** The char set of the transition leaving each NFA state, -1 if none */
+        private final List<Integer> setTransitions = new ArrayList<>();
+
+        /** The target of the char set or word boundary transition leaving each NFA state */
+        private final List<Integer> targets = new ArrayList<>();
+
+        /** Is the transition leaving each NFA state a word boundary or not */
+        private final BitSet boundaries = new BitSet();
+
+        /** Does the expression contain a word boundary or not */
+        private boolean hasBoundaries = false;
+
+        /** The epsilon closure of each NFA state, without crossing the word boundaries */
+        private BitSet[] closures;
+
+        Builder (Node root)
+        {
+            this.root = root;
+        }
+
+        Dfa build ()
+        {
+            int start  = newState();
+            int accept = buildNode(root, start);
+
+            // Only the states leaving with a char set or a word boundary, and the final state, identify a DFA state
+            BitSet important = (BitSet) boundaries.clone();
+            important.set(accept);
+
+            for (int s = 0; s < epsilons.size(); s++) {
+                if (setTransitions.get(s) >= 0) {
+                    important.set(s);
+                }
+            }
+
+            closures = new BitSet[epsilons.size()];
+
+            for (int s = 0; s < closures.length; s++) {
+                closures[s] = closure(singleton(s), false);
+                closures[s].and(important);
+            }
+
+            if (hasBoundaries) {
+                for (CharSet set : sets) {
+                    if (!set.isAscii()) {
+                        throw new UnsupportedOperationException();
+                    }
+                }
+            }
+
+            // Partition the code points in classes, each class being inside or outside each set
+            List<Integer> bounds = new ArrayList<>();
+            bounds.add(0);
+            List<CharSet> partitionSets = new ArrayList<>(sets);
+
+            if (hasBoundaries) {
+                partitionSets.add(WORD);
+            }
+
+            for (CharSet set : partitionSets) {
+                for (int i = 0; i < set.ranges.length; i += 2) {
+                    bounds.add(set.ranges[i]);
+                    if (set.ranges[i + 1] < MAX_CODE_POINT) {
+                        bounds.add(set.ranges[i + 1] + 1);
+                    }
+                }
+            }
+
+            int[] classStarts = bounds.stream().distinct().sorted().mapToInt(Integer::intValue).toArray();
+            int   nbClasses   = classStarts.length;
+
+            if (nbClasses > 127) {
+                throw new UnsupportedOperationException();
+            }
+
+            BitSet[] classSets = new BitSet[nbClasses];
+            boolean[] wordClasses = new boolean[nbClasses];
+
+            for (int k = 0; k < nbClasses; k++) {
+                classSets[k] = new BitSet();
+                for (int s = 0; s < sets.size(); s++) {
+                    if (sets.get(s).contains(classStarts[k])) {
+                        classSets[k].set(s);
+                    }
+                }
+                wordClasses[k] = hasBoundaries && WORD.contains(classStarts[k]);
+            }
+
+            // Subset construction, a DFA state being a set of NFA states and the wordness of the previous char
+            Map<List<Object>, Integer> stateIds    = new HashMap<>();
+            List<BitSet>               stateSets   = new ArrayList<>();
+            List<Boolean>              stateWords  = new ArrayList<>();
+            List<int[]>                transitions = new ArrayList<>();
+
+            BitSet initial = closures[start];
+            stateIds.put(Arrays.asList(initial, false), 0);
+            stateSets.add(initial);
+            stateWords.add(false);
+
+            // The classes of each set, to step every class at once
+            int[][] setClasses = new int[sets.size()][];
+
+            for (int s = 0; s < sets.size(); s++) {
+                int[] classes = new int[nbClasses];
+                int   size    = 0;
+
+                for (int k = 0; k < nbClasses; k++) {
+                    if (classSets[k].get(s)) {
+                        classes[size++] = k;
+                    }
+                }
+
+                setClasses[s] = Arrays.copyOf(classes, size);
+            }
+
+            for (int current = 0; current < stateSets.size(); current++) {
+                BitSet   states     = stateSets.get(current);
+                boolean  previous   = stateWords.get(current);
+                int[]    transition = new int[nbClasses];
+                BitSet[] afters     = new BitSet[nbClasses];
+
+                // The word boundaries can be crossed before the classes whose wordness differs from the previous char
+                for (int cross = 0; cross < (hasBoundaries ? 2 : 1); cross++) {
+                    BitSet before = closure(states, cross == 1);
+
+                    for (int s = before.nextSetBit(0); s >= 0; s = before.nextSetBit(s + 1)) {
+                        int set = setTransitions.get(s);
+
+                        if (set < 0) {
+                            continue;
+                        }
+
+                        for (int k : setClasses[set]) {
+                            if (hasBoundaries && (previous != wordClasses[k]) != (cross == 1)) {
+                                continue;
+                            }
+
+                            if (afters[k] == null) {
+                                afters[k] = new BitSet();
+                            }
+
+                            afters[k].set(targets.get(s));
+                        }
+                    }
+                }
+
+                for (int k = 0; k < nbClasses; k++) {
+                    if (afters[k] == null) {
+                        transition[k] = -1;
+                        continue;
+                    }
+
+                    BitSet after = new BitSet();
+
+                    for (int s = afters[k].nextSetBit(0); s >= 0; s = afters[k].nextSetBit(s + 1)) {
+                        after.or(closures[s]);
+                    }
+
+
+                    List<Object> key = Arrays.asList(after, wordClasses[k]);
+                    Integer      id  = stateIds.get(key);
+
+                    if (id == null) {
+                        id = stateSets.size();
+
+                        if (id >= MAX_DFA_STATES) {
+                            throw new UnsupportedOperationException();
+                        }
+
+                        stateIds.put(key, id);
+                        stateSets.add(after);
+                        stateWords.add(wordClasses[k]);
+                    }
+
+                    transition[k] = id;
+                }
+
+                transitions.add(transition);
+            }
+
+            int       nbStates  = stateSets.size();
+            int[]     table     = new int[nbStates * nbClasses];
+            boolean[] accepting = new boolean[nbStates];
+
+            for (int i = 0; i < nbStates; i++) {
+                System.arraycopy(transitions.get(i), 0, table, i * nbClasses, nbClasses);
+                // The end of the content is not a word char
+                accepting[i] = closure(stateSets.get(i), stateWords.get(i)).get(accept);
+            }
+
+            return new Dfa(classStarts, table, accepting);
+        }
+
+        /**
+         * Add the NFA transitions of a node
+         *
+         * @param node the node
+         * @param from the state where the node starts
+         * @return the state where the node ends
+         */
+        private int buildNode (Node node, int from)
+        {
+            if (node instanceof CharSet) {
+                int to = newState();
+                setTransitions.set(from, setIndex((CharSet) node));
+                targets.set(from, to);
+                return to;
+            }
+            else if (node instanceof WordBoundary) {
+                hasBoundaries = true;
+                int to = newState();
+                boundaries.set(from);
+                targets.set(from, to);
+                return to;
+            }
+            else if (node instanceof Concat) {
+                int current = from;
+                for (Node child : ((Concat) node).nodes) {
+                    current = buildNode(child, newEpsilon(current));
+                }
+                return current;
+            }
+            else if (node instanceof Alternation) {
+                int to = newState();
+                for (Node child : ((Alternation) node).nodes) {
+                    int start = newState();
+                    addEpsilon(from, start);
+                    addEpsilon(buildNode(child, start), to);
+                }
+                return to;
+            }
+            else {
+                Repeat repeat  = (Repeat) node;
+                int    current = from;
+
+                for (int i = 0; i < repeat.min; i++) {
+                    current = buildNode(repeat.node, newEpsilon(current));
+                }
+
+                if (repeat.max == -1) {
+                    int loop = newEpsilon(current);
+                    addEpsilon(buildNode(repeat.node, newEpsilon(loop)), loop);
+                    return loop;
+                }
+
+                // The optional occurrences are nested, so skipping one of them skips the following ones too
+                int to = newState();
+
+                for (int i = repeat.min; i < repeat.max; i++) {
+                    addEpsilon(current, to);
+                    current = buildNode(repeat.node, newEpsilon(current));
+                }
+
+                addEpsilon(current, to);
+                return to;
+            }
+        }
+
+        /** Create a state reached from another one by an epsilon transition */
+        private int newEpsilon (int from)
+        {
+            int to = newState();
+            addEpsilon(from, to);
+            return to;
+        }
+
+        private int newState ()
+        {
+            if (epsilons.size() >= MAX_NFA_STATES) {
+                throw new UnsupportedOperationException();
+            }
+
+            epsilons.add(new int[0]);
+            setTransitions.add(-1);
+            targets.add(-1);
+            return epsilons.size() - 1;
+        }
+
+        private void addEpsilon (int from, int to)
+        {
+            int[] current = epsilons.get(from);
+            int[] next    = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = to;
+            epsilons.set(from, next);
+        }
+
+        private int setIndex (CharSet set)
+        {
+            int index = sets.indexOf(set);
+
+            if (index == -1) {
+                sets.add(set);
+                index = sets.size() - 1;
+            }
+
+            return index;
+        }
+
+        private static BitSet singleton (int state)
+        {
+            BitSet set = new BitSet();
+            set.set(state);
+            return set;
+        }
+
+        /**
+         * Get the states reachable with epsilon transitions
+         *
+         * @param states         the starting states
+         * @param crossBoundary true if the word boundaries can be crossed at this position
+         * @return the reachable states
+         */
+        private BitSet closure (BitSet states, boolean crossBoundary)
+        {
+            BitSet result = (BitSet) states.clone();
+            int[]  stack  = new int[epsilons.size()];
+            int    size   = 0;
+
+            for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+                stack[size++] = s;
+            }
+
+            while (size > 0) {
+                int state = stack[--size];
+
+                for (int next : epsilons.get(state)) {
+                    if (!result.get(next)) {
+                        result.set(next);
+                        stack[size++] = next;
+                    }
+                }
+
+                if (crossBoundary && boundaries.get(state) && !result.get(targets.get(state))) {
+                    result.set(targets.get(state));
+                    stack[size++] = targets.get(state);
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.sun.istack.internal.NotNull;
 import fr.polytech.marechal.validator.FormValidator;
 
 import java.util.HashMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * Created by Robin on 23/05/2017. <br>
@@ -15,37 +17,61 @@ public enum FieldValueType
     FIRSTNAME("^([A-Z]?[a-z]+)(([ -][A-Z]?[a-z]+))*$"),
     LASTNAME("^([A-Z]?[a-z]+)(([ -][A-Z]?[a-z]+))*$"),
     NAME("^\\w[\\w\\s]*$"),
-    HOURS("^[0-9]{0,2}$"),
-    MINUTES("^[0-9]{0,2}$"),
-    SECONDS("^[0-9]{0,2}$"),
-    DATE("^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$"),
-    TIME("^[0-9]{1,2}:[0-9]{1,2}$"),
-    DATETIME("^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2} [0-9]{1,2}:[0-9]{1,2}$"),
+    HOURS("^[0-9]{0,2}$", CharValidators::isTwoDigitsAtMost),
+    MINUTES("^[0-9]{0,2}$", CharValidators::isTwoDigitsAtMost),
+    SECONDS("^[0-9]{0,2}$", CharValidators::isTwoDigitsAtMost),
+    DATE("^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$", CharValidators::isDate),
+    TIME("^[0-9]{1,2}:[0-9]{1,2}$", CharValidators::isTime),
+    DATETIME("^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2} [0-9]{1,2}:[0-9]{1,2}$", CharValidators::isDateTime),
     EMAIL("^([\\w\\.\\-_]+)?\\w+@([\\w-_]|(\\w|-|_|(\\.[\\w-_]+)))+(\\.\\w+){1,}$"),
     URL("^https?\\:\\/\\/[-a-zA-Z0-9@:%._\\+~#=]{2,256}(\\.[a-z]{2,6})?\\b([-a-zA-Z0-9@:%_\\+.~#?&//=]*)$"),
-    PRICE("^-?\\d+(\\.\\d+)?$"),
-    TEXT("^[\\s\\S]*$"),
-    VARCHAR("^[\\s\\S]{0,255}$"),
-    NUMBERS_INT("^-?\\d+$"),
-    NUMBERS_INT_UNSIGNED("^\\d+$"),
-    NUMBERS_DOUBLE("^-?\\d+(\\.\\d+)?$"),
-    NUMBERS_DOUBLE_UNSIGNED("^\\d+(\\.\\d+)?$"),
-    CHARACTER_LETTER("^[a-zA-Z]{1}$"),
-    CHARACTER_LETTER_NUMBER("^[a-zA-Z0-9]{1}$"),
-    CHARACTER_NUMBER("^\\d{1}$"),
-    CHARACTER("^[\\s\\S]$"),
-    UNDEFINED("^[\\s\\S]*$");
+    PRICE("^-?\\d+(\\.\\d+)?$", CharValidators::isDecimal),
+    TEXT("^[\\s\\S]*$", CharValidators::isAnything),
+    VARCHAR("^[\\s\\S]{0,255}$", CharValidators::isVarchar),
+    NUMBERS_INT("^-?\\d+$", CharValidators::isInteger),
+    NUMBERS_INT_UNSIGNED("^\\d+$", CharValidators::isUnsignedInteger),
+    NUMBERS_DOUBLE("^-?\\d+(\\.\\d+)?$", CharValidators::isDecimal),
+    NUMBERS_DOUBLE_UNSIGNED("^\\d+(\\.\\d+)?$", CharValidators::isUnsignedDecimal),
+    CHARACTER_LETTER("^[a-zA-Z]{1}$", CharValidators::isCharacterLetter),
+    CHARACTER_LETTER_NUMBER("^[a-zA-Z0-9]{1}$", CharValidators::isCharacterLetterNumber),
+    CHARACTER_NUMBER("^\\d{1}$", CharValidators::isCharacterNumber),
+    CHARACTER("^[\\s\\S]$", CharValidators::isCharacter),
+    UNDEFINED("^[\\s\\S]*$", CharValidators::isAnything);
 
     /** The regexp */
     private final String regexp;
 
+    /** The compiled regexp, shared by every field of this type */
+    private final Pattern pattern;
+
+    /** The regex-free validator accepting the same contents as the regexp, null if there is none */
+    private final Predicate<CharSequence> validator;
+
+    /** The automaton compiled from the regexp on first use, null if there is a validator or if the regexp is not supported */
+    private volatile Dfa dfa;
+
+    /** Has the automaton been compiled or not */
+    private volatile boolean dfaCompiled = false;
+
     /**
      * Default constructor
      * @param regexp the regular expression
      */
     FieldValueType (@NotNull String regexp)
+    {
+        this(regexp, null);
+    }
+
+    /**
+     * 2 parameters constructor
+     * @param regexp    the regular expression
+     * @param validator the regex-free validator accepting the same contents as the regexp
+     */
+    FieldValueType (@NotNull String regexp, Predicate<CharSequence> validator)
     {
         this.regexp = regexp;
+        this.pattern = Pattern.compile(regexp);
+        this.validator = validator;
     }
 
     /**
@@ -57,6 +83,130 @@ public enum FieldValueType
         return regexp;
     }
 
+    /**
+     * Get the compiled regular expression <br>
+     * The pattern is compiled once, use {@link Pattern#matcher(CharSequence)} to get a reusable matcher
+     * @return the compiled regular expression
+     */
+    public Pattern getPattern ()
+    {
+        return pattern;
+    }
+
+    /**
+     * Know if the type has a regex-free validator
+     * @return true if the type has a specialized validator, false otherwise
+     */
+    public boolean hasSpecializedValidator ()
+    {
+        return validator != null;
+    }
+
+    /**
+     * Know if the type is tested with the {@link java.util.regex} engine
+     * @return false if the type has a specialized validator or a compiled automaton, true otherwise
+     */
+    public boolean usesRegexEngine ()
+    {
+        return validator == null && getDfa() == null;
+    }
+
+    /**
+     * Test a content against the type <br>
+     * The specialized validator is used if there is one, then the automaton compiled from the regexp,
+     * which matches in linear time without backtracking. The regexp engine is the last resort.
+     * This method is thread safe.
+     * @param content the content to test
+     * @return true if the content matches the type, false otherwise
+     */
+    public boolean matches (@NotNull CharSequence content)
+    {
+        if (validator != null) {
+            return validator.test(content);
+        }
+
+        Dfa dfa = getDfa();
+
+        if (dfa != null) {
+            return dfa.matches(content);
+        }
+
+        return pattern.matcher(content).matches();
+    }
+
+    /**
+     * Know if the contents of the type are integers
+     * @return true if a valid content is an integer, false otherwise
+     */
+    public boolean isInteger ()
+    {
+        switch (this) {
+            case HOURS:
+            case MINUTES:
+            case SECONDS:
+            case NUMBERS_INT:
+            case NUMBERS_INT_UNSIGNED:
+            case CHARACTER_NUMBER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Know if the contents of the type are numbers, integers or decimals
+     * @return true if a valid content is a number, false otherwise
+     */
+    public boolean isNumeric ()
+    {
+        return isInteger() || this == PRICE || this == NUMBERS_DOUBLE || this == NUMBERS_DOUBLE_UNSIGNED;
+    }
+
+    /**
+     * Know if the contents of the type are dates or times
+     * @return true for the {@link #DATE}, {@link #DATETIME} and {@link #TIME} types, false otherwise
+     */
+    public boolean isTemporal ()
+    {
+        return this == DATE || this == DATETIME || this == TIME;
+    }
+
+    /**
+     * Get the maximum length of the contents, for the types only testing the length of their contents
+     * @return the maximum length, or -1 if the type tests more than the length
+     */
+    public int getMaxLength ()
+    {
+        switch (this) {
+            case TEXT:
+            case UNDEFINED:
+                return Integer.MAX_VALUE;
+            case VARCHAR:
+                return 255;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Get the automaton compiled from the regexp <br>
+     * The compilation is done on first use, since the bigger expressions take some time to compile
+     * @return the automaton, or null if there is a specialized validator or if the regexp is not supported
+     */
+    private Dfa getDfa ()
+    {
+        if (!dfaCompiled) {
+            synchronized (this) {
+                if (!dfaCompiled) {
+                    dfa = validator == null ? Dfa.compile(regexp) : null;
+                    dfaCompiled = true;
+                }
+            }
+        }
+
+        return dfa;
+    }
+
     /**
      * Get the String associated to the enum value
      * @return the String associated to the enum value
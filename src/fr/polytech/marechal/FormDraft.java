@@ -0,0 +1,670 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.scene.control.ComboBox;
+import javafx.util.Duration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * The draft of a {@link FormMap}, saved to an append-only file. <br>
+ * Each snapshot only records the fields changed since the previous snapshot, found with their edit generation,
+ * so the content of an unchanged {@link javafx.scene.web.HTMLEditor} is never read again.
+ * The values are copied on the JavaFX thread, then encoded and appended to the file on a background thread. <br>
+ * The file is a sequence of records, each one being the length of its body, the body, and the CRC32 of the body.
+ * A header or a record truncated by a crash ends the log: it is ignored on load, and cut off before the next append.
+ * The latest value of each field wins. <br>
+ * A field is only recorded as saved once its record is written: the fields of a failed write are written again by the
+ * next snapshot. The failed writes are reported to the write error handler, see {@link #setOnWriteError(Consumer)}. <br>
+ * The draft is restored in a single {@link FormMap#batch(Runnable)}: the fields are filled while their listeners
+ * are suspended, then each restored field is validated once. <br>
+ * Close the draft once it is not used anymore, to stop its autosave and its writer thread.
+ */
+public class FormDraft implements AutoCloseable
+{
+    /** The magic number at the start of the file */
+    private static final int MAGIC = 0x46584446;
+
+    /** The version of the file format */
+    private static final int VERSION = 1;
+
+    /** The header of the file: the magic number and the version */
+    private static final byte[] HEADER = ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).array();
+
+    /** A null value */
+    private static final byte NULL_VALUE = 0;
+
+    /** A text value */
+    private static final byte TEXT_VALUE = 1;
+
+    /** A boolean value */
+    private static final byte BOOLEAN_VALUE = 2;
+
+    /** The index of a combo box item */
+    private static final byte ITEM_INDEX_VALUE = 3;
+
+    /** The form */
+    private final FormMap form;
+
+    /** The draft file */
+    private final Path file;
+
+    /** The thread writing the file, so that the records are appended in order */
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "form-draft");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The edit generation of each field when it was last saved, being saved, or restored, guarded by itself */
+    private final Map<FormMap.Field, Long> savedGenerations = new IdentityHashMap<>();
+
+    /** The handler of the failed snapshots, called on the JavaFX thread, null if there is none */
+    private Consumer<Exception> onWriteError;
+
+    /** The timeline taking the periodic snapshots, null if there is none */
+    private Timeline autosave;
+
+    /** Has the end of the file been checked for a truncated record or not, only read by the writer thread */
+    private boolean tailChecked = false;
+
+    /**
+     * 2 parameters constructor
+     *
+     * @param form the form
+     * @param file the draft file, created on the first snapshot
+     */
+    public FormDraft (@NotNull FormMap form, @NotNull Path file)
+    {
+        this.form = form;
+        this.file = file;
+    }
+
+    /**
+     * Get the draft file
+     *
+     * @return the draft file
+     */
+    public Path getFile ()
+    {
+        return file;
+    }
+
+    /**
+     * Append the fields changed since the last snapshot to the file <br>
+     * This method has to be called from the JavaFX thread, the file is written in background.
+     * If the write fails, its fields are written again by the next snapshot
+     *
+     * @return the pending write, null if no field changed
+     */
+    public Future<?> snapshot ()
+    {
+        return snapshot(false);
+    }
+
+    /**
+     * Append the fields changed since the last snapshot to the file
+     *
+     * @param autosave true if the snapshot is taken by the autosave, whose failures have to be reported even without a handler
+     * @return the pending write, null if no field changed
+     */
+    private Future<?> snapshot (boolean autosave)
+    {
+        List<String>             keys    = new ArrayList<>();
+        List<Object>             values  = new ArrayList<>();
+        Map<FormMap.Field, Long> written = new IdentityHashMap<>();
+
+        synchronized (savedGenerations) {
+            for (FormMap.Field field : form) {
+                long generation = field.generation;
+                Long saved      = savedGenerations.get(field);
+
+                if (saved != null && saved == generation) {
+                    continue;
+                }
+
+                // Recorded now so that the next snapshots skip the field while it is written, forgotten if the write fails
+                savedGenerations.put(field, generation);
+                written.put(field, generation);
+                keys.add(field.getKey());
+                values.add(encodable(field));
+            }
+        }
+
+        if (keys.isEmpty()) {
+            return null;
+        }
+
+        return writer.submit(() -> {
+            try {
+                append(encode(keys, values));
+            }
+            catch (IOException | RuntimeException e) {
+                // The failed write may have left a truncated record, to cut off before the next append
+                tailChecked = false;
+                forget(written);
+                reportWriteError(e, autosave);
+                throw e;
+            }
+
+            return null;
+        });
+    }
+
+    /**
+     * Forget the generations recorded by a failed write, so that its fields are written by the next snapshot <br>
+     * A field recorded again by a later snapshot is left alone: the later write holds a newer value
+     *
+     * @param written the generation of each field of the failed write
+     */
+    private void forget (Map<FormMap.Field, Long> written)
+    {
+        synchronized (savedGenerations) {
+            for (Map.Entry<FormMap.Field, Long> entry : written.entrySet()) {
+                if (entry.getValue().equals(savedGenerations.get(entry.getKey()))) {
+                    savedGenerations.remove(entry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Report a failed write on the JavaFX thread, to the write error handler <br>
+     * Without a handler, the failures of the autosave go to the uncaught exception handler of the JavaFX thread,
+     * the others are only reported by the future of their snapshot
+     *
+     * @param exception the failure
+     * @param autosave  true if the snapshot was taken by the autosave
+     */
+    private void reportWriteError (Exception exception, boolean autosave)
+    {
+        Platform.runLater(() -> {
+            Consumer<Exception> handler = onWriteError;
+
+            if (handler != null) {
+                handler.accept(exception);
+            }
+            else if (autosave) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, exception);
+            }
+        });
+    }
+
+    /**
+     * Set the handler of the failed snapshots, e.g. to warn the user that the draft is not saved anymore <br>
+     * The handler is called on the JavaFX thread, for the snapshots of the autosave and the others
+     *
+     * @param onWriteError the handler, or null to report the failures of the autosave to the uncaught exception handler
+     */
+    public void setOnWriteError (Consumer<Exception> onWriteError)
+    {
+        this.onWriteError = onWriteError;
+    }
+
+    /**
+     * Get the handler of the failed snapshots
+     *
+     * @return the handler, null if there is none
+     */
+    public Consumer<Exception> getOnWriteError ()
+    {
+        return onWriteError;
+    }
+
+    /**
+     * Take a snapshot periodically
+     *
+     * @param period the period of the snapshots, or null to stop the autosave
+     */
+    public void setAutosave (Duration period)
+    {
+        if (autosave != null) {
+            autosave.stop();
+            autosave = null;
+        }
+
+        if (period != null) {
+            autosave = new Timeline(new KeyFrame(period, event -> snapshot(true)));
+            autosave.setCycleCount(Timeline.INDEFINITE);
+            autosave.play();
+        }
+    }
+
+    /**
+     * Read the latest saved value of each field <br>
+     * This method can be called from any thread
+     *
+     * @return the values by key, in the order they were first saved, empty if there is no draft
+     * @throws IOException if the file cannot be read or is not a draft
+     */
+    public Map<String, Object> load () throws IOException
+    {
+        Map<String, Object> values = new LinkedHashMap<>();
+
+        if (Files.exists(file)) {
+            read(values);
+        }
+
+        return values;
+    }
+
+    /**
+     * Read the valid records of the file <br>
+     * The log ends at the first record truncated or malformed, and at a header truncated by a crash
+     *
+     * @param values the values by key, updated with each valid record, or null to only check the records
+     * @return the length of the valid part of the file, 0 if even the header is truncated
+     * @throws IOException if the file cannot be read or is not a draft
+     */
+    private long read (Map<String, Object> values) throws IOException
+    {
+        long fileLength = Files.size(file);
+
+        if (fileLength < HEADER.length) {
+            byte[] start = Files.readAllBytes(file);
+
+            if (!Arrays.equals(start, Arrays.copyOf(HEADER, start.length))) {
+                throw new IOException("Not a form draft: " + file);
+            }
+
+            return 0;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a form draft: " + file);
+            }
+
+            long                validLength = HEADER.length;
+            Map<String, Object> record      = new LinkedHashMap<>();
+
+            while (true) {
+                byte[] body;
+
+                try {
+                    int length = in.readInt();
+
+                    if (length < 0 || validLength + 4 + length + 8 > fileLength) {
+                        return validLength;
+                    }
+
+                    body = new byte[length];
+                    in.readFully(body);
+
+                    CRC32 crc = new CRC32();
+                    crc.update(body, 0, length);
+
+                    if (in.readLong() != crc.getValue()) {
+                        return validLength;
+                    }
+                }
+                catch (EOFException e) {
+                    return validLength;
+                }
+
+                // A malformed record is decoded apart, so that it ends the log without changing the values
+                try {
+                    record.clear();
+                    decode(body, record);
+                }
+                catch (IOException | RuntimeException e) {
+                    return validLength;
+                }
+
+                if (values != null) {
+                    values.putAll(record);
+                }
+
+                validLength += 4 + body.length + 8;
+            }
+        }
+    }
+
+    /**
+     * Restore the saved values in the form, in a single batch <br>
+     * The listeners of the fields are suspended while they are filled, then each restored field is validated once.
+     * This method has to be called from the JavaFX thread.
+     *
+     * @param values the values by key, as returned by {@link #load()}
+     */
+    public void restore (@NotNull Map<String, Object> values)
+    {
+        form.batch(() -> {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                FormMap.Field field = form.get(entry.getKey());
+
+                if (field != null) {
+                    field.setValue(decodable(field, entry.getValue()));
+                }
+            }
+        });
+
+        synchronized (savedGenerations) {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                FormMap.Field field = form.get(entry.getKey());
+
+                if (field != null) {
+                    savedGenerations.put(field, field.generation);
+                }
+            }
+        }
+    }
+
+    /**
+     * Load and restore the saved values <br>
+     * This method has to be called from the JavaFX thread
+     *
+     * @throws IOException if the file cannot be read or is not a draft
+     */
+    public void restore () throws IOException
+    {
+        restore(load());
+    }
+
+    /**
+     * Rewrite the file with the latest value of each field only <br>
+     * The file is rewritten in background, after the pending snapshots
+     *
+     * @return the pending rewrite
+     */
+    public Future<?> compact ()
+    {
+        return writer.submit(() -> {
+            Map<String, Object> values = load();
+            Path                tmp    = file.resolveSibling(file.getFileName() + ".tmp");
+
+            Files.deleteIfExists(tmp);
+            write(tmp, encode(new ArrayList<>(values.keySet()), new ArrayList<>(values.values())));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return null;
+        });
+    }
+
+    /**
+     * Delete the draft, e.g. once the form was submitted <br>
+     * The file is deleted in background, after the pending snapshots
+     *
+     * @return the pending deletion
+     */
+    public Future<?> discard ()
+    {
+        return writer.submit(() -> {
+            Files.deleteIfExists(file);
+            return null;
+        });
+    }
+
+    /**
+     * Close the draft: stop the autosave, then wait for the pending writes and stop the writer thread <br>
+     * Nothing can be written to the draft anymore, but it can still be loaded.
+     * This method has to be called from the JavaFX thread
+     */
+    @Override
+    public void close ()
+    {
+        setAutosave(null);
+        writer.shutdown();
+
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Know if the draft was closed
+     *
+     * @return true if the draft was closed, false otherwise
+     */
+    public boolean isClosed ()
+    {
+        return writer.isShutdown();
+    }
+
+    /**
+     * Get the value of a field, in a form that can be written
+     *
+     * @param field the field
+     * @return a String, a Boolean, an Integer index of a combo box item, or null
+     */
+    private static Object encodable (FormMap.Field field)
+    {
+        Object value = field.getValue();
+
+        if (field.getField() instanceof ComboBox && value != null) {
+            int index = ((ComboBox<?>) field.getField()).getItems().indexOf(value);
+            return index >= 0 ? (Object) index : value.toString();
+        }
+
+        return value;
+    }
+
+    /**
+     * Get the value to set in a field from a loaded value
+     *
+     * @param field the field
+     * @param value the loaded value
+     * @return the value of the field
+     */
+    private static Object decodable (FormMap.Field field, Object value)
+    {
+        if (field.getField() instanceof ComboBox && value instanceof Integer) {
+            List<?> items = ((ComboBox<?>) field.getField()).getItems();
+            int     index = (Integer) value;
+
+            return index < items.size() ? items.get(index) : null;
+        }
+
+        return value;
+    }
+
+    /**
+     * Encode a record
+     *
+     * @param keys   the keys of the fields
+     * @param values the values of the fields
+     * @return the body of the record
+     * @throws IOException if the record cannot be encoded
+     */
+    private static byte[] encode (List<String> keys, List<Object> values) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream      out   = new DataOutputStream(bytes);
+
+        out.writeInt(keys.size());
+
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = values.get(i);
+            writeString(out, keys.get(i));
+
+            if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN_VALUE);
+                out.writeBoolean((Boolean) value);
+            }
+            else if (value instanceof Integer) {
+                out.writeByte(ITEM_INDEX_VALUE);
+                out.writeInt((Integer) value);
+            }
+            else if (value != null) {
+                out.writeByte(TEXT_VALUE);
+                writeString(out, value.toString());
+            }
+            else {
+                out.writeByte(NULL_VALUE);
+            }
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a record
+     *
+     * @param body   the body of the record
+     * @param values the values by key, updated with the record
+     * @throws IOException if the record is malformed
+     */
+    private static void decode (byte[] body, Map<String, Object> values) throws IOException
+    {
+        DataInputStream in   = new DataInputStream(new ByteArrayInputStream(body));
+        int             size = in.readInt();
+
+        for (int i = 0; i < size; i++) {
+            String key  = readString(in);
+            byte   type = in.readByte();
+
+            switch (type) {
+                case BOOLEAN_VALUE:
+                    values.put(key, in.readBoolean());
+                    break;
+                case ITEM_INDEX_VALUE:
+                    values.put(key, in.readInt());
+                    break;
+                case TEXT_VALUE:
+                    values.put(key, readString(in));
+                    break;
+                case NULL_VALUE:
+                    values.put(key, null);
+                    break;
+                default:
+                    throw new IOException("Unknown value type: " + type);
+            }
+        }
+    }
+
+    /**
+     * Append a record to the file, writing the header first if the file is new <br>
+     * The first append cuts off the end of the file left by a crash, if any
+     *
+     * @param body the body of the record
+     * @throws IOException if the file cannot be written
+     */
+    private void append (byte[] body) throws IOException
+    {
+        if (!tailChecked && Files.exists(file)) {
+            // A record truncated by a crash would hide the records appended after it
+            long validLength = read(null);
+
+            if (validLength == 0) {
+                // Even the header is truncated: the file is written again
+                Files.delete(file);
+            }
+            else {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    if (channel.size() > validLength) {
+                        channel.truncate(validLength);
+                    }
+                }
+            }
+        }
+
+        tailChecked = true;
+
+        if (!Files.exists(file)) {
+            write(file, body);
+            return;
+        }
+
+        try (OutputStream stream = Files.newOutputStream(file, StandardOpenOption.APPEND)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            writeRecord(out, body);
+            out.flush();
+        }
+    }
+
+    /**
+     * Write a new file made of the header and one record
+     *
+     * @param path the file
+     * @param body the body of the record
+     * @throws IOException if the file cannot be written
+     */
+    private static void write (Path path, byte[] body) throws IOException
+    {
+        try (OutputStream stream = Files.newOutputStream(path, StandardOpenOption.CREATE_NEW)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.write(HEADER);
+            writeRecord(out, body);
+            out.flush();
+        }
+    }
+
+    /**
+     * Write a record: the length of its body, the body and its CRC32
+     *
+     * @param out  the output
+     * @param body the body of the record
+     * @throws IOException if the record cannot be written
+     */
+    private static void writeRecord (DataOutputStream out, byte[] body) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeLong(crc.getValue());
+    }
+
+    /**
+     * Write a String of any length, as its UTF-8 length and bytes
+     *
+     * @param out    the output
+     * @param string the String
+     * @throws IOException if the String cannot be written
+     */
+    private static void writeString (DataOutputStream out, String string) throws IOException
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a String written by {@link #writeString(DataOutputStream, String)}
+     *
+     * @param in the input
+     * @return the String
+     * @throws IOException if the String cannot be read
+     */
+    private static String readString (DataInputStream in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,60 +1,245 @@
 package fr.polytech.marechal;
 
 import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.exceptions.ErrorType;
+import fr.polytech.marechal.exceptions.FormException;
 import fr.polytech.marechal.validator.FormValidator;
 import fr.polytech.marechal.validator.FormValidatorCssClass;
+import fr.polytech.marechal.validator.HtmlText;
 import fr.polytech.marechal.validator.InvalidationReason;
+import fr.polytech.marechal.validator.ValidationEvents;
+import fr.polytech.marechal.validator.ValidationMetrics;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
+import javafx.event.Event;
 import javafx.event.EventHandler;
+import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.*;
+import javafx.scene.input.DragEvent;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.web.HTMLEditor;
+import javafx.util.Duration;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 /**
  * Created by Robin on 23/05/2017. <br>
- * This class represent a form with different fields
+ * This class represent a form with different fields <br>
+ * Each field gets a dense id when it is added, a field replacing another one with the same key taking its id.
+ * The removed fields leave a free slot, until they outnumber the fields: the ids are then compacted, keeping their order.
+ * The state of the fields (validity, required flag, invalidation reasons) is stored in arrays indexed by id,
+ * the fields are found by key in constant time and iterated in the order they were added.
+ * A {@link Map} view of the fields is given by {@link #asMap()}.
  */
-public class FormMap extends HashMap<String, FormMap.Field>
+public class FormMap implements Iterable<FormMap.Field>
 {
+    /** The default minimum time (in milliseconds) between two validations of a {@link HTMLEditor} being edited */
+    public static final long DEFAULT_SNAPSHOT_INTERVAL = 250;
+
+    /** The invalidation reasons, indexed by ordinal */
+    private static final InvalidationReason[] INVALIDATION_REASONS = InvalidationReason.values();
+
+    /** The initial capacity of the fields' arrays */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The state of a parsed content: the value is parsed */
+    private static final byte PARSED = 0;
+
+    /** The state of a parsed content: the content is empty */
+    private static final byte EMPTY = 1;
+
+    /** The state of a parsed content: the content does not hold a value of its type */
+    private static final byte UNPARSABLE = 2;
+
+    /** The format of the {@link FieldValueType#DATE} contents */
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("uuuu-M-d");
+
+    /** The format of the {@link FieldValueType#DATETIME} contents */
+    private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("uuuu-M-d H:m");
+
+    /** The format of the {@link FieldValueType#TIME} contents */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("H:m");
+
     /** The submit button of the form */
     private Button submitButton;
 
+    /** The fields, by control */
+    private final Map<Control, Field> fieldsByControl = new IdentityHashMap<>();
+
+    /** The ids of the fields, by key */
+    private final Map<String, Integer> idsByKey = new HashMap<>();
+
+    /** The fields, by id, null for the removed fields */
+    private Field[] fields = new Field[INITIAL_CAPACITY];
+
+    /** Is the field validated or not, by id: its content is valid, no rule fails on it and no remote validation rejects it */
+    private boolean[] validatedFlags = new boolean[INITIAL_CAPACITY];
+
+    /** Is the content of the field valid or not, by id */
+    private boolean[] selfValidFlags = new boolean[INITIAL_CAPACITY];
+
+    /** Is the field required or not, by id */
+    private boolean[] requiredFlags = new boolean[INITIAL_CAPACITY];
+
+    /** The invalidation reasons of the field, as a bitmask of the reasons' ordinals, by id */
+    private int[] reasonMasks = new int[INITIAL_CAPACITY];
+
+    /** The edit generation of the parsed content of the field, by id, -1 if the content was never parsed */
+    private long[] parsedGenerations = new long[INITIAL_CAPACITY];
+
+    /** The state of the parsed content of the field, by id: {@link #PARSED}, {@link #EMPTY} or {@link #UNPARSABLE} */
+    private byte[] parsedStates = new byte[INITIAL_CAPACITY];
+
+    /** The parsed value of the integer fields, by id */
+    private long[] parsedLongs = new long[INITIAL_CAPACITY];
+
+    /** The parsed value of the decimal fields, by id */
+    private double[] parsedDoubles = new double[INITIAL_CAPACITY];
+
+    /** The parsed value of the field as an object (a {@link BigDecimal} or a date), by id, null if not parsed as an object */
+    private Object[] parsedValues = new Object[INITIAL_CAPACITY];
+
+    /** The number of ids given, that is the bound of the ids */
+    private int nbOfIds = 0;
+
+    /** The number of fields */
+    private int nbOfFields = 0;
+
+    /** The {@link Map} view of the fields, created on first use */
+    private Map<String, Field> mapView;
+
+    /** The handler submitting the form when the enter key is pressed in a field */
+    private final EventHandler<KeyEvent> enterKeyHandler = this::submitOnEnter;
+
+    /** The handler submitting the form when the enter key fires the action of a text field */
+    private final EventHandler<ActionEvent> textFieldActionHandler = this::submitOnAction;
+
+    /** The listener moving the submit handlers to the scene of the submit button */
+    private final ChangeListener<Scene> submitSceneListener = (observable, oldScene, newScene) -> {
+        if (oldScene != null) {
+            oldScene.removeEventHandler(KeyEvent.KEY_PRESSED, enterKeyHandler);
+            oldScene.removeEventHandler(ActionEvent.ACTION, textFieldActionHandler);
+        }
+        if (newScene != null) {
+            newScene.addEventHandler(KeyEvent.KEY_PRESSED, enterKeyHandler);
+            newScene.addEventHandler(ActionEvent.ACTION, textFieldActionHandler);
+        }
+    };
+
     /** the number of unvalidated fields */
-    private int nbOfUnvalidatedFields = 0;
+    private final AtomicInteger nbOfUnvalidatedFields = new AtomicInteger();
+
+    /** Is every field of the form validated or not */
+    private final ReadOnlyBooleanWrapper formValid = new ReadOnlyBooleanWrapper(this, "formValid", true);
+
+    /** Is the {@link FormValidatorCssClass#INPUT_INVALID} CSS class put on the invalid fields or not */
+    private boolean invalidStyleClassEnabled = false;
+
+    /** The scheduler coalescing the validations, null to validate on every change */
+    private ValidationScheduler validationScheduler;
+
+    /** The rules across several fields */
+    private final CrossFieldRuleGraph ruleGraph = new CrossFieldRuleGraph();
+
+    /** The validation metrics of the form, created on first use */
+    private ValidationMetrics metrics;
+
+    /** The virtualized validation of the form, null to validate every change right away */
+    private VirtualizedValidation virtualizedValidation;
+
+    /** The number of nested suspensions of the fields' listeners */
+    private int suspendCount = 0;
+
+    /** The fields changed while the listeners were suspended */
+    private final List<Field> changedWhileSuspended = new ArrayList<>();
 
     /**
      * Add a field to the form.<br>
-     * If it's a {@link TextInputControl}, the is tested on every text changes
+     * If it's a {@link TextInputControl}, the is tested on every text changes <br>
+     * A field already added with the same key is replaced: the new field takes its id, so its place in the iteration order,
+     * and the rules referencing the key are kept and evaluated again on the new field
      *
-     * @param key       the HashMap key
+     * @param key       the key of the field
      * @param valueType the type of the value (e.g. firstname, date, datetime...)
      * @param field     the field
      * @param <T>       a class extending {@link Control}
      */
     public <T extends Control> void add (@NotNull String key, @NotNull FieldValueType valueType, @NotNull T field)
     {
-        Field<T> formFieldObject = new Field<>(field, valueType);
-        formFieldObject.validated = true;
-        super.put(key, formFieldObject);
+        Integer replacedId = idsByKey.get(key);
+        int     id;
+
+        if (replacedId != null) {
+            // The failures of the rules were counted by the replaced field, the new field counts them again
+            for (CrossFieldRule rule : ruleGraph.getRulesByTarget(key)) {
+                rule.violated = false;
+            }
 
-        if (field instanceof TextInputControl) {
-            ((TextInputControl) field).textProperty().addListener((obs, oldV, newV) -> FormValidator.validateField(formFieldObject));
+            id = replacedId;
+            release(id);
         }
-        else if (field instanceof ComboBoxBase) {
-            ((ComboBoxBase) field).valueProperty().addListener((observable, oldValue, newValue) -> FormValidator.validateField(formFieldObject));
+        else {
+            if (nbOfIds == fields.length) {
+                grow();
+            }
+
+            id = nbOfIds++;
+            idsByKey.put(key, id);
+            nbOfFields++;
+        }
+
+        Field<T> formFieldObject = new Field<>(key, field, valueType);
+        formFieldObject.index = id;
+        fields[id] = formFieldObject;
+        fieldsByControl.put(field, formFieldObject);
+        formFieldObject.attach();
+
+        if (replacedId != null && !ruleGraph.isEmpty()) {
+            PriorityQueue<CrossFieldRule> queue  = ruleGraph.newQueue();
+            Set<CrossFieldRule>           queued = new HashSet<>();
+            CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByTarget(key));
+            CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByDependency(key));
+            evaluateRules(queue, queued);
         }
-        prepareEnterKeyEvent();
     }
 
     /**
      * Add a field to the form.<br>
      * If it's a {@link TextInputControl}, the is tested on every text changes
      *
-     * @param key        the HashMap key
+     * @param key        the key of the field
      * @param valueType  the type of the value (e.g. firstname, date, datetime...)
      * @param field      the field
      * @param isRequired true if the field should not be empty, false otherwise
@@ -68,310 +253,1847 @@ public class FormMap extends HashMap<String, FormMap.Field>
         formFieldObject.setRequired(isRequired);
 
         if (isRequired) {
-            formFieldObject.unValidate();
             FormValidator.validateField(formFieldObject);
             formFieldObject.resetCss();
         }
-
-        updateSubmitButtonState();
     }
 
     /**
-     * Set the submit button of the form <br>
-     * Doing this allows the form validator to disable the button
-     * if at least one field is unvalidated.
-     *
-     * @param submitButton the submit button of the form
+     * Double the capacity of the fields' arrays
      */
-    public void setSubmitButton (@NotNull Button submitButton)
+    private void grow ()
     {
-        this.submitButton = submitButton;
-        updateSubmitButtonState();
-        prepareEnterKeyEvent();
-    }
+        int capacity = fields.length * 2;
 
+        fields = Arrays.copyOf(fields, capacity);
+        validatedFlags = Arrays.copyOf(validatedFlags, capacity);
+        selfValidFlags = Arrays.copyOf(selfValidFlags, capacity);
+        requiredFlags = Arrays.copyOf(requiredFlags, capacity);
+        reasonMasks = Arrays.copyOf(reasonMasks, capacity);
+        parsedGenerations = Arrays.copyOf(parsedGenerations, capacity);
+        parsedStates = Arrays.copyOf(parsedStates, capacity);
+        parsedLongs = Arrays.copyOf(parsedLongs, capacity);
+        parsedDoubles = Arrays.copyOf(parsedDoubles, capacity);
+        parsedValues = Arrays.copyOf(parsedValues, capacity);
+    }
 
     /**
-     * Update the state (enabled or disabled) of the submit button
+     * Get a field by key
+     *
+     * @param key the key of the field
+     * @return the field, or null if there is no field with this key
      */
-    private void updateSubmitButtonState ()
+    public Field get (String key)
     {
-        if (submitButton != null) {
-            submitButton.setDisable(nbOfUnvalidatedFields != 0);
-        }
+        Integer id = idsByKey.get(key);
+        return id == null ? null : fields[id];
     }
 
     /**
-     * Get the submit button of the form
+     * Know if the form has a field
      *
-     * @return the submit button of the form
+     * @param key the key of the field
+     * @return true if the form has a field with this key, false otherwise
      */
-    public Button getSubmitButton ()
+    public boolean containsKey (String key)
     {
-        return submitButton;
+        return idsByKey.containsKey(key);
     }
 
     /**
-     * Reset every fields at it's default content
+     * Get the number of fields
+     *
+     * @return the number of fields
      */
-    public void clearAll ()
+    public int size ()
     {
-        forEach((s, field) -> {
-            Control control = field.getField();
-
-            if (control instanceof TextInputControl) {
-                ((TextInputControl) control).clear();
-            }
-            else if (control instanceof HTMLEditor) {
-                ((HTMLEditor) control).setHtmlText("");
-            }
-            else if (control instanceof ToggleButton) {
-                ((ToggleButton) control).setSelected(false);
-            }
-            else if (control instanceof CheckBox) {
-                ((CheckBox) control).setSelected(false);
-            }
-            else if (control instanceof ComboBox) {
-                ((ComboBox<Object>) control).getSelectionModel().clearSelection();
-            }
-        });
+        return nbOfFields;
     }
 
     /**
-     * Define the action to trigger when the form is submitted
+     * Know if the form has no field
      *
-     * @param eventHandler the event handler
+     * @return true if the form has no field, false otherwise
      */
-    public void setOnSubmit (EventHandler<ActionEvent> eventHandler)
+    public boolean isEmpty ()
     {
-        submitButton.setOnAction(eventHandler);
+        return nbOfFields == 0;
     }
 
     /**
-     * Console debugging String
+     * Iterate over the fields, in the order they were added
      *
-     * @return the debugging String
+     * @return the iterator of the fields
      */
     @Override
-    public String toString ()
+    public Iterator<Field> iterator ()
     {
-        String linesep = System.lineSeparator();
-        String format  = "FormMap: {%ls%s%ls%s%ls%s%ls}";
-
-        format = format.replaceAll("%ls", linesep);
-
-        String fields = "";
-        String btn    = "";
-
-        String infosFormat = "\tInfo: {nbFields=%d, unvalidatedFields=%d, button=%b}";
-        String infos       = String.format(infosFormat, this.size(), nbOfUnvalidatedFields, submitButton != null);
-
-        for (Entry<String, Field> entry : this.entrySet()) {
-            String key   = entry.getKey();
-            Field  field = entry.getValue();
-
-
-            String  className = field.getField().getClass().getSimpleName();
-            boolean validated = field.isValidated();
-            boolean required  = field.isRequired();
-            int     nbReasons = field.getInvalidationReasonList().size();
-            String  value     = field.getValue().toString();
-
-            String fieldFormat = "\tField: {key=%s, type=%s, validated=%b, required=%b, invalidationReasons=%d, value=%s}" + linesep;
+        return new FieldIterator();
+    }
 
-            fields += String.format(fieldFormat, key, className, validated, required, nbReasons, value);
-        }
+    /**
+     * Perform an action for each field, in the order the fields were added
+     *
+     * @param action the action, given the key and the field
+     */
+    public void forEach (@NotNull BiConsumer<String, Field> action)
+    {
+        for (int id = 0; id < nbOfIds; id++) {
+            Field field = fields[id];
 
-        if (!fields.isEmpty()) {
-            fields = fields.substring(0, fields.length() - 1);
+            if (field != null) {
+                action.accept(field.key, field);
+            }
         }
+    }
 
-        if (submitButton != null) {
-            String btnFormat = "\tSubmit: {type=%s, disabled=%b, text=%s}";
-            btn += String.format(btnFormat, submitButton.getClass().getSimpleName(), submitButton.isDisabled(), submitButton.getText());
+    /**
+     * Get a {@link Map} view of the fields, by key <br>
+     * The view iterates in the order the fields were added and reflects the later changes of the form.
+     * Removing from the view removes from the form, the fields can only be added with {@link #add(String, FieldValueType, Control)}.
+     *
+     * @return the map view of the fields
+     */
+    public Map<String, Field> asMap ()
+    {
+        if (mapView == null) {
+            mapView = new MapView();
         }
 
-        return String.format(format, infos, fields, btn);
+        return mapView;
     }
 
     /**
-     * Prepare submit event on enter key typed
+     * Get the value of an integer field as an int, see {@link Field#getInt()}
+     *
+     * @param key the key of the field
+     * @return the value, 0 if the field is empty
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form,
+     *                       the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold integers,
+     *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid int
      */
-    private void prepareEnterKeyEvent ()
+    public int getInt (@NotNull String key)
     {
-        if (submitButton != null) {
-            for (Entry<String, Field> entry : entrySet()) {
-                Control control = entry.getValue().getField();
-                if (!(control instanceof TextArea)) {
-                    control.setOnKeyPressed(event -> {
-                        if (event.getCode() == KeyCode.ENTER) {
-                            submitButton.fire();
-                        }
-                    });
-                }
-            }
-        }
+        checkKey(key);
+        return get(key).getInt();
     }
 
     /**
-     * Checks if the map contains a set of keys
+     * Get the value of an integer field as a long, see {@link Field#getLong()}
      *
-     * @param keys the keys that the map should contains
-     * @return true if the map contains all the keys, false otherwise
+     * @param key the key of the field
+     * @return the value, 0 if the field is empty
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form,
+     *                       the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold integers,
+     *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid long
      */
-    public boolean hasKeys (String... keys)
+    public long getLong (@NotNull String key)
     {
-        for (String key : keys) {
-            if (!this.containsKey(key)) {
-                return false;
-            }
-        }
+        checkKey(key);
+        return get(key).getLong();
+    }
 
-        return true;
+    /**
+     * Get the value of a numeric field as a double, see {@link Field#getDouble()}
+     *
+     * @param key the key of the field
+     * @return the value, 0 if the field is empty
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form,
+     *                       the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold numbers,
+     *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid number
+     */
+    public double getDouble (@NotNull String key)
+    {
+        checkKey(key);
+        return get(key).getDouble();
     }
 
+    /**
+     * Get the value of a numeric field as a decimal, see {@link Field#getDecimal()}
+     *
+     * @param key the key of the field
+     * @return the value, null if the field is empty
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form,
+     *                       the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold numbers,
+     *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid number
+     */
+    public BigDecimal getDecimal (@NotNull String key)
+    {
+        checkKey(key);
+        return get(key).getDecimal();
+    }
 
-    // ------------------------------------------------------
-    // Inner class Field
-    // ------------------------------------------------------
+    /**
+     * Get the value of a {@link FieldValueType#DATE} field, see {@link Field#getDate()}
+     *
+     * @param key the key of the field
+     * @return the value, null if the field is empty
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form,
+     *                       the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold dates,
+     *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid date
+     */
+    public LocalDate getDate (@NotNull String key)
+    {
+        checkKey(key);
+        return get(key).getDate();
+    }
 
     /**
-     * Inner class representing a field of a form
+     * Get the value of a {@link FieldValueType#DATETIME} field, see {@link Field#getDateTime()}
      *
-     * @param <T> a class extending {@link Control}
+     * @param key the key of the field
+     * @return the value, null if the field is empty
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form,
+     *                       the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold dates and times,
+     *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid date and time
      */
-    public class Field<T extends Control>
+    public LocalDateTime getDateTime (@NotNull String key)
     {
-        /** The field */
-        private T field;
+        checkKey(key);
+        return get(key).getDateTime();
+    }
 
-        /** The type of the value (e.g. Name, Date, Datetime...) */
-        private FieldValueType valueTypes = FieldValueType.UNDEFINED;
+    /**
+     * Get the value of a {@link FieldValueType#TIME} field, see {@link Field#getTime()}
+     *
+     * @param key the key of the field
+     * @return the value, null if the field is empty
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form,
+     *                       the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold times,
+     *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid time
+     */
+    public LocalTime getTime (@NotNull String key)
+    {
+        checkKey(key);
+        return get(key).getTime();
+    }
 
-        /** Has the field been validated or not */
-        private boolean validated = false;
+    /**
+     * React to the change of a field's content <br>
+     * The field is validated right now, or scheduled if the form has a {@link ValidationScheduler}
+     *
+     * @param field the changed field
+     */
+    private void fieldChanged (Field field)
+    {
+        if (field.removed) {
+            return;
+        }
 
-        /** Is field required or not */
-        private boolean required = false;
+        field.generation++;
+        field.cancelRemoteCheck();
 
-        /** The list of invalidation states */
-        private List<InvalidationReason> invalidationReasonList = new ArrayList<>();
+        if (suspendCount > 0) {
+            if (!field.changedWhileSuspended) {
+                field.changedWhileSuspended = true;
+                changedWhileSuspended.add(field);
+            }
+            return;
+        }
 
-        /** Default constructor */
-        Field ()
-        {
+        if (virtualizedValidation != null && virtualizedValidation.defer(field)) {
+            return;
         }
 
-        /**
-         * 3 parameters constructor
-         *
-         * @param field     the field extending {@link Control}
-         * @param valueType the type of the value (e.g. Name, Date, Datetime...)
-         */
-        Field (T field, FieldValueType valueType)
-        {
-            this();
-            this.field = field;
-            this.valueTypes = valueType;
+        if (validationScheduler != null) {
+            validationScheduler.schedule(field);
         }
+        else {
+            field.runValidation();
+        }
+    }
 
+    /**
+     * React to an event which may have edited the HTML of a {@link HTMLEditor} <br>
+     * The field gets a new edit generation right away, so its HTML snapshot is outdated, but its validation is throttled:
+     * the HTML is serialized and validated at most once per snapshot interval, at the end of the interval
+     *
+     * @param field the edited field
+     */
+    private void htmlEdited (Field field)
+    {
+        if (field.snapshotInterval <= 0) {
+            fieldChanged(field);
+            return;
+        }
 
-        /**
-         * Reload the tooltip of the field based on the invalidation reasons
-         */
-        private void reloadTooltip ()
-        {
-            if (invalidationReasonList.isEmpty()) {
-                field.setTooltip(null);
-            }
-            else {
-                StringBuilder text = new StringBuilder();
-                for (InvalidationReason reason : invalidationReasonList) {
-                    text.append(System.lineSeparator());
-                    text.append("- ").append(FormValidator.getInvalidationReasonMessageMap().getMessage(reason));
-                }
+        field.generation++;
+        field.cancelRemoteCheck();
 
-                text = new StringBuilder(text.substring(System.lineSeparator().length()));
-                field.setTooltip(new Tooltip(text.toString()));
-            }
+        if (field.snapshotTimer == null) {
+            field.snapshotTimer = new PauseTransition();
+            field.snapshotTimer.setOnFinished(event -> fieldChanged(field));
         }
 
-        /**
-         * Get the field as {@link Control} child instance
-         *
-         * @return the field as {@link Control} child instance
-         */
-        public T getField ()
-        {
-            return field;
+        if (field.snapshotTimer.getStatus() != Animation.Status.RUNNING) {
+            field.snapshotTimer.setDuration(Duration.millis(field.snapshotInterval));
+            field.snapshotTimer.playFromStart();
         }
+    }
 
-        /**
-         * Get the type of the value (e.g. Name, Date, Datetime...)
-         *
-         * @return the type of the value (e.g. Name, Date, Datetime...)
-         */
-        public FieldValueType getValueTypes ()
-        {
-            return valueTypes;
-        }
+    /**
+     * Suspend the reactions of the fields to their changes <br>
+     * The changed fields are only recorded, until {@link #resumeListeners()} validates them in one pass.
+     * The suspensions can be nested.
+     */
+    private void suspendListeners ()
+    {
+        suspendCount++;
+    }
 
-        /**
-         * Mark the field as validated <br>
-         * If the field was previously unvalidated, the unvalidation CSS class is removed
-         */
-        public void validate ()
-        {
-            if (!validated) {
-                nbOfUnvalidatedFields--;
-            }
+    /**
+     * Resume the reactions of the fields to their changes <br>
+     * When the last suspension ends, each field changed meanwhile is validated once,
+     * then the rules depending on them are evaluated once, and the validity of the form is committed
+     */
+    private void resumeListeners ()
+    {
+        if (suspendCount > 1) {
+            suspendCount--;
+            return;
+        }
 
-            field.getStyleClass().remove(FormValidatorCssClass.INPUT_INVALID);
-            validated = true;
+        PriorityQueue<CrossFieldRule> queue  = ruleGraph.newQueue();
+        Set<CrossFieldRule>           queued = new HashSet<>();
 
+        for (Field field : changedWhileSuspended) {
+            field.changedWhileSuspended = false;
 
-            updateSubmitButtonState();
-        }
+            if (field.removed) {
+                continue;
+            }
 
-        /**
-         * Mark the field as unvalidated <br>
-         * The field style is changed using CSS class
-         */
-        public void unValidate ()
-        {
-            // If the field is finally not required and is empty, we actually validate it
-            if (!required && getValue().equals("")) {
-                validate();
-                return;
+            if (virtualizedValidation != null && virtualizedValidation.defer(field)) {
+                continue;
             }
 
-            if (validated) {
-                nbOfUnvalidatedFields++;
+            if (field.validatesInBackground()) {
+                field.runValidation();
+                continue;
             }
 
-            field.getStyleClass().add(FormValidatorCssClass.INPUT_INVALID);
-            validated = false;
-            updateSubmitButtonState();
+            FormValidator.validateField(field);
+            field.parseValidContent();
+            field.checkRemote();
+            CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByTarget(field.key));
+            CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByDependency(field.key));
         }
 
-        /**
-         * Know if the field has been validated or not
-         *
-         * @return true if it was validated, false otherwise
-         */
-        boolean isValidated ()
-        {
-            return validated;
-        }
+        changedWhileSuspended.clear();
+        evaluateRules(queue, queued);
 
-        /**
-         * Know if the field is required or not
+        suspendCount = 0;
+        updateFormValid();
+    }
+
+    /**
+     * Set the virtualized validation of the form <br>
+     * Only the visible or focused fields are then validated on change, the other ones being validated in background batches
+     *
+     * @param virtualizedValidation the virtualized validation, or null to validate every change right away
+     */
+    public void setVirtualizedValidation (VirtualizedValidation virtualizedValidation)
+    {
+        if (this.virtualizedValidation != null) {
+            VirtualizedValidation old = this.virtualizedValidation;
+            this.virtualizedValidation = null;
+            old.detach();
+        }
+
+        this.virtualizedValidation = virtualizedValidation;
+
+        if (virtualizedValidation != null) {
+            virtualizedValidation.attach(this);
+        }
+    }
+
+    /**
+     * Get the virtualized validation of the form
+     *
+     * @return the virtualized validation, or null if every change is validated right away
+     */
+    public VirtualizedValidation getVirtualizedValidation ()
+    {
+        return virtualizedValidation;
+    }
+
+    /**
+     * Get a field by index
+     *
+     * @param index the index of the field, in the order the fields were added
+     * @return the field, or null if it was removed
+     */
+    Field getField (int index)
+    {
+        return index < nbOfIds ? fields[index] : null;
+    }
+
+    /**
+     * Get the bound of the fields' indexes
+     *
+     * @return the number of ids given, the removed fields included until the ids are compacted
+     */
+    int getFieldIndexBound ()
+    {
+        return nbOfIds;
+    }
+
+    /**
+     * Get a field by control
+     *
+     * @param control the control
+     * @return the field, or null if the control is not in the form
+     */
+    Field getField (Control control)
+    {
+        return fieldsByControl.get(control);
+    }
+
+    /**
+     * Get the validation metrics of the form, that is the metrics of all its fields <br>
+     * The metrics are only recorded while {@link FormValidator#isMetricsEnabled()} is true
+     *
+     * @return the validation metrics of the form
+     */
+    public ValidationMetrics getMetrics ()
+    {
+        if (metrics == null) {
+            metrics = new ValidationMetrics();
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Add a rule across several fields <br>
+     * The rule is evaluated right away, then each time the content of its target or one of its dependencies is validated.
+     * Only the rules depending on the changed field are evaluated, in the order of the dependency graph.
+     *
+     * @param rule the rule
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if a key of the rule is not in the form,
+     *                       or the {@link ErrorType#CYCLIC_RULE} type if the rule creates a dependency cycle
+     */
+    public void addRule (@NotNull CrossFieldRule rule)
+    {
+        checkKey(rule.getTarget());
+
+        for (String dependency : rule.getDependencies()) {
+            checkKey(dependency);
+        }
+
+        ruleGraph.add(rule);
+
+        PriorityQueue<CrossFieldRule> queue  = ruleGraph.newQueue();
+        Set<CrossFieldRule>           queued = new HashSet<>();
+        queue.add(rule);
+        queued.add(rule);
+        evaluateRules(queue, queued);
+    }
+
+    /**
+     * Remove a rule across several fields <br>
+     * If the rule was failing, its target is validated again unless other rules or its content invalidate it
+     *
+     * @param rule the rule
+     * @return true if the rule was in the form, false otherwise
+     */
+    public boolean removeRule (@NotNull CrossFieldRule rule)
+    {
+        if (!ruleGraph.remove(rule)) {
+            return false;
+        }
+
+        if (rule.violated) {
+            rule.violated = false;
+            Field target = get(rule.getTarget());
+
+            if (target.setRuleViolated(false)) {
+                PriorityQueue<CrossFieldRule> queue  = ruleGraph.newQueue();
+                Set<CrossFieldRule>           queued = new HashSet<>();
+                CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByDependency(target.key));
+                evaluateRules(queue, queued);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Validate the content of every field, then evaluate every rule <br>
+     * The fields are validated in the order of their ids, then the result is read from the validity flags of the fields,
+     * in a single pass over the array: a field is valid only if its content is valid, no rule fails on it and no remote
+     * validation rejects it or is pending. This method has to be called from the JavaFX thread
+     *
+     * @return true if every field is validated, false otherwise
+     * @see FormValidator#validateForm()
+     */
+    public boolean validateAll ()
+    {
+        for (int id = 0; id < nbOfIds; id++) {
+            Field field = fields[id];
+
+            if (field != null) {
+                FormValidator.validateField(field);
+            }
+        }
+
+        validateRules();
+
+        // The flags of the free ids are reset to validated
+        for (int id = 0; id < nbOfIds; id++) {
+            if (!validatedFlags[id]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Evaluate every rule across several fields, in the order of the dependency graph
+     *
+     * @return true if every rule is satisfied, false otherwise
+     */
+    public boolean validateRules ()
+    {
+        PriorityQueue<CrossFieldRule> queue  = ruleGraph.newQueue();
+        Set<CrossFieldRule>           queued = new HashSet<>();
+        ruleGraph.enqueueAll(queue, queued);
+
+        boolean result = true;
+
+        for (CrossFieldRule rule : evaluateRules(queue, queued)) {
+            if (rule.violated) {
+                result = false;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Evaluate the rules of a queue, by rank of their target <br>
+     * When a rule changes the validity of its target, the rules depending on the target are queued too
+     *
+     * @param queue  the rules to evaluate
+     * @param queued the rules already queued, each rule being evaluated once
+     * @return the evaluated rules
+     */
+    private Set<CrossFieldRule> evaluateRules (PriorityQueue<CrossFieldRule> queue, Set<CrossFieldRule> queued)
+    {
+        CrossFieldRule rule;
+
+        while ((rule = queue.poll()) != null) {
+            Field   target   = get(rule.getTarget());
+            boolean violated = isApplicable(rule, target) && !rule.test(this);
+
+            if (violated != rule.violated) {
+                rule.violated = violated;
+
+                if (target.setRuleViolated(violated)) {
+                    CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByDependency(target.key));
+                }
+            }
+        }
+
+        return queued;
+    }
+
+    /**
+     * Know if a rule can be tested, that is if the content of its target and its dependencies are validated
+     *
+     * @param rule   the rule
+     * @param target the target of the rule
+     * @return true if the rule can be tested, false otherwise
+     */
+    private boolean isApplicable (CrossFieldRule rule, Field target)
+    {
+        if (!selfValidFlags[target.index]) {
+            return false;
+        }
+
+        for (String dependency : rule.getDependencies()) {
+            if (!validatedFlags[idsByKey.get(dependency)]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Check that a key is in the form
+     *
+     * @param key the key
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if the key is not in the form
+     */
+    private void checkKey (String key)
+    {
+        if (!containsKey(key)) {
+            throw new FormException(ErrorType.MISSING_FIELD, "The field \"" + key + "\" is not in the form");
+        }
+    }
+
+    /**
+     * Set the scheduler coalescing the validations of the fields <br>
+     * A scheduler may be shared between several forms. Passing null restores the validation on every change.
+     *
+     * @param validationScheduler the scheduler, or null
+     */
+    public void setValidationScheduler (ValidationScheduler validationScheduler)
+    {
+        this.validationScheduler = validationScheduler;
+    }
+
+    /**
+     * Get the scheduler coalescing the validations of the fields
+     *
+     * @return the scheduler, or null if the fields are validated on every change
+     */
+    public ValidationScheduler getValidationScheduler ()
+    {
+        return validationScheduler;
+    }
+
+    /**
+     * Put the {@link FormValidatorCssClass#INPUT_INVALID} CSS class on the invalid fields or not <br>
+     * The invalid fields always have the {@link FormValidatorCssClass#INVALID} pseudo class,
+     * the CSS class is kept for the stylesheets written before it.
+     *
+     * @param invalidStyleClassEnabled true to put the CSS class on the invalid fields, false otherwise
+     */
+    public void setInvalidStyleClassEnabled (boolean invalidStyleClassEnabled)
+    {
+        if (this.invalidStyleClassEnabled == invalidStyleClassEnabled) {
+            return;
+        }
+
+        this.invalidStyleClassEnabled = invalidStyleClassEnabled;
+
+        for (Field field : this) {
+            if (field.shownInvalid) {
+                ObservableList<String> styleClass = field.getField().getStyleClass();
+
+                if (invalidStyleClassEnabled) {
+                    if (!styleClass.contains(FormValidatorCssClass.INPUT_INVALID)) {
+                        styleClass.add(FormValidatorCssClass.INPUT_INVALID);
+                    }
+                }
+                else {
+                    styleClass.remove(FormValidatorCssClass.INPUT_INVALID);
+                }
+            }
+        }
+    }
+
+    /**
+     * Know if the {@link FormValidatorCssClass#INPUT_INVALID} CSS class is put on the invalid fields
+     *
+     * @return true if the CSS class is put on the invalid fields, false otherwise
+     */
+    public boolean isInvalidStyleClassEnabled ()
+    {
+        return invalidStyleClassEnabled;
+    }
+
+    /**
+     * Set the submit button of the form <br>
+     * Doing this allows the form validator to disable the button
+     * if at least one field is unvalidated. <br>
+     * Pressing the enter key in a field of the form (except a {@link TextArea} or a {@link HTMLEditor}) fires the button,
+     * through event handlers on the scene of the button. The handlers are reached once the events bubbled up from the field,
+     * so a control handling the key first (e.g. a {@link ComboBox} committing its value) is not submitted before its value
+     * is committed, and a consumed event submits nothing. A {@link TextField} consumes the enter key and fires its action
+     * instead: the form is then submitted by the action event, unless the action of the field consumes it.
+     * For the other controls, the field is found from the focus owner of the scene, as the key event may target a node
+     * of their skin.
+     *
+     * @param submitButton the submit button of the form
+     */
+    public void setSubmitButton (@NotNull Button submitButton)
+    {
+        if (this.submitButton != null) {
+            this.submitButton.disableProperty().unbind();
+            this.submitButton.sceneProperty().removeListener(submitSceneListener);
+            submitSceneListener.changed(null, this.submitButton.getScene(), null);
+        }
+
+        this.submitButton = submitButton;
+        submitButton.sceneProperty().addListener(submitSceneListener);
+        submitSceneListener.changed(null, null, submitButton.getScene());
+        submitButton.disableProperty().bind(formValid.not());
+    }
+
+    /**
+     * The property telling if every field of the form is validated <br>
+     * It only changes when the form goes from valid to invalid or the other way around, always on the JavaFX Application Thread
+     *
+     * @return the read-only formValid property
+     */
+    public ReadOnlyBooleanProperty formValidProperty ()
+    {
+        return formValid.getReadOnlyProperty();
+    }
+
+    /**
+     * Know if every field of the form is validated or not
+     *
+     * @return true if the form is valid, false otherwise
+     */
+    public boolean isFormValid ()
+    {
+        return formValid.get();
+    }
+
+    /**
+     * Update the formValid property after the number of unvalidated fields went from or to zero <br>
+     * The property is read back from the counter, so that concurrent transitions always end on the right value
+     */
+    private void updateFormValid ()
+    {
+        if (suspendCount > 0 && Platform.isFxApplicationThread()) {
+            // Committed once at the end of the batch
+            return;
+        }
+
+        if (Platform.isFxApplicationThread()) {
+            formValid.set(nbOfUnvalidatedFields.get() == 0);
+        }
+        else {
+            Platform.runLater(this::updateFormValid);
+        }
+    }
+
+    /**
+     * Get the submit button of the form
+     *
+     * @return the submit button of the form
+     */
+    public Button getSubmitButton ()
+    {
+        return submitButton;
+    }
+
+    /**
+     * Reset every fields at it's default content <br>
+     * The fields are cleared in a single {@link #batch(Runnable)}
+     */
+    public void clearAll ()
+    {
+        batch(() -> forEach((s, field) -> {
+            Control control = field.getField();
+
+            if (control instanceof TextInputControl) {
+                ((TextInputControl) control).clear();
+            }
+            else if (control instanceof HTMLEditor) {
+                field.setHtmlText("");
+            }
+            else if (control instanceof ToggleButton) {
+                ((ToggleButton) control).setSelected(false);
+            }
+            else if (control instanceof CheckBox) {
+                ((CheckBox) control).setSelected(false);
+            }
+            else if (control instanceof ComboBox) {
+                ((ComboBox<Object>) control).getSelectionModel().clearSelection();
+            }
+        }));
+    }
+
+    /**
+     * Set the value of several fields in a single {@link #batch(Runnable)}, e.g. to load a record into the form
+     *
+     * @param values the new values by key, a String for the text fields, a Boolean for the toggles, an item for the combo boxes
+     * @throws FormException with the {@link ErrorType#MISSING_FIELD} type if a key is not in the form, no field is then changed
+     */
+    public void setAll (@NotNull Map<String, ?> values)
+    {
+        for (String key : values.keySet()) {
+            checkKey(key);
+        }
+
+        batch(() -> values.forEach((key, value) -> get(key).setValue(value)));
+    }
+
+    /**
+     * Run some changes of the fields as a batch <br>
+     * The reactions of the fields are suspended during the batch: no validation, tooltip or CSS update.
+     * At the end, each changed field is validated once, the rules depending on them are evaluated once,
+     * and the validity of the form is committed once. The batches can be nested, the outermost one validates.
+     * This method has to be called from the JavaFX thread.
+     *
+     * @param changes the changes
+     */
+    public void batch (@NotNull Runnable changes)
+    {
+        suspendListeners();
+
+        try {
+            changes.run();
+        }
+        finally {
+            resumeListeners();
+        }
+    }
+
+    /**
+     * Define the action to trigger when the form is submitted
+     *
+     * @param eventHandler the event handler
+     */
+    public void setOnSubmit (EventHandler<ActionEvent> eventHandler)
+    {
+        submitButton.setOnAction(eventHandler);
+    }
+
+    /**
+     * Console debugging String
+     *
+     * @return the debugging String
+     */
+    @Override
+    public String toString ()
+    {
+        String linesep = System.lineSeparator();
+        String format  = "FormMap: {%ls%s%ls%s%ls%s%ls}";
+
+        format = format.replaceAll("%ls", linesep);
+
+        String fields = "";
+        String btn    = "";
+
+        String infosFormat = "\tInfo: {nbFields=%d, unvalidatedFields=%d, button=%b}";
+        String infos       = String.format(infosFormat, this.size(), nbOfUnvalidatedFields.get(), submitButton != null);
+
+        for (Field field : this) {
+            String key = field.key;
+
+            String  className = field.getField().getClass().getSimpleName();
+            boolean validated = field.isValidated();
+            boolean required  = field.isRequired();
+            int     nbReasons = field.getInvalidationReasonList().size();
+            String  value     = field.getValue().toString();
+
+            String fieldFormat = "\tField: {key=%s, type=%s, validated=%b, required=%b, invalidationReasons=%d, value=%s}" + linesep;
+
+            fields += String.format(fieldFormat, key, className, validated, required, nbReasons, value);
+        }
+
+        if (!fields.isEmpty()) {
+            fields = fields.substring(0, fields.length() - 1);
+        }
+
+        if (submitButton != null) {
+            String btnFormat = "\tSubmit: {type=%s, disabled=%b, text=%s}";
+            btn += String.format(btnFormat, submitButton.getClass().getSimpleName(), submitButton.isDisabled(), submitButton.getText());
+        }
+
+        return String.format(format, infos, fields, btn);
+    }
+
+    /**
+     * Fire the submit button when the enter key is pressed in a field of the form
+     *
+     * @param event the key event, bubbled up to the scene of the submit button
+     */
+    private void submitOnEnter (KeyEvent event)
+    {
+        if (event.getCode() != KeyCode.ENTER || event.isConsumed() || submitButton == null || submitButton.getScene() == null) {
+            return;
+        }
+
+        // Not the target of the event: a text field forwards a copy of the event to its parent.
+        // The focus owner may also be a node of the control's skin, e.g. the editor of a ComboBox
+        Node node = submitButton.getScene().getFocusOwner();
+
+        while (node != null) {
+            if (node instanceof Control && fieldsByControl.containsKey(node)) {
+                // The enter key inserts a new line in the text areas and editors, and fires the action of the text fields
+                if (!(node instanceof TextArea) && !(node instanceof HTMLEditor) && !(node instanceof TextField)) {
+                    submit();
+                }
+                return;
+            }
+
+            node = node.getParent();
+        }
+    }
+
+    /**
+     * Fire the submit button when the enter key fires the action of a text field of the form
+     *
+     * @param event the action event, bubbled up to the scene of the submit button
+     */
+    private void submitOnAction (ActionEvent event)
+    {
+        if (!event.isConsumed() && submitButton != null && event.getTarget() instanceof TextField
+            && fieldsByControl.containsKey(event.getTarget())) {
+            submit();
+        }
+    }
+
+    /**
+     * Fire the submit button, once the fields waiting in the {@link ValidationScheduler} are validated <br>
+     * The button is disabled while a field is unvalidated, a scheduled field included, so nothing is submitted
+     * if one of the fields is invalid
+     */
+    private void submit ()
+    {
+        if (validationScheduler != null) {
+            validationScheduler.flush();
+        }
+
+        submitButton.fire();
+    }
+
+    /**
+     * Remove a field from the form <br>
+     * The listeners of the field are removed from its control, and the pending validations of the field are dropped.
+     * The rules referencing the key, as target or dependency, are removed too: add them again after adding another field
+     * with this key. To change the control of a key while keeping its rules, add the new field without removing the old one.
+     * The ids are compacted once the removed fields outnumber the fields
+     *
+     * @param key the key of the field
+     * @return the removed field, or null if there was none
+     */
+    public Field remove (String key)
+    {
+        Integer id = idsByKey.get(key);
+
+        if (id == null) {
+            return null;
+        }
+
+        for (CrossFieldRule rule : ruleGraph.getRulesReferencing(key)) {
+            removeRule(rule);
+        }
+
+        Field field = fields[id];
+        release(id);
+        idsByKey.remove(key);
+        fields[id] = null;
+        nbOfFields--;
+
+        if (nbOfIds - nbOfFields > nbOfFields) {
+            compact();
+        }
+
+        return field;
+    }
+
+    /**
+     * Release the field of an id, before it is removed or replaced <br>
+     * The listeners of the field are removed from its control, its pending validations are dropped
+     * and the state of its id is reset, the field no longer counting in the validity of the form
+     *
+     * @param id the id of the field
+     */
+    private void release (int id)
+    {
+        Field field = fields[id];
+        fieldsByControl.remove(field.getField());
+        field.detach();
+        field.removed = true;
+        field.cancelRemoteCheck();
+
+        if (field.snapshotTimer != null) {
+            field.snapshotTimer.stop();
+        }
+
+        if (virtualizedValidation != null) {
+            virtualizedValidation.forget(id);
+        }
+
+        boolean wasValidated = validatedFlags[id];
+        resetId(id);
+
+        if (!wasValidated && nbOfUnvalidatedFields.decrementAndGet() == 0) {
+            updateFormValid();
+        }
+    }
+
+    /**
+     * Reset the state of an id, as for a new field
+     *
+     * @param id the id
+     */
+    private void resetId (int id)
+    {
+        validatedFlags[id] = true;
+        selfValidFlags[id] = true;
+        requiredFlags[id] = false;
+        reasonMasks[id] = 0;
+        parsedGenerations[id] = -1;
+        parsedStates[id] = PARSED;
+        parsedLongs[id] = 0;
+        parsedDoubles[id] = 0;
+        parsedValues[id] = null;
+    }
+
+    /**
+     * Give dense ids to the fields again, in the same order, so that the scans by id skip no removed field
+     */
+    private void compact ()
+    {
+        int id = 0;
+
+        for (int from = 0; from < nbOfIds; from++) {
+            Field field = fields[from];
+
+            if (field == null) {
+                continue;
+            }
+
+            if (from != id) {
+                fields[id] = field;
+                validatedFlags[id] = validatedFlags[from];
+                selfValidFlags[id] = selfValidFlags[from];
+                requiredFlags[id] = requiredFlags[from];
+                reasonMasks[id] = reasonMasks[from];
+                parsedGenerations[id] = parsedGenerations[from];
+                parsedStates[id] = parsedStates[from];
+                parsedLongs[id] = parsedLongs[from];
+                parsedDoubles[id] = parsedDoubles[from];
+                parsedValues[id] = parsedValues[from];
+                field.index = id;
+                idsByKey.put(field.key, id);
+
+                if (virtualizedValidation != null) {
+                    virtualizedValidation.move(from, id);
+                }
+            }
+
+            id++;
+        }
+
+        for (int free = id; free < nbOfIds; free++) {
+            fields[free] = null;
+            resetId(free);
+        }
+
+        nbOfIds = id;
+    }
+
+    /**
+     * Checks if the map contains a set of keys
+     *
+     * @param keys the keys that the map should contains
+     * @return true if the map contains all the keys, false otherwise
+     */
+    public boolean hasKeys (String... keys)
+    {
+        for (String key : keys) {
+            if (!this.containsKey(key)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+
+    // ------------------------------------------------------
+    // Inner class Field
+    // ------------------------------------------------------
+
+    /**
+     * Inner class representing a field of a form
+     *
+     * @param <T> a class extending {@link Control}
+     */
+    public class Field<T extends Control>
+    {
+        /** The key of the field in the form */
+        private String key;
+
+        /** The id of the field in the form, that is its index in the fields' arrays, in the order the fields were added */
+        int index = -1;
+
+        /** The field */
+        private T field;
+
+        /** The type of the value (e.g. Name, Date, Datetime...) */
+        private FieldValueType valueTypes = FieldValueType.UNDEFINED;
+
+        /** The number of rules failing on the field */
+        private int nbOfViolatedRules = 0;
+
+        /** The read-only view of the invalidation reasons */
+        private final List<InvalidationReason> invalidationReasonList = new InvalidationReasonList();
+
+        /** The minimum time (in nanoseconds) between the last change and the scheduled validation */
+        long validationDelay = 0;
+
+        /** The time (in nanoseconds) of the last scheduled change */
+        long lastChangeTime;
+
+        /** Is the field displayed as invalid or not */
+        private boolean shownInvalid = false;
+
+        /** Is the displayed validity out of date or not: the CSS state was reset, or left unchanged while the field was dirty */
+        private boolean displayOutdated = false;
+
+        /** Is the field waiting in a {@link ValidationScheduler} or not: it then counts as unvalidated */
+        boolean scheduled = false;
+
+        /** Has the field been removed from the form or not: its pending validations are then dropped */
+        volatile boolean removed = false;
+
+        /** The listener of the value of the control, null if the value is not observable */
+        private ChangeListener<Object> valueListener;
+
+        /** The observed value of the control, null if the value is not observable */
+        private ObservableValue<?> observedValue;
+
+        /** The handler of the key events which may edit the HTML of a {@link HTMLEditor}, null for the other controls */
+        private EventHandler<KeyEvent> htmlKeyHandler;
+
+        /** The handler of the mouse and drop events which may edit the HTML of a {@link HTMLEditor}, null for the other controls */
+        private EventHandler<Event> htmlEditHandler;
+
+        /** The handler installing the tooltip when the field is hovered */
+        private EventHandler<MouseEvent> hoverHandler;
+
+        /** Is the content validated off the JavaFX thread or not */
+        private boolean asynchronous = false;
+
+        /** The edit generation, incremented on each change of the content */
+        volatile long generation = 0;
+
+        /** The remote validation of the content, null if none */
+        private RemoteValidation remoteValidation;
+
+        /** The reason given by the remote validation, null if the content was accepted or not checked */
+        private InvalidationReason remoteReason;
+
+        /** The remote check in progress, null if none */
+        private Future<?> remoteCheck;
+
+        /** The content being checked remotely */
+        private String remoteContent;
+
+        /** The validation metrics of the field, created on first use */
+        private ValidationMetrics metrics;
+
+        /** Was the field changed while the listeners were suspended or not */
+        private boolean changedWhileSuspended = false;
+
+        /** The minimum time (in milliseconds) between two validations of a {@link HTMLEditor} being edited */
+        private long snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+
+        /** The timer of the throttled validation of a {@link HTMLEditor}, created on the first edit */
+        private PauseTransition snapshotTimer;
+
+        /** The last serialized HTML of a {@link HTMLEditor}, null if none */
+        private String htmlSnapshot;
+
+        /** The edit generation of the HTML snapshot */
+        private long htmlSnapshotGeneration = -1;
+
+        /** The plain text of the HTML snapshot, null if not extracted */
+        private String plainText;
+
+        /** The length of the plain text of the HTML snapshot, -1 if not computed */
+        private int plainTextLength = -1;
+
+        /** Default constructor */
+        Field ()
+        {
+        }
+
+        /**
+         * 3 parameters constructor
+         *
+         * @param key       the key of the field in the form
+         * @param field     the field extending {@link Control}
+         * @param valueType the type of the value (e.g. Name, Date, Datetime...)
+         */
+        Field (String key, T field, FieldValueType valueType)
+        {
+            this();
+            this.key = key;
+            this.field = field;
+            this.valueTypes = valueType;
+        }
+
+        /**
+         * Install the listeners of the field on its control, so that each change of the content is validated
+         */
+        private void attach ()
+        {
+            hoverHandler = event -> {
+                if (reasonMasks[index] != 0) {
+                    installTooltip();
+                }
+            };
+            field.addEventHandler(MouseEvent.MOUSE_ENTERED, hoverHandler);
+
+            if (field instanceof TextInputControl) {
+                observedValue = ((TextInputControl) field).textProperty();
+            }
+            else if (field instanceof ComboBoxBase) {
+                observedValue = ((ComboBoxBase<?>) field).valueProperty();
+            }
+            else if (field instanceof ToggleButton) {
+                observedValue = ((ToggleButton) field).selectedProperty();
+            }
+            else if (field instanceof CheckBox) {
+                observedValue = ((CheckBox) field).selectedProperty();
+            }
+            else if (field instanceof HTMLEditor) {
+                // The HTML of the editor is not observable, the events which may edit it mark it as changed
+                htmlKeyHandler = event -> {
+                    if (!event.getCode().isNavigationKey() && !event.getCode().isModifierKey()) {
+                        htmlEdited(this);
+                    }
+                };
+                htmlEditHandler = event -> htmlEdited(this);
+
+                field.addEventHandler(KeyEvent.KEY_RELEASED, htmlKeyHandler);
+                field.addEventHandler(MouseEvent.MOUSE_RELEASED, htmlEditHandler);
+                field.addEventHandler(DragEvent.DRAG_DROPPED, htmlEditHandler);
+            }
+
+            if (observedValue != null) {
+                valueListener = (observable, oldValue, newValue) -> fieldChanged(this);
+                observedValue.addListener(valueListener);
+            }
+        }
+
+        /**
+         * Remove the listeners of the field from its control, once the field is removed from the form
+         */
+        private void detach ()
+        {
+            field.removeEventHandler(MouseEvent.MOUSE_ENTERED, hoverHandler);
+
+            if (observedValue != null) {
+                observedValue.removeListener(valueListener);
+            }
+
+            if (htmlKeyHandler != null) {
+                field.removeEventHandler(KeyEvent.KEY_RELEASED, htmlKeyHandler);
+                field.removeEventHandler(MouseEvent.MOUSE_RELEASED, htmlEditHandler);
+                field.removeEventHandler(DragEvent.DRAG_DROPPED, htmlEditHandler);
+            }
+        }
+
+
+        /**
+         * Reload the tooltip of the field based on the invalidation reasons <br>
+         * The shared tooltip is only installed when the field is hovered, see {@link #installTooltip()}
+         */
+        private void reloadTooltip ()
+        {
+            if (!FormValidator.isMetricsEnabled()) {
+                updateTooltip();
+                return;
+            }
+
+            Object event = ValidationEvents.beginReloadTooltip();
+            long   start = System.nanoTime();
+            updateTooltip();
+            long   nanos = System.nanoTime() - start;
+
+            getMetrics().recordTooltipRebuild(nanos);
+            FormMap.this.getMetrics().recordTooltipRebuild(nanos);
+            ValidationEvents.endReloadTooltip(event, this);
+        }
+
+        /**
+         * Remove the tooltip of the field, or install it if the field is hovered
+         */
+        private void updateTooltip ()
+        {
+            if (reasonMasks[index] == 0) {
+                field.setTooltip(null);
+            }
+            else if (field.isHover()) {
+                installTooltip();
+            }
+        }
+
+        /**
+         * Install the shared tooltip of the field's invalidation reasons
+         */
+        private void installTooltip ()
+        {
+            field.setTooltip(FormValidator.getInvalidationTooltipCache().getTooltip(reasonMasks[index]));
+        }
+
+        /**
+         * Get the form of the field
+         *
+         * @return the form
+         */
+        public FormMap getForm ()
+        {
+            return FormMap.this;
+        }
+
+        /**
+         * Get the validation metrics of the field <br>
+         * The metrics are only recorded while {@link FormValidator#isMetricsEnabled()} is true
+         *
+         * @return the validation metrics of the field
+         */
+        public ValidationMetrics getMetrics ()
+        {
+            if (metrics == null) {
+                metrics = new ValidationMetrics();
+            }
+
+            return metrics;
+        }
+
+        /**
+         * Get the key of the field in the form
+         *
+         * @return the key of the field
+         */
+        public String getKey ()
+        {
+            return key;
+        }
+
+        /**
+         * Get the field as {@link Control} child instance
+         *
+         * @return the field as {@link Control} child instance
+         */
+        public T getField ()
+        {
+            return field;
+        }
+
+        /**
+         * Get the type of the value (e.g. Name, Date, Datetime...)
+         *
+         * @return the type of the value (e.g. Name, Date, Datetime...)
+         */
+        public FieldValueType getValueTypes ()
+        {
+            return valueTypes;
+        }
+
+        /**
+         * Validate the field, in background if the field is asynchronous
+         */
+        void runValidation ()
+        {
+            if (validatesInBackground()) {
+                AsyncValidation.submit(this);
+            }
+            else {
+                FormValidator.validateField(this);
+                contentValidated();
+            }
+        }
+
+        /**
+         * Know if the content of the field is validated off the JavaFX thread
+         *
+         * @return true if the field is asynchronous and has a text content, false otherwise
+         */
+        private boolean validatesInBackground ()
+        {
+            return asynchronous && (field instanceof TextInputControl || field instanceof HTMLEditor);
+        }
+
+        /**
+         * Continue the validation once the content of the field was validated by its value type <br>
+         * A valid content is parsed, the remote validation is started, then the rules depending on the field are evaluated
+         */
+        void contentValidated ()
+        {
+            parseValidContent();
+            checkRemote();
+            evaluateRules();
+        }
+
+        /**
+         * Evaluate the rules depending on the field, after its content was validated
+         */
+        private void evaluateRules ()
+        {
+            if (ruleGraph.isEmpty()) {
+                return;
+            }
+
+            PriorityQueue<CrossFieldRule> queue  = ruleGraph.newQueue();
+            Set<CrossFieldRule>           queued = new HashSet<>();
+            CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByTarget(key));
+            CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByDependency(key));
+            FormMap.this.evaluateRules(queue, queued);
+        }
+
+        /**
+         * Set the field as validated off the JavaFX thread or not <br>
+         * This is meant for large {@link TextArea} and {@link HTMLEditor} fields.
+         * {@link FormValidator#validateField(Field)} still validates the field synchronously.
+         *
+         * @param asynchronous true to validate the content in background, false otherwise
+         * @see AsyncValidation
+         */
+        public void setAsynchronous (boolean asynchronous)
+        {
+            this.asynchronous = asynchronous;
+        }
+
+        /**
+         * Know if the field is validated off the JavaFX thread or not
+         *
+         * @return true if the content is validated in background, false otherwise
+         */
+        public boolean isAsynchronous ()
+        {
+            return asynchronous;
+        }
+
+        /**
+         * Set the remote validation of the content <br>
+         * The field is then unvalidated with the {@link InvalidationReason#PENDING} reason while its content is checked
+         *
+         * @param remoteValidation the remote validation, or null to remove it
+         */
+        public void setRemoteValidation (RemoteValidation remoteValidation)
+        {
+            cancelRemoteCheck();
+            this.remoteValidation = remoteValidation;
+
+            if (remoteValidation == null) {
+                setRemoteReason(null);
+            }
+            else if (selfValidFlags[index]) {
+                checkRemote();
+            }
+        }
+
+        /**
+         * Get the remote validation of the content
+         *
+         * @return the remote validation, or null if none
+         */
+        public RemoteValidation getRemoteValidation ()
+        {
+            return remoteValidation;
+        }
+
+        /**
+         * Know if the content of the field is being checked by its remote validation
+         *
+         * @return true if the remote answer is pending, false otherwise
+         */
+        public boolean isPending ()
+        {
+            return remoteReason == InvalidationReason.PENDING;
+        }
+
+        /**
+         * Check the content of the field with its remote validation <br>
+         * Empty and invalid contents are not checked. The cached answer is used if there is one,
+         * otherwise the field becomes pending until the answer comes back.
+         */
+        private void checkRemote ()
+        {
+            if (remoteValidation == null) {
+                return;
+            }
+
+            String content = getTextContent();
+
+            if (!selfValidFlags[index] || content.isEmpty()) {
+                cancelRemoteCheck();
+                setRemoteReason(null);
+                return;
+            }
+
+            if (remoteCheck != null && content.equals(remoteContent)) {
+                return;
+            }
+
+            cancelRemoteCheck();
+            Boolean accepted = remoteValidation.getCachedAnswer(content);
+
+            if (accepted != null) {
+                setRemoteReason(accepted ? null : InvalidationReason.REMOTE_REJECTED);
+                return;
+            }
+
+            setRemoteReason(InvalidationReason.PENDING);
+            remoteContent = content;
+            remoteCheck = remoteValidation.submit(this, content, generation);
+        }
+
+        /**
+         * Cancel the remote check in progress, if any <br>
+         * The field stays pending until its next validation
+         */
+        void cancelRemoteCheck ()
+        {
+            if (remoteCheck != null) {
+                remoteCheck.cancel(true);
+                remoteCheck = null;
+                remoteContent = null;
+            }
+        }
+
+        /**
+         * Commit the answer of the remote validation <br>
+         * This method has to be called from the JavaFX thread
+         *
+         * @param generation the edit generation of the field when the content was copied
+         * @param reason     the invalidation reason, or null if the content was accepted
+         */
+        void applyRemoteAnswer (long generation, InvalidationReason reason)
+        {
+            if (removed || generation != this.generation || remoteCheck == null) {
+                return;
+            }
+
+            remoteCheck = null;
+            remoteContent = null;
+
+            if (FormValidator.isMetricsEnabled()) {
+                getMetrics().recordRemoteAnswer(reason == null);
+                FormMap.this.getMetrics().recordRemoteAnswer(reason == null);
+            }
+
+            if (setRemoteReason(reason) && !ruleGraph.isEmpty()) {
+                PriorityQueue<CrossFieldRule> queue  = ruleGraph.newQueue();
+                Set<CrossFieldRule>           queued = new HashSet<>();
+                CrossFieldRuleGraph.enqueue(queue, queued, ruleGraph.getRulesByDependency(key));
+                FormMap.this.evaluateRules(queue, queued);
+            }
+        }
+
+        /**
+         * Set the reason given by the remote validation
+         *
+         * @param reason the invalidation reason, or null if the content was accepted or not checked
+         * @return true if the validity of the field changed, false otherwise
+         */
+        private boolean setRemoteReason (InvalidationReason reason)
+        {
+            if (reason == remoteReason) {
+                return false;
+            }
+
+            updateInvalidationReasons(reason == null ? 0 : 1 << reason.ordinal(), remoteReason == null ? 0 : 1 << remoteReason.ordinal());
+            remoteReason = reason;
+            return refreshValidity();
+        }
+
+        /**
+         * Get the text content of the field
+         *
+         * @return the text of a {@link TextInputControl}, the HTML of a {@link HTMLEditor} (see {@link #getHtmlSnapshot()}), an empty String otherwise
+         */
+        public String getTextContent ()
+        {
+            if (field instanceof TextInputControl) {
+                return ((TextInputControl) field).getText();
+            }
+            else if (field instanceof HTMLEditor) {
+                return getHtmlSnapshot();
+            }
+
+            return "";
+        }
+
+        /**
+         * Get the HTML of a {@link HTMLEditor} <br>
+         * The HTML is only serialized when the editor was edited since the last call, the snapshot being reused otherwise.
+         * The edits are detected with the key, mouse and drop events of the editor, and the changes made through
+         * {@link #setHtmlText(String)}; after a change of the HTML by other means, call {@link #markHtmlDirty()}.
+         *
+         * @return the HTML of the editor, or an empty String if the field is not a {@link HTMLEditor}
+         */
+        public String getHtmlSnapshot ()
+        {
+            if (!(field instanceof HTMLEditor)) {
+                return "";
+            }
+
+            long generation = this.generation;
+
+            if (htmlSnapshot == null || htmlSnapshotGeneration != generation) {
+                htmlSnapshot = ((HTMLEditor) field).getHtmlText();
+                htmlSnapshotGeneration = generation;
+                plainText = null;
+                plainTextLength = -1;
+            }
+
+            return htmlSnapshot;
+        }
+
+        /**
+         * Get the plain text of the field <br>
+         * The plain text of a {@link HTMLEditor} is extracted once per snapshot, see {@link HtmlText}
+         *
+         * @return the plain text of a {@link HTMLEditor}, the text content of the other fields
+         */
+        public String getPlainText ()
+        {
+            if (!(field instanceof HTMLEditor)) {
+                return getTextContent();
+            }
+
+            String html = getHtmlSnapshot();
+
+            if (plainText == null) {
+                plainText = HtmlText.toPlainText(html);
+                plainTextLength = plainText.length();
+            }
+
+            return plainText;
+        }
+
+        /**
+         * Get the length of the plain text of the field, e.g. for a length limit <br>
+         * The length of a {@link HTMLEditor}'s plain text is estimated once per snapshot, without building the text
+         *
+         * @return the length of the plain text
+         */
+        public int getPlainTextLength ()
+        {
+            if (!(field instanceof HTMLEditor)) {
+                return getTextContent().length();
+            }
+
+            String html = getHtmlSnapshot();
+
+            if (plainTextLength < 0) {
+                plainTextLength = HtmlText.plainTextLength(html);
+            }
+
+            return plainTextLength;
+        }
+
+        /**
+         * Set the HTML of a {@link HTMLEditor}, instead of {@link HTMLEditor#setHtmlText(String)} <br>
+         * The HTML snapshot is dropped and the field is validated right away, as for a change of a text field.
+         * Every change of the HTML made by the form ({@link FormMap#clearAll()}, {@link FormMap#setAll(Map)},
+         * the restore of a {@link FormDraft}) goes through this method. Nothing is done if the field is not a {@link HTMLEditor}
+         *
+         * @param html the new HTML of the editor
+         */
+        public void setHtmlText (@NotNull String html)
+        {
+            if (field instanceof HTMLEditor) {
+                ((HTMLEditor) field).setHtmlText(html);
+                fieldChanged(this);
+            }
+        }
+
+        /**
+         * Mark the HTML of a {@link HTMLEditor} as changed, after it was changed without any event of the editor
+         * nor {@link #setHtmlText(String)} (e.g. by a script of its web view) <br>
+         * The HTML snapshot is dropped and the field is validated after its snapshot interval
+         */
+        public void markHtmlDirty ()
+        {
+            if (field instanceof HTMLEditor) {
+                htmlEdited(this);
+            }
+        }
+
+        /**
+         * Set the minimum time between two validations of a {@link HTMLEditor} being edited <br>
+         * Each validation serializes the HTML of the editor, so the edits are validated at most once per interval
+         *
+         * @param millis the interval in milliseconds, 0 to validate on every edit
+         */
+        public void setSnapshotInterval (long millis)
+        {
+            this.snapshotInterval = millis;
+        }
+
+        /**
+         * Get the minimum time between two validations of a {@link HTMLEditor} being edited
+         *
+         * @return the interval in milliseconds
+         */
+        public long getSnapshotInterval ()
+        {
+            return snapshotInterval;
+        }
+
+        /**
+         * Know if the content of the field is empty
+         *
+         * @return true if the value is null or empty, or if the plain text of a {@link HTMLEditor} is empty, false otherwise
+         */
+        private boolean isContentEmpty ()
+        {
+            if (field instanceof HTMLEditor) {
+                return getPlainTextLength() == 0;
+            }
+
+            Object value = getValue();
+            return value == null || "".equals(value);
+        }
+
+        /**
+         * Set the debounce window of the field <br>
+         * When the form has a {@link ValidationScheduler}, the field is validated once it was not changed for this delay
+         *
+         * @param millis the delay in milliseconds, 0 to validate on the next pulse
+         */
+        public void setValidationDelay (long millis)
+        {
+            this.validationDelay = millis * 1_000_000L;
+        }
+
+        /**
+         * Get the debounce window of the field
+         *
+         * @return the delay in milliseconds
+         */
+        public long getValidationDelay ()
+        {
+            return validationDelay / 1_000_000L;
+        }
+
+        /**
+         * Test a content against the field's value type, see {@link FieldValueType#matches(CharSequence)} <br>
+         * Every value type is tested by a specialized validator or a compiled automaton, so no matcher is allocated
+         *
+         * @param content the content to test
+         * @return true if the content matches the value type, false otherwise
+         */
+        public boolean matchesValueType (CharSequence content)
+        {
+            return valueTypes.matches(content);
+        }
+
+        /**
+         * Mark the content of the field as valid <br>
+         * The field is validated unless a {@link CrossFieldRule} fails on it or its {@link RemoteValidation} did not accept it.
+         * If the field was previously unvalidated, the invalid CSS state is removed
+         */
+        public void validate ()
+        {
+            if (removed) {
+                return;
+            }
+
+            selfValidFlags[index] = true;
+            scheduled = false;
+
+            if (virtualizedValidation != null) {
+                virtualizedValidation.clean(index);
+            }
+
+            refreshValidity();
+        }
+
+        /**
+         * Mark the content of the field as invalid <br>
+         * The field style is changed using the {@link FormValidatorCssClass#INVALID} pseudo class
+         */
+        public void unValidate ()
+        {
+            if (removed) {
+                return;
+            }
+
+            // If the field is finally not required and is empty, we actually validate it
+            if (!requiredFlags[index] && isContentEmpty()) {
+                validate();
+                return;
+            }
+
+            selfValidFlags[index] = false;
+            scheduled = false;
+
+            if (virtualizedValidation != null) {
+                virtualizedValidation.clean(index);
+            }
+
+            refreshValidity();
+        }
+
+        /**
+         * Count a rule failing on the field, or no longer failing
+         *
+         * @param violated true if a rule started failing, false if a rule stopped failing
+         * @return true if the validity of the field changed, false otherwise
+         */
+        private boolean setRuleViolated (boolean violated)
+        {
+            nbOfViolatedRules += violated ? 1 : -1;
+
+            if (nbOfViolatedRules == 0) {
+                removeInvalidationReason(InvalidationReason.RULE_VIOLATION);
+            }
+            else {
+                addInvalidationReason(InvalidationReason.RULE_VIOLATION);
+            }
+
+            return refreshValidity();
+        }
+
+        /**
+         * Update the validity of the field from the validity of its content, its failing rules and its remote validation <br>
+         * The CSS state is only updated when the validity changes, or when it was out of date.
+         * A field waiting for its {@link VirtualizedValidation} or its {@link ValidationScheduler} is unvalidated,
+         * but its CSS state is left unchanged until it is validated
+         *
+         * @return true if the validity of the field changed, false otherwise
+         */
+        boolean refreshValidity ()
+        {
+            if (removed) {
+                return false;
+            }
+
+            boolean dirty   = scheduled || virtualizedValidation != null && virtualizedValidation.isDirty(index);
+            boolean valid   = selfValidFlags[index] && nbOfViolatedRules == 0 && remoteReason == null && !dirty;
+            boolean changed = valid != validatedFlags[index];
+
+            if (changed) {
+                if (valid ? nbOfUnvalidatedFields.decrementAndGet() == 0 : nbOfUnvalidatedFields.incrementAndGet() == 1) {
+                    updateFormValid();
+                }
+
+                validatedFlags[index] = valid;
+
+                if (virtualizedValidation != null) {
+                    virtualizedValidation.setValid(index, valid);
+                }
+            }
+
+            if (dirty) {
+                displayOutdated |= changed;
+            }
+            else if (changed || displayOutdated) {
+                displayOutdated = false;
+                showInvalid(!valid);
+            }
+
+            return changed;
+        }
+
+        /**
+         * Know if the field has been validated or not
+         *
+         * @return true if it was validated, false otherwise
+         */
+        boolean isValidated ()
+        {
+            return validatedFlags[index];
+        }
+
+        /**
+         * Know if the field is required or not
          *
          * @return true if the field is required, false otherwise
          */
         public boolean isRequired ()
         {
-            return required;
+            return requiredFlags[index];
         }
 
         /**
@@ -381,44 +2103,83 @@ public class FormMap extends HashMap<String, FormMap.Field>
          */
         void setRequired (boolean required)
         {
-            this.required = required;
+            requiredFlags[index] = required;
         }
 
         /**
-         * Get the list of invalidation reasons
+         * Get the list of invalidation reasons <br>
+         * The list is a read-only view, in the reasons' declaration order, which reflects the later changes
          *
          * @return the list of invalidation reasons
          */
         public List<InvalidationReason> getInvalidationReasonList ()
         {
-            return new ArrayList<>(invalidationReasonList);
+            return invalidationReasonList;
+        }
+
+        /**
+         * Get the invalidation reasons as a bitmask, each reason being the bit {@code 1 << reason.ordinal()}
+         *
+         * @return the bitmask of the invalidation reasons
+         */
+        public int getInvalidationReasonMask ()
+        {
+            return reasonMasks[index];
+        }
+
+        /**
+         * Know if the field has an invalidation reason
+         *
+         * @param reason the invalidation reason
+         * @return true if the field has this reason, false otherwise
+         */
+        public boolean hasInvalidationReason (InvalidationReason reason)
+        {
+            return (reasonMasks[index] & (1 << reason.ordinal())) != 0;
         }
 
         /**
          * Add an invalidation reason <br>
-         * This reloads the field's tooltip
+         * This reloads the field's tooltip if the reason was not present
          *
          * @param reason the invalidation reason to add
          */
         public void addInvalidationReason (InvalidationReason reason)
         {
-            if (!invalidationReasonList.contains(reason)) {
-                invalidationReasonList.add(reason);
-                reloadTooltip();
-            }
+            updateInvalidationReasons(1 << reason.ordinal(), 0);
         }
 
 
         /**
          * Remove an invalidation reason <br>
-         * This reloads the field's tooltip
+         * This reloads the field's tooltip if the reason was present
          *
          * @param reason the invalidation reason to remove
          */
         public void removeInvalidationReason (InvalidationReason reason)
         {
-            invalidationReasonList.remove(reason);
-            reloadTooltip();
+            updateInvalidationReasons(0, 1 << reason.ordinal());
+        }
+
+        /**
+         * Add and remove several invalidation reasons at once <br>
+         * This reloads the field's tooltip once, if the reasons changed
+         *
+         * @param addedReasons   the bitmask of the reasons to add, each reason being the bit {@code 1 << reason.ordinal()}
+         * @param removedReasons the bitmask of the reasons to remove
+         */
+        public void updateInvalidationReasons (int addedReasons, int removedReasons)
+        {
+            if (removed) {
+                return;
+            }
+
+            int reasons = (reasonMasks[index] & ~removedReasons) | addedReasons;
+
+            if (reasons != reasonMasks[index]) {
+                reasonMasks[index] = reasons;
+                reloadTooltip();
+            }
         }
 
         /**
@@ -432,7 +2193,7 @@ public class FormMap extends HashMap<String, FormMap.Field>
                 return ((TextInputControl) field).getText();
             }
             else if (field instanceof HTMLEditor) {
-                return ((HTMLEditor) field).getHtmlText();
+                return getHtmlSnapshot();
             }
             else if (field instanceof ToggleButton) {
                 return ((ToggleButton) field).isSelected();
@@ -447,9 +2208,438 @@ public class FormMap extends HashMap<String, FormMap.Field>
             return "";
         }
 
+        /**
+         * Set item value, the reverse of {@link #getValue()}
+         *
+         * @param value the new value of the field, a String for the text fields, a Boolean for the toggles
+         */
+        void setValue (Object value)
+        {
+            if (field instanceof TextInputControl) {
+                ((TextInputControl) field).setText(value == null ? "" : value.toString());
+            }
+            else if (field instanceof HTMLEditor) {
+                setHtmlText(value == null ? "" : value.toString());
+            }
+            else if (field instanceof ToggleButton) {
+                ((ToggleButton) field).setSelected(Boolean.TRUE.equals(value));
+            }
+            else if (field instanceof CheckBox) {
+                ((CheckBox) field).setSelected(Boolean.TRUE.equals(value));
+            }
+            else if (field instanceof ComboBox) {
+                ((ComboBox<Object>) field).setValue(value);
+            }
+        }
+
+        /**
+         * Parse the content of the field if it was validated, so that the typed accessors do not parse it again
+         */
+        private void parseValidContent ()
+        {
+            if (selfValidFlags[index] && (valueTypes.isNumeric() || valueTypes.isTemporal())) {
+                parseContent(true);
+            }
+        }
+
+        /**
+         * Parse the content of the field, unless it was already parsed in its current edit generation <br>
+         * An integer is stored as a long, a decimal as a double (and a {@link BigDecimal} for a {@link FieldValueType#PRICE}),
+         * a date or a time as its {@code java.time} object.
+         *
+         * @param matched true if the content is known to match the value type, false to test it
+         */
+        private void parseContent (boolean matched)
+        {
+            long generation = this.generation;
+
+            if (parsedGenerations[index] == generation) {
+                return;
+            }
+
+            Object value   = getValue();
+            String content = value == null ? "" : value.toString();
+
+            parsedGenerations[index] = generation;
+            parsedValues[index] = null;
+
+            if (content.isEmpty()) {
+                parsedStates[index] = EMPTY;
+                return;
+            }
+
+            if (!matched && !valueTypes.matches(content)) {
+                parsedStates[index] = UNPARSABLE;
+                return;
+            }
+
+            try {
+                if (valueTypes.isInteger()) {
+                    parsedLongs[index] = Long.parseLong(content);
+                }
+                else if (valueTypes.isNumeric()) {
+                    parsedDoubles[index] = Double.parseDouble(content);
+
+                    if (valueTypes == FieldValueType.PRICE) {
+                        parsedValues[index] = new BigDecimal(content);
+                    }
+                }
+                else if (valueTypes == FieldValueType.DATE) {
+                    parsedValues[index] = LocalDate.parse(content, DATE_FORMAT);
+                }
+                else if (valueTypes == FieldValueType.DATETIME) {
+                    parsedValues[index] = LocalDateTime.parse(content, DATETIME_FORMAT);
+                }
+                else if (valueTypes == FieldValueType.TIME) {
+                    parsedValues[index] = LocalTime.parse(content, TIME_FORMAT);
+                }
+
+                parsedStates[index] = PARSED;
+            }
+            catch (NumberFormatException | DateTimeParseException e) {
+                // e.g. an integer overflowing a long, or the 31st of February
+                parsedStates[index] = UNPARSABLE;
+            }
+        }
+
+        /**
+         * Get the parsed content of the field, parsing it if it changed since it was last parsed
+         *
+         * @param accepted true if the value type holds the requested type, false otherwise
+         * @param type     the requested type, for the error messages
+         * @return true if a value was parsed, false if the content is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the value type does not hold the requested type,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content does not hold a valid value
+         */
+        private boolean parsed (boolean accepted, String type)
+        {
+            if (!accepted) {
+                throw new FormException(ErrorType.WRONG_VALUE_TYPE, "The field \"" + key + "\" of type " + valueTypes + " does not hold " + type + " values");
+            }
+
+            parseContent(false);
+
+            if (parsedStates[index] == UNPARSABLE) {
+                throw new FormException(ErrorType.INVALID_VALUE, "The content of the field \"" + key + "\" is not a valid " + type + ": " + getValue());
+            }
+
+            return parsedStates[index] == PARSED;
+        }
+
+        /**
+         * Get the value of an integer field as an int <br>
+         * The content is parsed once per change, by its validation or by the first call of a typed accessor
+         *
+         * @return the value, 0 if the field is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold integers,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid int
+         */
+        public int getInt ()
+        {
+            long value = getLong();
+
+            if ((int) value != value) {
+                throw new FormException(ErrorType.INVALID_VALUE, "The value of the field \"" + key + "\" overflows an int: " + value);
+            }
+
+            return (int) value;
+        }
+
+        /**
+         * Get the value of an integer field as a long <br>
+         * The content is parsed once per change, by its validation or by the first call of a typed accessor
+         *
+         * @return the value, 0 if the field is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold integers,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid long
+         */
+        public long getLong ()
+        {
+            return parsed(valueTypes.isInteger(), "integer") ? parsedLongs[index] : 0;
+        }
+
+        /**
+         * Get the value of a numeric field as a double <br>
+         * The content is parsed once per change, by its validation or by the first call of a typed accessor
+         *
+         * @return the value, 0 if the field is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold numbers,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid number
+         */
+        public double getDouble ()
+        {
+            if (!parsed(valueTypes.isNumeric(), "number")) {
+                return 0;
+            }
+
+            return valueTypes.isInteger() ? parsedLongs[index] : parsedDoubles[index];
+        }
+
+        /**
+         * Get the value of a numeric field as a decimal <br>
+         * The decimal of a {@link FieldValueType#PRICE} is parsed with the content, the other ones on the first call
+         *
+         * @return the value, null if the field is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold numbers,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid number
+         */
+        public BigDecimal getDecimal ()
+        {
+            if (!parsed(valueTypes.isNumeric(), "number")) {
+                return null;
+            }
+
+            if (parsedValues[index] == null) {
+                parsedValues[index] = valueTypes.isInteger() ? BigDecimal.valueOf(parsedLongs[index]) : new BigDecimal(getValue().toString());
+            }
+
+            return (BigDecimal) parsedValues[index];
+        }
+
+        /**
+         * Get the value of a {@link FieldValueType#DATE} field <br>
+         * The content is parsed once per change, by its validation or by the first call of a typed accessor
+         *
+         * @return the value, null if the field is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold dates,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid date
+         */
+        public LocalDate getDate ()
+        {
+            return parsed(valueTypes == FieldValueType.DATE, "date") ? (LocalDate) parsedValues[index] : null;
+        }
+
+        /**
+         * Get the value of a {@link FieldValueType#DATETIME} field <br>
+         * The content is parsed once per change, by its validation or by the first call of a typed accessor
+         *
+         * @return the value, null if the field is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold dates and times,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid date and time
+         */
+        public LocalDateTime getDateTime ()
+        {
+            return parsed(valueTypes == FieldValueType.DATETIME, "date and time") ? (LocalDateTime) parsedValues[index] : null;
+        }
+
+        /**
+         * Get the value of a {@link FieldValueType#TIME} field <br>
+         * The content is parsed once per change, by its validation or by the first call of a typed accessor
+         *
+         * @return the value, null if the field is empty
+         * @throws FormException with the {@link ErrorType#WRONG_VALUE_TYPE} type if the field does not hold times,
+         *                       or the {@link ErrorType#INVALID_VALUE} type if the content is not a valid time
+         */
+        public LocalTime getTime ()
+        {
+            return parsed(valueTypes == FieldValueType.TIME, "time") ? (LocalTime) parsedValues[index] : null;
+        }
+
+        /**
+         * Display the field as valid, whatever its state <br>
+         * The CSS state is updated again on the next validation of the field
+         */
         public void resetCss ()
         {
-            field.getStyleClass().remove(FormValidatorCssClass.INPUT_INVALID);
+            showInvalid(false);
+            displayOutdated = true;
+        }
+
+        /**
+         * Display the field as invalid or not <br>
+         * The CSS state of the field is only changed when the displayed validity changes
+         *
+         * @param invalid true to display the field as invalid, false otherwise
+         */
+        private void showInvalid (boolean invalid)
+        {
+            if (shownInvalid == invalid) {
+                return;
+            }
+
+            shownInvalid = invalid;
+            field.pseudoClassStateChanged(FormValidatorCssClass.INVALID, invalid);
+
+            if (invalidStyleClassEnabled) {
+                if (invalid) {
+                    field.getStyleClass().add(FormValidatorCssClass.INPUT_INVALID);
+                }
+                else {
+                    field.getStyleClass().remove(FormValidatorCssClass.INPUT_INVALID);
+                }
+            }
+        }
+
+        /**
+         * Read-only view of the invalidation reasons bitmask
+         */
+        private class InvalidationReasonList extends AbstractList<InvalidationReason>
+        {
+            @Override
+            public InvalidationReason get (int index)
+            {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+
+                int mask = reasonMasks[Field.this.index];
+
+                for (int i = 0; i < index; i++) {
+                    mask &= mask - 1;
+                }
+
+                return INVALIDATION_REASONS[Integer.numberOfTrailingZeros(mask)];
+            }
+
+            @Override
+            public int size ()
+            {
+                return Integer.bitCount(reasonMasks[index]);
+            }
+
+            @Override
+            public boolean contains (Object o)
+            {
+                return o instanceof InvalidationReason && hasInvalidationReason((InvalidationReason) o);
+            }
+        }
+    }
+
+    /**
+     * Iterator of the fields, in the order of their ids
+     */
+    private class FieldIterator implements Iterator<Field>
+    {
+        /** The id of the next field, nbOfIds if there is none */
+        private int next = skipRemoved(0);
+
+        /** The id of the last returned field, -1 if none */
+        private int last = -1;
+
+        /**
+         * Find the first field from an id
+         *
+         * @param id the id
+         * @return the id of the first field not removed, or nbOfIds if there is none
+         */
+        private int skipRemoved (int id)
+        {
+            while (id < nbOfIds && fields[id] == null) {
+                id++;
+            }
+
+            return id;
+        }
+
+        @Override
+        public boolean hasNext ()
+        {
+            return next < nbOfIds;
+        }
+
+        @Override
+        public Field next ()
+        {
+            if (next >= nbOfIds) {
+                throw new NoSuchElementException();
+            }
+
+            last = next;
+            next = skipRemoved(next + 1);
+            return fields[last];
+        }
+
+        @Override
+        public void remove ()
+        {
+            if (last < 0 || fields[last] == null) {
+                throw new IllegalStateException();
+            }
+
+            // The removal may compact the ids, the next field is found again by its new id
+            Field following = next < nbOfIds ? fields[next] : null;
+
+            FormMap.this.remove(fields[last].key);
+            next = following != null ? following.index : nbOfIds;
+            last = -1;
+        }
+    }
+
+    /**
+     * {@link Map} view of the fields, by key
+     */
+    private class MapView extends AbstractMap<String, Field>
+    {
+        /** The entries view, created on first use */
+        private Set<Entry<String, Field>> entries;
+
+        @Override
+        public Field get (Object key)
+        {
+            return key instanceof String ? FormMap.this.get((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey (Object key)
+        {
+            return key instanceof String && FormMap.this.containsKey((String) key);
+        }
+
+        @Override
+        public Field remove (Object key)
+        {
+            return key instanceof String ? FormMap.this.remove((String) key) : null;
+        }
+
+        @Override
+        public int size ()
+        {
+            return nbOfFields;
+        }
+
+        @Override
+        public Set<Entry<String, Field>> entrySet ()
+        {
+            if (entries == null) {
+                entries = new AbstractSet<Entry<String, Field>>()
+                {
+                    @Override
+                    public Iterator<Entry<String, Field>> iterator ()
+                    {
+                        Iterator<Field> fieldIterator = new FieldIterator();
+
+                        return new Iterator<Entry<String, Field>>()
+                        {
+                            @Override
+                            public boolean hasNext ()
+                            {
+                                return fieldIterator.hasNext();
+                            }
+
+                            @Override
+                            public Entry<String, Field> next ()
+                            {
+                                Field field = fieldIterator.next();
+                                return new SimpleImmutableEntry<>(field.key, field);
+                            }
+
+                            @Override
+                            public void remove ()
+                            {
+                                fieldIterator.remove();
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size ()
+                    {
+                        return nbOfFields;
+                    }
+                };
+            }
+
+            return entries;
         }
     }
 }
@@ -0,0 +1,134 @@
+package fr.polytech.marechal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache evicting the least recently used entries, whose entries may expire. <br>
+ * Every method is synchronized, so the cache can be filled from background threads.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+class LruCache<K, V>
+{
+    /** The maximum number of entries */
+    private final int capacity;
+
+    /** The time (in nanoseconds) an entry stays valid, 0 for no expiry */
+    private final long timeToLive;
+
+    /** The entries, in access order */
+    private final LinkedHashMap<K, CachedValue<V>> entries;
+
+    /**
+     * 2 parameters constructor
+     *
+     * @param capacity         the maximum number of entries
+     * @param timeToLiveMillis the time (in milliseconds) an entry stays valid, 0 for no expiry
+     */
+    LruCache (int capacity, long timeToLiveMillis)
+    {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+
+        this.capacity = capacity;
+        this.timeToLive = timeToLiveMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<K, CachedValue<V>>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry (Map.Entry<K, CachedValue<V>> eldest)
+            {
+                return size() > LruCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Get a value
+     *
+     * @param key the key
+     * @return the value, or null if it is missing or expired
+     */
+    synchronized V get (K key)
+    {
+        CachedValue<V> entry = entries.get(key);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (timeToLive != 0 && System.nanoTime() - entry.time > timeToLive) {
+            entries.remove(key);
+            return null;
+        }
+
+        return entry.value;
+    }
+
+    /**
+     * Put a value, evicting the least recently used entry if the cache is full
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    synchronized void put (K key, V value)
+    {
+        entries.put(key, new CachedValue<>(value, System.nanoTime()));
+    }
+
+    /**
+     * Remove every entry
+     */
+    synchronized void clear ()
+    {
+        entries.clear();
+    }
+
+    /**
+     * Get the number of entries, expired entries included
+     *
+     * @return the number of entries
+     */
+    synchronized int size ()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Get the maximum number of entries
+     *
+     * @return the maximum number of entries
+     */
+    int getCapacity ()
+    {
+        return capacity;
+    }
+
+    /**
+     * A value and the time it was put
+     *
+     * @param <V> the type of the value
+     */
+    private static final class CachedValue<V>
+    {
+        /** The value */
+        private final V value;
+
+        /** The time (in nanoseconds) the value was put */
+        private final long time;
+
+        /**
+         * 2 parameters constructor
+         *
+         * @param value the value
+         * @param time  the time (in nanoseconds) the value was put
+         */
+        private CachedValue (V value, long time)
+        {
+            this.value = value;
+            this.time = time;
+        }
+    }
+}
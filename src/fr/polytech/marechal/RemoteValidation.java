@@ -0,0 +1,172 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.validator.InvalidationReason;
+import fr.polytech.marechal.validator.RemoteValidator;
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The validation of the content of fields by a {@link RemoteValidator}. <br>
+ * Once the content of a field is validated by its value type, the remote validator is called on a background executor,
+ * and the field is unvalidated with the {@link InvalidationReason#PENDING} reason until the answer comes back.
+ * A change of the content cancels the request in progress, and the answers are kept in a bounded LRU cache,
+ * so a value is only checked again once its answer expired. <br>
+ * The same instance can be shared by several fields checking the same kind of value.
+ *
+ * @see FormMap.Field#setRemoteValidation(RemoteValidation)
+ */
+public class RemoteValidation
+{
+    /** The default executor, a cached pool of daemon threads suited to blocking requests */
+    private static final ExecutorService DEFAULT_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "form-remote-validation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** The default number of cached answers */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /** The default time (in milliseconds) an answer stays cached */
+    public static final long DEFAULT_TIME_TO_LIVE = 60_000;
+
+    /** The remote validator */
+    private final RemoteValidator validator;
+
+    /** The answers of the remote validator, by value */
+    private final LruCache<String, Boolean> cache;
+
+    /** The executor calling the remote validator */
+    private volatile ExecutorService executor = DEFAULT_EXECUTOR;
+
+    /**
+     * 1 parameter constructor, using the default cache size and time to live
+     *
+     * @param validator the remote validator
+     */
+    public RemoteValidation (@NotNull RemoteValidator validator)
+    {
+        this(validator, DEFAULT_CACHE_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    /**
+     * 3 parameters constructor
+     *
+     * @param validator        the remote validator
+     * @param cacheSize        the maximum number of cached answers
+     * @param timeToLiveMillis the time (in milliseconds) an answer stays cached, 0 for no expiry
+     */
+    public RemoteValidation (@NotNull RemoteValidator validator, int cacheSize, long timeToLiveMillis)
+    {
+        this.validator = validator;
+        this.cache = new LruCache<>(cacheSize, timeToLiveMillis);
+    }
+
+    /**
+     * Get the remote validator
+     *
+     * @return the remote validator
+     */
+    public RemoteValidator getValidator ()
+    {
+        return validator;
+    }
+
+    /**
+     * Set the executor calling the remote validator <br>
+     * On Java 21 and later, an {@code Executors.newVirtualThreadPerTaskExecutor()} fits the blocking requests best
+     *
+     * @param executor the executor, or null to use the default one
+     */
+    public void setExecutor (ExecutorService executor)
+    {
+        this.executor = executor != null ? executor : DEFAULT_EXECUTOR;
+    }
+
+    /**
+     * Get the executor calling the remote validator
+     *
+     * @return the executor
+     */
+    public ExecutorService getExecutor ()
+    {
+        return executor;
+    }
+
+    /**
+     * Forget every cached answer
+     */
+    public void clearCache ()
+    {
+        cache.clear();
+    }
+
+    /**
+     * Get the cached answer for a value
+     *
+     * @param value the value
+     * @return true if the value was accepted, false if it was rejected, null if there is no valid cached answer
+     */
+    Boolean getCachedAnswer (String value)
+    {
+        return cache.get(value);
+    }
+
+    /**
+     * Check a value in background <br>
+     * The answer is cached, then committed to the field on the JavaFX thread if the field was not changed meanwhile.
+     * A failure of the remote validator is committed with the {@link InvalidationReason#REMOTE_ERROR} reason, and is not cached.
+     *
+     * @param field      the field
+     * @param value      the value to check
+     * @param generation the edit generation of the field when the value was copied
+     * @return the request in progress
+     */
+    Future<?> submit (@NotNull FormMap.Field field, @NotNull String value, long generation)
+    {
+        return executor.submit(() -> {
+            InvalidationReason reason;
+
+            try {
+                reason = check(value);
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+
+            if (Thread.currentThread().isInterrupted() || field.removed || field.generation != generation) {
+                return;
+            }
+
+            Platform.runLater(() -> field.applyRemoteAnswer(generation, reason));
+        });
+    }
+
+    /**
+     * Call the remote validator on a value, and cache its answer <br>
+     * This method is called off the JavaFX thread, and blocks until the remote validator answers
+     *
+     * @param value the value to check
+     * @return null if the value was accepted, {@link InvalidationReason#REMOTE_REJECTED} if it was rejected,
+     * or {@link InvalidationReason#REMOTE_ERROR} if the remote validator failed
+     * @throws InterruptedException if the request was abandoned
+     */
+    InvalidationReason check (@NotNull String value) throws InterruptedException
+    {
+        try {
+            boolean accepted = validator.accepts(value);
+            cache.put(value, accepted);
+            return accepted ? null : InvalidationReason.REMOTE_REJECTED;
+        }
+        catch (InterruptedException e) {
+            throw e;
+        }
+        catch (Exception e) {
+            return InvalidationReason.REMOTE_ERROR;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.validator.FormValidator;
+
+import java.util.EnumMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A memoizing cache of the validation results, by value type and content. <br>
+ * Each cached value type has its own bounded LRU cache, so a type with many distinct contents cannot evict the others.
+ * By default, only the types tested by the {@link java.util.regex} engine are cached (see {@link FieldValueType#usesRegexEngine()}):
+ * a specialized validator or a compiled automaton scans the content once, which is cheaper than hashing it for a lookup.
+ * Use {@link #setCached(FieldValueType, boolean)} to cache a type anyway, e.g. with an expensive {@link FieldValueType} added later.
+ * Contents longer than the maximum content length are never cached. <br>
+ * The cache is thread safe and meant to be shared by every form, see {@link FormValidator#setValidationCache(ValidationCache)}.
+ */
+public class ValidationCache
+{
+    /** The default number of cached results per value type */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** The default maximum length of a cached content */
+    public static final int DEFAULT_MAX_CONTENT_LENGTH = 256;
+
+    /** The number of cached results per value type */
+    private final int capacity;
+
+    /** The maximum length of a cached content */
+    private final int maxContentLength;
+
+    /** The results, by value type, for the cached types only */
+    private final EnumMap<FieldValueType, LruCache<String, Boolean>> caches = new EnumMap<>(FieldValueType.class);
+
+    /** The number of results found in the cache */
+    private final LongAdder hitCount = new LongAdder();
+
+    /** The number of results missing from the cache */
+    private final LongAdder missCount = new LongAdder();
+
+    /** Default constructor */
+    public ValidationCache ()
+    {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_CONTENT_LENGTH);
+    }
+
+    /**
+     * 2 parameters constructor
+     *
+     * @param capacity         the number of cached results per value type
+     * @param maxContentLength the maximum length of a cached content
+     */
+    public ValidationCache (int capacity, int maxContentLength)
+    {
+        this.capacity = capacity;
+        this.maxContentLength = maxContentLength;
+
+        for (FieldValueType type : FieldValueType.values()) {
+            if (type.usesRegexEngine()) {
+                caches.put(type, new LruCache<>(capacity, 0));
+            }
+        }
+    }
+
+    /**
+     * Set a value type as cached or not
+     *
+     * @param type   the value type
+     * @param cached true to cache the results of the type, false to always test its contents
+     */
+    public synchronized void setCached (@NotNull FieldValueType type, boolean cached)
+    {
+        if (!cached) {
+            caches.remove(type);
+        }
+        else if (!caches.containsKey(type)) {
+            caches.put(type, new LruCache<>(capacity, 0));
+        }
+    }
+
+    /**
+     * Know if a value type is cached or not
+     *
+     * @param type the value type
+     * @return true if the results of the type are cached, false otherwise
+     */
+    public synchronized boolean isCached (@NotNull FieldValueType type)
+    {
+        return caches.containsKey(type);
+    }
+
+    /**
+     * Test a content against a value type, using the cached result if there is one <br>
+     * A result is only computed by {@link FieldValueType#matches(CharSequence)}, so it only depends on the type and the content
+     *
+     * @param type    the value type
+     * @param content the content to test
+     * @return true if the content matches the type, false otherwise
+     */
+    public boolean matches (@NotNull FieldValueType type, @NotNull String content)
+    {
+        LruCache<String, Boolean> cache;
+
+        synchronized (this) {
+            cache = caches.get(type);
+        }
+
+        if (cache == null || content.length() > maxContentLength) {
+            return type.matches(content);
+        }
+
+        Boolean result = cache.get(content);
+
+        if (result != null) {
+            hitCount.increment();
+            return result;
+        }
+
+        missCount.increment();
+        boolean matches = type.matches(content);
+        cache.put(content, matches);
+        return matches;
+    }
+
+    /**
+     * Forget every cached result, the statistics are kept
+     */
+    public synchronized void clear ()
+    {
+        for (LruCache<String, Boolean> cache : caches.values()) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached results
+     *
+     * @return the number of cached results, for every value type
+     */
+    public synchronized int size ()
+    {
+        int size = 0;
+
+        for (LruCache<String, Boolean> cache : caches.values()) {
+            size += cache.size();
+        }
+
+        return size;
+    }
+
+    /**
+     * Get the number of results found in the cache
+     *
+     * @return the number of hits
+     */
+    public long getHitCount ()
+    {
+        return hitCount.sum();
+    }
+
+    /**
+     * Get the number of results missing from the cache
+     *
+     * @return the number of misses
+     */
+    public long getMissCount ()
+    {
+        return missCount.sum();
+    }
+
+    /**
+     * Get the ratio of results found in the cache
+     *
+     * @return the hit ratio, between 0 and 1, or 0 if the cache was never used
+     */
+    public double getHitRatio ()
+    {
+        long hits  = getHitCount();
+        long total = hits + getMissCount();
+
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Reset the hit and miss counts
+     */
+    public void resetStatistics ()
+    {
+        hitCount.reset();
+        missCount.reset();
+    }
+
+    @Override
+    public synchronized String toString ()
+    {
+        return String.format("ValidationCache: {size=%d, hits=%d, misses=%d, cachedTypes=%s}", size(), getHitCount(), getMissCount(), caches.keySet());
+    }
+}
@@ -0,0 +1,115 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coalesces the validation of the fields of one or several {@link FormMap}. <br>
+ * A change only marks the field as dirty, the field is then validated at most once per JavaFX pulse,
+ * once its validation delay (see {@link FormMap.Field#setValidationDelay(long)}) is elapsed.
+ * A dirty field counts as unvalidated, so the form is not valid (and cannot be submitted) until it is validated;
+ * its CSS state is left unchanged meanwhile. A field validated directly, e.g. by {@link FormMap#validateAll()}, is no longer dirty. <br>
+ * Every method of this class has to be called from the JavaFX thread.
+ */
+public class ValidationScheduler
+{
+    /** The dirty fields, in the order they were scheduled */
+    private final List<FormMap.Field> dirtyFields = new ArrayList<>();
+
+    /** The timer running on each pulse while some fields are dirty */
+    private final AnimationTimer timer = new AnimationTimer()
+    {
+        @Override
+        public void handle (long now)
+        {
+            validateDirtyFields(false);
+        }
+    };
+
+    /** Is the timer running or not */
+    private boolean running = false;
+
+    /** Default constructor */
+    public ValidationScheduler ()
+    {
+    }
+
+    /**
+     * Mark a field as dirty <br>
+     * The field will be validated on the next pulse, or after its validation delay
+     *
+     * @param field the field to validate
+     */
+    public void schedule (@NotNull FormMap.Field field)
+    {
+        field.lastChangeTime = System.nanoTime();
+
+        if (!field.scheduled) {
+            field.scheduled = true;
+            dirtyFields.add(field);
+            field.refreshValidity();
+        }
+
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    /**
+     * Validate every dirty field right now, ignoring the validation delays <br>
+     * This may be used before reading the form, e.g. when it is submitted
+     */
+    public void flush ()
+    {
+        validateDirtyFields(true);
+    }
+
+    /**
+     * Know if some fields are waiting for their validation
+     *
+     * @return true if at least one field is dirty, false otherwise
+     */
+    public boolean hasDirtyFields ()
+    {
+        return !dirtyFields.isEmpty();
+    }
+
+    /**
+     * Validate the dirty fields whose delay is elapsed <br>
+     * The fields still waiting for their delay are kept in the list, in the same order
+     *
+     * @param force true to validate every dirty field, whatever their delay
+     */
+    private void validateDirtyFields (boolean force)
+    {
+        long now  = System.nanoTime();
+        int  kept = 0;
+
+        for (int i = 0; i < dirtyFields.size(); i++) {
+            FormMap.Field field = dirtyFields.get(i);
+
+            if (field.removed || !field.scheduled) {
+                // Removed, or validated directly since it was scheduled
+                field.scheduled = false;
+            }
+            else if (force || now - field.lastChangeTime >= field.validationDelay) {
+                field.scheduled = false;
+                field.runValidation();
+            }
+            else {
+                dirtyFields.set(kept++, field);
+            }
+        }
+
+        dirtyFields.subList(kept, dirtyFields.size()).clear();
+
+        if (dirtyFields.isEmpty() && running) {
+            running = false;
+            timer.stop();
+        }
+    }
+}
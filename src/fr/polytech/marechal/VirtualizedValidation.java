@@ -0,0 +1,475 @@
+package fr.polytech.marechal;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.validator.ContentValidator;
+import fr.polytech.marechal.validator.FormValidator;
+import fr.polytech.marechal.validator.InvalidationReason;
+import fr.polytech.marechal.validator.ValidationEvents;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.Control;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextInputControl;
+import javafx.scene.web.HTMLEditor;
+
+import java.util.BitSet;
+
+/**
+ * Virtualized validation of a {@link FormMap} with a large number of fields. <br>
+ * The validity of the fields is tracked in bit sets indexed by the fields' index in the form.
+ * A change of a visible or focused field is validated right away, as usual. A change of an off-screen field only marks
+ * the field as dirty: the dirty fields are then validated in bounded batches, one batch at a time, their contents being
+ * tested on the {@link AsyncValidation#getExecutor()} and the results committed on the JavaFX thread.
+ * The dirty fields scrolled into view or focused are validated on the next pulse. <br>
+ * A dirty field counts as unvalidated, so the validity of the form stays exact: it is only valid once every field
+ * has actually been validated. The CSS state of a dirty field is left unchanged until it is validated. <br>
+ * Every method of this class has to be called from the JavaFX thread.
+ *
+ * @see FormMap#setVirtualizedValidation(VirtualizedValidation)
+ */
+public class VirtualizedValidation
+{
+    /** The default number of fields validated per batch */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** The scroll pane showing the fields, null to use the bounds of the scene */
+    private final ScrollPane scrollPane;
+
+    /** The form, null until the validation is attached */
+    private FormMap form;
+
+    /** The fields waiting for their validation, by index */
+    private final BitSet dirty = new BitSet();
+
+    /** The unvalidated fields, by index */
+    private final BitSet invalid = new BitSet();
+
+    /** The maximum number of fields validated per batch */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** The index from which the next batch looks for dirty fields */
+    private int cursor = 0;
+
+    /** Is a batch being tested in background or not */
+    private boolean batchInFlight = false;
+
+    /** Has the viewport moved since the last pulse or not */
+    private boolean viewportMoved = false;
+
+    /** The timer running on each pulse while some fields are dirty */
+    private final AnimationTimer timer = new AnimationTimer()
+    {
+        @Override
+        public void handle (long now)
+        {
+            pulse();
+        }
+    };
+
+    /** Is the timer running or not */
+    private boolean running = false;
+
+    /** The listener noting the moves of the viewport */
+    private final InvalidationListener viewportListener = observable -> viewportMoved = true;
+
+    /** The listener validating a dirty field when it gets the focus */
+    private final ChangeListener<Node> focusListener = (observable, oldOwner, newOwner) -> validateFocused(newOwner);
+
+    /** The listener moving the focus listener to the scene of the scroll pane */
+    private final ChangeListener<Scene> sceneListener = (observable, oldScene, newScene) -> {
+        if (oldScene != null) {
+            oldScene.focusOwnerProperty().removeListener(focusListener);
+        }
+        if (newScene != null) {
+            newScene.focusOwnerProperty().addListener(focusListener);
+        }
+    };
+
+    /**
+     * 1 parameter constructor
+     *
+     * @param scrollPane the scroll pane showing the fields, or null to use the bounds of the scene
+     */
+    public VirtualizedValidation (ScrollPane scrollPane)
+    {
+        this.scrollPane = scrollPane;
+    }
+
+    /**
+     * Set the maximum number of fields validated per batch
+     *
+     * @param batchSize the batch size
+     */
+    public void setBatchSize (int batchSize)
+    {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Get the maximum number of fields validated per batch
+     *
+     * @return the batch size
+     */
+    public int getBatchSize ()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Get the number of fields waiting for their validation
+     *
+     * @return the number of dirty fields
+     */
+    public int getDirtyFieldCount ()
+    {
+        return dirty.cardinality();
+    }
+
+    /**
+     * Get the number of unvalidated fields, the dirty fields included
+     *
+     * @return the number of unvalidated fields
+     */
+    public int getInvalidFieldCount ()
+    {
+        return invalid.cardinality();
+    }
+
+    /**
+     * Get the first unvalidated field, in the order the fields were added
+     *
+     * @return the first unvalidated field, or null if every field is validated
+     */
+    public FormMap.Field getFirstInvalidField ()
+    {
+        for (int i = invalid.nextSetBit(0); i >= 0; i = invalid.nextSetBit(i + 1)) {
+            FormMap.Field field = form.getField(i);
+
+            if (field != null) {
+                return field;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Validate every dirty field right now, on the JavaFX thread
+     */
+    public void flush ()
+    {
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            FormMap.Field field = form.getField(i);
+
+            if (field != null) {
+                field.runValidation();
+            }
+        }
+    }
+
+    /**
+     * Attach the validation to a form
+     *
+     * @param form the form
+     * @throws IllegalStateException if the validation is already attached to another form
+     */
+    void attach (@NotNull FormMap form)
+    {
+        if (this.form != null && this.form != form) {
+            throw new IllegalStateException("The virtualized validation is already attached to a form");
+        }
+
+        this.form = form;
+
+        for (int i = 0; i < form.getFieldIndexBound(); i++) {
+            FormMap.Field field = form.getField(i);
+            invalid.set(i, field != null && !field.isValidated());
+        }
+
+        if (scrollPane != null) {
+            scrollPane.vvalueProperty().addListener(viewportListener);
+            scrollPane.hvalueProperty().addListener(viewportListener);
+            scrollPane.viewportBoundsProperty().addListener(viewportListener);
+            scrollPane.sceneProperty().addListener(sceneListener);
+            sceneListener.changed(null, null, scrollPane.getScene());
+        }
+    }
+
+    /**
+     * Detach the validation from its form, the dirty fields are validated right away
+     */
+    void detach ()
+    {
+        if (scrollPane != null) {
+            scrollPane.vvalueProperty().removeListener(viewportListener);
+            scrollPane.hvalueProperty().removeListener(viewportListener);
+            scrollPane.viewportBoundsProperty().removeListener(viewportListener);
+            scrollPane.sceneProperty().removeListener(sceneListener);
+            sceneListener.changed(null, scrollPane.getScene(), null);
+        }
+
+        timer.stop();
+        running = false;
+
+        BitSet fields = (BitSet) dirty.clone();
+        dirty.clear();
+        invalid.clear();
+
+        for (int i = fields.nextSetBit(0); i >= 0; i = fields.nextSetBit(i + 1)) {
+            FormMap.Field field = form.getField(i);
+
+            if (field != null) {
+                field.runValidation();
+            }
+        }
+
+        form = null;
+    }
+
+    /**
+     * Defer the validation of a changed field if it is off-screen
+     *
+     * @param field the changed field
+     * @return true if the field was marked as dirty, false if it has to be validated right away
+     */
+    boolean defer (@NotNull FormMap.Field field)
+    {
+        if (isShown(field.getField())) {
+            return false;
+        }
+
+        dirty.set(field.index);
+        field.refreshValidity();
+
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+
+        return true;
+    }
+
+    /**
+     * Know if a field is waiting for its validation
+     *
+     * @param index the index of the field
+     * @return true if the field is dirty, false otherwise
+     */
+    boolean isDirty (int index)
+    {
+        return dirty.get(index);
+    }
+
+    /**
+     * Mark a field as validated, its content having been tested
+     *
+     * @param index the index of the field
+     */
+    void clean (int index)
+    {
+        dirty.clear(index);
+    }
+
+    /**
+     * Record the validity of a field
+     *
+     * @param index the index of the field
+     * @param valid true if the field is validated, false otherwise
+     */
+    void setValid (int index, boolean valid)
+    {
+        invalid.set(index, !valid);
+    }
+
+    /**
+     * Forget a removed field
+     *
+     * @param index the index of the field
+     */
+    void forget (int index)
+    {
+        dirty.clear(index);
+        invalid.clear(index);
+    }
+
+    /**
+     * Move the state of a field to a lower index, when the ids of the form are compacted <br>
+     * The state of the former index is cleared
+     *
+     * @param from the former index of the field
+     * @param to   the new index of the field
+     */
+    void move (int from, int to)
+    {
+        dirty.set(to, dirty.get(from));
+        invalid.set(to, invalid.get(from));
+        dirty.clear(from);
+        invalid.clear(from);
+
+        if (cursor > to) {
+            cursor = to;
+        }
+    }
+
+    /**
+     * Validate the dirty fields scrolled into view, then start the next background batch
+     */
+    private void pulse ()
+    {
+        if (viewportMoved) {
+            viewportMoved = false;
+
+            for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                FormMap.Field field = form.getField(i);
+
+                if (field != null && isShown(field.getField())) {
+                    field.runValidation();
+                }
+            }
+        }
+
+        if (!batchInFlight) {
+            sweep();
+        }
+
+        if (dirty.isEmpty() && !batchInFlight) {
+            running = false;
+            timer.stop();
+        }
+    }
+
+    /**
+     * Validate the next batch of dirty fields <br>
+     * The text contents are copied and tested in background, the other fields are validated right away
+     */
+    private void sweep ()
+    {
+        FormMap.Field[] fields      = new FormMap.Field[batchSize];
+        String[]        contents    = new String[batchSize];
+        long[]          generations = new long[batchSize];
+        int             size        = 0;
+        int             seen        = 0;
+
+        int i = dirty.nextSetBit(cursor);
+
+        if (i < 0) {
+            i = dirty.nextSetBit(0);
+        }
+
+        while (i >= 0 && seen < batchSize) {
+            FormMap.Field field   = form.getField(i);
+            Control       control = field != null ? field.getField() : null;
+            seen++;
+
+            if (field == null) {
+                dirty.clear(i);
+            }
+            else if (control instanceof TextInputControl || control instanceof HTMLEditor) {
+                fields[size] = field;
+                contents[size] = field.getTextContent();
+                generations[size] = field.generation;
+                size++;
+            }
+            else {
+                field.runValidation();
+            }
+
+            cursor = i + 1;
+            i = dirty.nextSetBit(cursor);
+        }
+
+        if (size == 0) {
+            return;
+        }
+
+        final int batch = size;
+        batchInFlight = true;
+
+        AsyncValidation.getExecutor().execute(() -> {
+            InvalidationReason[] reasons    = new InvalidationReason[batch];
+            long[]               checkNanos = new long[batch];
+            Object[]             events     = new Object[batch];
+            boolean              metrics    = FormValidator.isMetricsEnabled();
+
+            for (int j = 0; j < batch; j++) {
+                events[j] = metrics ? ValidationEvents.beginValidateField() : null;
+                long start = metrics ? System.nanoTime() : 0;
+
+                reasons[j] = fields[j].getField() instanceof HTMLEditor
+                             ? ContentValidator.checkHtml(fields[j].getValueTypes(), contents[j], fields[j].isRequired())
+                             : ContentValidator.check(fields[j].getValueTypes(), contents[j], fields[j].isRequired());
+
+                checkNanos[j] = metrics ? System.nanoTime() - start : -1;
+                ValidationEvents.endContentCheck(events[j]);
+            }
+
+            Platform.runLater(() -> {
+                batchInFlight = false;
+
+                for (int j = 0; j < batch; j++) {
+                    if (form != null && form.getField(fields[j].index) == fields[j] && fields[j].generation == generations[j]) {
+                        AsyncValidation.commit(fields[j], reasons[j], checkNanos[j], events[j]);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Validate the focused field right away if it is dirty
+     *
+     * @param focusOwner the new focus owner
+     */
+    private void validateFocused (Node focusOwner)
+    {
+        for (Node node = focusOwner; node != null && form != null; node = node.getParent()) {
+            if (node instanceof Control) {
+                FormMap.Field field = form.getField((Control) node);
+
+                if (field != null) {
+                    if (dirty.get(field.index)) {
+                        field.runValidation();
+                    }
+
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Know if a control is shown in the viewport, or focused
+     *
+     * @param control the control
+     * @return true if the control is focused or intersects the viewport, false otherwise
+     */
+    private boolean isShown (Control control)
+    {
+        if (control.isFocused()) {
+            return true;
+        }
+
+        Scene scene = control.getScene();
+
+        if (scene == null || !control.isVisible()) {
+            return false;
+        }
+
+        Bounds bounds = control.localToScene(control.getBoundsInLocal());
+
+        if (scrollPane == null || scrollPane.getScene() != scene) {
+            return bounds.intersects(0, 0, scene.getWidth(), scene.getHeight());
+        }
+
+        return bounds.intersects(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+    }
+}
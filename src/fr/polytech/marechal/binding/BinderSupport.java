@@ -0,0 +1,63 @@
+package fr.polytech.marechal.binding;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.FormMap;
+
+/**
+ * The conversions of the fields' values used by the generated {@link FormBinder}, besides the typed accessors of
+ * {@link FormMap.Field} (e.g. {@link FormMap.Field#getInt()}) <br>
+ * An empty content gives the default value of the type.
+ */
+public final class BinderSupport
+{
+    /** Private constructor, this class only has static methods */
+    private BinderSupport ()
+    {
+    }
+
+    /**
+     * Know if the value of a field is empty
+     *
+     * @param field the field
+     * @return true if the value is null or an empty String, false otherwise
+     */
+    public static boolean isEmpty (@NotNull FormMap.Field field)
+    {
+        Object value = field.getValue();
+        return value == null || "".equals(value);
+    }
+
+    /**
+     * Get the value of a field as a String
+     *
+     * @param field the field
+     * @return the value as a String, null if the value is null
+     */
+    public static String getString (@NotNull FormMap.Field field)
+    {
+        Object value = field.getValue();
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * Get the value of a field as a char
+     *
+     * @param field the field
+     * @return the first character of the value, the null character if empty
+     */
+    public static char getChar (@NotNull FormMap.Field field)
+    {
+        return isEmpty(field) ? '\0' : getString(field).charAt(0);
+    }
+
+    /**
+     * Get the value of a field as a boolean
+     *
+     * @param field the field
+     * @return true if the value is {@link Boolean#TRUE} (a selected toggle), false otherwise
+     */
+    public static boolean getBoolean (@NotNull FormMap.Field field)
+    {
+        return Boolean.TRUE.equals(field.getValue());
+    }
+}
@@ -0,0 +1,30 @@
+package fr.polytech.marechal.binding;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.FormMap;
+
+/**
+ * A binder of a POJO to a {@link FormMap}, generated from the {@link FormField} annotations of the POJO <br>
+ * The constructor of the generated binder adds the fields to the form, in the order they are declared in the POJO.
+ * The binder keeps the added fields, so binding a POJO neither looks the fields up by key nor uses reflection.
+ *
+ * @param <T> the type of the POJO
+ */
+public interface FormBinder<T>
+{
+    /**
+     * Get the form the fields were added to
+     *
+     * @return the form
+     */
+    FormMap getForm ();
+
+    /**
+     * Write the values of the form's fields into a POJO <br>
+     * The values are converted to the types of the POJO's fields, so the form should have been validated first.
+     * An empty field gives null, or the default value of a primitive type.
+     *
+     * @param target the POJO
+     */
+    void bind (@NotNull T target);
+}
@@ -0,0 +1,54 @@
+package fr.polytech.marechal.binding;
+
+import fr.polytech.marechal.FieldValueType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A field of a POJO bound to a field of a {@link fr.polytech.marechal.FormMap} <br>
+ * The {@link FormFieldProcessor} generates a {@link FormBinder} for each class having such fields, at build time.
+ * The annotated field must not be private, static or final, unless it is private and has a non-private setter. <br>
+ * <br>
+ * Example:
+ * <pre>
+ * public class Account
+ * {
+ *     &#64;FormField(type = FieldValueType.EMAIL, required = true)
+ *     String email;
+ *
+ *     &#64;FormField(type = FieldValueType.NUMBERS_INT_UNSIGNED)
+ *     int age;
+ * }
+ *
+ * AccountFormBinder binder = new AccountFormBinder(form, emailTextField, ageTextField);
+ * binder.bind(account);
+ * </pre>
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface FormField
+{
+    /**
+     * The key of the field in the form
+     *
+     * @return the key, the name of the annotated field if empty
+     */
+    String key () default "";
+
+    /**
+     * The type of the value
+     *
+     * @return the value type
+     */
+    FieldValueType type () default FieldValueType.UNDEFINED;
+
+    /**
+     * Is the field required or not
+     *
+     * @return true if the field should not be empty, false otherwise
+     */
+    boolean required () default false;
+}
@@ -0,0 +1,477 @@
+package fr.polytech.marechal.binding;
+
+import fr.polytech.marechal.FieldValueType;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The annotation processor generating a {@link FormBinder} for each class having {@link FormField} fields <br>
+ * The binder of the class {@code Account} is the class {@code AccountFormBinder}, in the same package
+ * (the binder of a nested class {@code Outer.Inner} is {@code Outer_InnerFormBinder}). It has:
+ * <ul>
+ * <li>a constant with the key of each field, e.g. {@code EMAIL} for the field {@code email}</li>
+ * <li>a constructor taking the form and one control per field, in declaration order, adding the fields to the form
+ * (the control of the field {@code email} is the parameter {@code emailControl})</li>
+ * <li>a {@link FormBinder#bind(Object)} method writing the typed values of the form into the class' fields,
+ * through the typed accessors of the fields (e.g. {@code getInt()}), which do not parse the contents again after their validation</li>
+ * </ul>
+ * The schema errors are reported at build time: inaccessible, static or final fields, duplicate keys,
+ * and Java types that cannot hold the values of the field's {@link FieldValueType}. <br>
+ * The processor is registered in {@code META-INF/services/javax.annotation.processing.Processor}.
+ */
+@SupportedAnnotationTypes("fr.polytech.marechal.binding.FormField")
+public class FormFieldProcessor extends AbstractProcessor
+{
+    /** The suffix of the generated binders' names */
+    private static final String BINDER_SUFFIX = "FormBinder";
+
+    /** The class converting the values in the generated binders, named so that the processor does not load it with JavaFX */
+    private static final String SUPPORT = "fr.polytech.marechal.binding.BinderSupport";
+
+    /** The value types holding a single character */
+    private static final Set<FieldValueType> CHARACTER_TYPES = EnumSet.of(FieldValueType.CHARACTER, FieldValueType.CHARACTER_LETTER,
+                                                                          FieldValueType.CHARACTER_LETTER_NUMBER, FieldValueType.CHARACTER_NUMBER);
+
+    @Override
+    public SourceVersion getSupportedSourceVersion ()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process (Set<? extends TypeElement> annotations, RoundEnvironment roundEnv)
+    {
+        Set<TypeElement> classes = new LinkedHashSet<>();
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(FormField.class)) {
+            classes.add((TypeElement) element.getEnclosingElement());
+        }
+
+        for (TypeElement type : classes) {
+            List<Binding> bindings = getBindings(type);
+
+            if (bindings != null) {
+                generate(type, bindings);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Read the annotated fields of a class, in declaration order
+     *
+     * @param type the class
+     * @return the bindings of the fields, or null if an error was reported
+     */
+    private List<Binding> getBindings (TypeElement type)
+    {
+        boolean       valid     = checkClass(type);
+        List<Binding> bindings  = new ArrayList<>();
+        Set<String>   keys      = new HashSet<>();
+        Set<String>   constants = new HashSet<>();
+
+        for (Element element : type.getEnclosedElements()) {
+            FormField annotation = element.getAnnotation(FormField.class);
+
+            if (annotation == null || element.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+
+            VariableElement field   = (VariableElement) element;
+            Binding         binding = new Binding();
+            binding.name = field.getSimpleName().toString();
+            binding.key = annotation.key().isEmpty() ? binding.name : annotation.key();
+            binding.constant = toConstantName(binding.name);
+            binding.valueType = annotation.type();
+            binding.required = annotation.required();
+            binding.conversion = getConversion(field.asType(), binding.valueType);
+
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.FINAL)) {
+                valid = error(field, "A @FormField field must not be static or final");
+            }
+            else if (field.getModifiers().contains(Modifier.PRIVATE)) {
+                binding.setter = findSetter(type, field);
+
+                if (binding.setter == null) {
+                    valid = error(field, "A private @FormField field needs a non-private setter set" + capitalize(binding.name) + "(" + field.asType() + ")");
+                }
+            }
+
+            if (binding.conversion == null) {
+                valid = error(field, "The type " + field.asType() + " cannot hold the values of the " + binding.valueType + " value type");
+            }
+
+            if (!keys.add(binding.key)) {
+                valid = error(field, "Duplicate @FormField key \"" + binding.key + "\"");
+            }
+
+            if (!constants.add(binding.constant)) {
+                valid = error(field, "The key constant " + binding.constant + " of the field " + binding.name + " clashes with another field");
+            }
+
+            bindings.add(binding);
+        }
+
+        return valid ? bindings : null;
+    }
+
+    /**
+     * Check that the generated binder can access a class
+     *
+     * @param type the class
+     * @return true if the class is accessible, false if an error was reported
+     */
+    private boolean checkClass (TypeElement type)
+    {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return error(type, "A class with @FormField fields must not be private");
+            }
+
+            if (element.getEnclosingElement() instanceof TypeElement && !element.getModifiers().contains(Modifier.STATIC)) {
+                return error(type, "A nested class with @FormField fields must be static");
+            }
+        }
+
+        if (type.getKind() != ElementKind.CLASS) {
+            return error(type, "@FormField fields must be declared in a class");
+        }
+
+        return true;
+    }
+
+    /**
+     * Find the non-private setter of a private field
+     *
+     * @param type  the class of the field
+     * @param field the field
+     * @return the name of the setter, or null if there is none
+     */
+    private String findSetter (TypeElement type, VariableElement field)
+    {
+        String name = "set" + capitalize(field.getSimpleName().toString());
+
+        for (Element element : type.getEnclosedElements()) {
+            if (element.getKind() != ElementKind.METHOD || !element.getSimpleName().contentEquals(name)
+                || element.getModifiers().contains(Modifier.PRIVATE) || element.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+
+            List<? extends VariableElement> parameters = ((ExecutableElement) element).getParameters();
+
+            if (parameters.size() == 1 && processingEnv.getTypeUtils().isSameType(parameters.get(0).asType(), field.asType())) {
+                return name;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Get the expression converting the value of a form's field to the type of a POJO's field
+     *
+     * @param type      the type of the POJO's field
+     * @param valueType the value type of the form's field
+     * @return the expression, {@code %s} standing for the form's field, or null if the type cannot hold the values
+     */
+    private String getConversion (TypeMirror type, FieldValueType valueType)
+    {
+        String  name     = type.toString();
+        boolean integer  = valueType.isInteger();
+        boolean numeric  = valueType.isNumeric();
+        String  support  = SUPPORT;
+        String  nullable = support + ".isEmpty(%s) ? null : ";
+
+        switch (name) {
+            case "java.lang.String":
+                return support + ".getString(%s)";
+            case "int":
+                return integer ? "%s.getInt()" : null;
+            case "java.lang.Integer":
+                return integer ? nullable + "%s.getInt()" : null;
+            case "long":
+                return integer ? "%s.getLong()" : null;
+            case "java.lang.Long":
+                return integer ? nullable + "%s.getLong()" : null;
+            case "double":
+                return numeric ? "%s.getDouble()" : null;
+            case "java.lang.Double":
+                return numeric ? nullable + "%s.getDouble()" : null;
+            case "java.math.BigDecimal":
+                return numeric ? "%s.getDecimal()" : null;
+            case "char":
+                return CHARACTER_TYPES.contains(valueType) ? support + ".getChar(%s)" : null;
+            case "java.lang.Character":
+                return CHARACTER_TYPES.contains(valueType) ? nullable + support + ".getChar(%s)" : null;
+            case "java.time.LocalDate":
+                return valueType == FieldValueType.DATE ? "%s.getDate()" : null;
+            case "java.time.LocalDateTime":
+                return valueType == FieldValueType.DATETIME ? "%s.getDateTime()" : null;
+            case "java.time.LocalTime":
+                return valueType == FieldValueType.TIME ? "%s.getTime()" : null;
+            case "boolean":
+            case "java.lang.Boolean":
+                return valueType == FieldValueType.UNDEFINED ? support + ".getBoolean(%s)" : null;
+            case "java.lang.Object":
+                return valueType == FieldValueType.UNDEFINED ? "%s.getValue()" : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Write the binder of a class
+     *
+     * @param type     the class
+     * @param bindings the bindings of its annotated fields
+     */
+    private void generate (TypeElement type, List<Binding> bindings)
+    {
+        PackageElement pkg         = processingEnv.getElementUtils().getPackageOf(type);
+        String         packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String         typeName    = type.getQualifiedName().toString();
+        String         binderName  = getBinderName(type);
+        String         fqName      = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(fqName, type);
+
+            try (PrintWriter out = new PrintWriter(file.openWriter())) {
+                if (!packageName.isEmpty()) {
+                    out.println("package " + packageName + ";");
+                    out.println();
+                }
+
+                out.println("/**");
+                out.println(" * The {@link fr.polytech.marechal.binding.FormBinder} of {@link " + typeName + "}, generated from its");
+                out.println(" * {@link fr.polytech.marechal.binding.FormField} annotations");
+                out.println(" */");
+                out.println("public final class " + binderName + " implements fr.polytech.marechal.binding.FormBinder<" + typeName + ">");
+                out.println("{");
+
+                for (Binding binding : bindings) {
+                    out.println("    /** The key of the field {@code " + binding.name + "} */");
+                    out.println("    public static final String " + binding.constant + " = \"" + escape(binding.key) + "\";");
+                    out.println();
+                }
+
+                out.println("    /** The form */");
+                out.println("    private final fr.polytech.marechal.FormMap form;");
+
+                for (Binding binding : bindings) {
+                    out.println();
+                    out.println("    /** The form's field of {@code " + binding.name + "} */");
+                    out.println("    private final fr.polytech.marechal.FormMap.Field<?> " + binding.name + "Field;");
+                }
+
+                out.println();
+                out.println("    /**");
+                out.println("     * Add the fields to a form");
+                out.println("     *");
+                out.println("     * @param form the form");
+
+                for (Binding binding : bindings) {
+                    out.println("     * @param " + binding.name + "Control the control of the field {@code " + binding.name + "}");
+                }
+
+                out.println("     */");
+                out.print("    public " + binderName + " (fr.polytech.marechal.FormMap form");
+
+                for (Binding binding : bindings) {
+                    out.println(",");
+                    out.print("            javafx.scene.control.Control " + binding.name + "Control");
+                }
+
+                out.println(")");
+                out.println("    {");
+                out.println("        this.form = form;");
+
+                for (Binding binding : bindings) {
+                    out.println("        form.add(" + binding.constant + ", fr.polytech.marechal.FieldValueType." + binding.valueType.name() + ", "
+                                + binding.name + "Control, " + binding.required + ");");
+                    out.println("        this." + binding.name + "Field = form.get(" + binding.constant + ");");
+                }
+
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public fr.polytech.marechal.FormMap getForm ()");
+                out.println("    {");
+                out.println("        return form;");
+                out.println("    }");
+                out.println();
+                out.println("    @Override");
+                out.println("    public void bind (" + typeName + " target)");
+                out.println("    {");
+
+                for (Binding binding : bindings) {
+                    String value = binding.conversion.replace("%s", binding.name + "Field");
+
+                    if (binding.setter != null) {
+                        out.println("        target." + binding.setter + "(" + value + ");");
+                    }
+                    else {
+                        out.println("        target." + binding.name + " = " + value + ";");
+                    }
+                }
+
+                out.println("    }");
+                out.println("}");
+            }
+        }
+        catch (IOException e) {
+            error(type, "Could not write " + fqName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get the name of the binder of a class
+     *
+     * @param type the class
+     * @return the simple name of the binder, the names of the enclosing classes being joined by underscores
+     */
+    private static String getBinderName (TypeElement type)
+    {
+        String name = type.getSimpleName().toString();
+
+        for (Element element = type.getEnclosingElement(); element instanceof TypeElement; element = element.getEnclosingElement()) {
+            name = element.getSimpleName() + "_" + name;
+        }
+
+        return name + BINDER_SUFFIX;
+    }
+
+    /**
+     * Report an error on an element
+     *
+     * @param element the element
+     * @param message the message
+     * @return false, for the validity of the schema
+     */
+    private boolean error (Element element, String message)
+    {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        return false;
+    }
+
+    /**
+     * Convert a field name to a constant name, e.g. {@code birthDate} to {@code BIRTH_DATE}
+     *
+     * @param name the field name
+     * @return the constant name
+     */
+    private static String toConstantName (String name)
+    {
+        StringBuilder builder = new StringBuilder(name.length() + 4);
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))) {
+                builder.append('_');
+            }
+
+            builder.append(Character.toUpperCase(c));
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Capitalize a name
+     *
+     * @param name the name
+     * @return the name with its first letter in upper case
+     */
+    private static String capitalize (String name)
+    {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Escape a String for a Java String literal <br>
+     * The control characters are written as escape sequences, not as unicode escapes: those are translated before
+     * the parsing of the generated source, so a line terminator would end the literal.
+     *
+     * @param value the String
+     * @return the escaped String
+     */
+    private static String escape (String value)
+    {
+        StringBuilder builder = new StringBuilder(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            }
+            else if (c == '\n') {
+                builder.append("\\n");
+            }
+            else if (c == '\r') {
+                builder.append("\\r");
+            }
+            else if (c == '\t') {
+                builder.append("\\t");
+            }
+            else if (c < 0x20 || c == 0x7f) {
+                builder.append(String.format("\\%03o", (int) c));
+            }
+            else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * An annotated field of a class
+     */
+    private static class Binding
+    {
+        /** The name of the field */
+        String name;
+
+        /** The key of the field in the form */
+        String key;
+
+        /** The name of the key constant */
+        String constant;
+
+        /** The value type */
+        FieldValueType valueType;
+
+        /** Is the field required or not */
+        boolean required;
+
+        /** The conversion of the form's value, {@code %s} standing for the form's field */
+        String conversion;
+
+        /** The name of the setter of a private field, null to assign the field */
+        String setter;
+    }
+}
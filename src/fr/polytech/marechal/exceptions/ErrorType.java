@@ -3,5 +3,8 @@ package fr.polytech.marechal.exceptions;
 public enum ErrorType
 {
     UNDEFINED,
-    MISSING_FIELD;
+    MISSING_FIELD,
+    CYCLIC_RULE,
+    WRONG_VALUE_TYPE,
+    INVALID_VALUE;
 }
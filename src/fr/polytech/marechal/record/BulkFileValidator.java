@@ -0,0 +1,935 @@
+package fr.polytech.marechal.record;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.validator.InvalidationReason;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A streaming validator of CSV and JSON Lines files. <br>
+ * The file is split in chunks of whole lines, each chunk being memory-mapped and validated on its own thread.
+ * The cells are validated directly on the mapped bytes, without creating a String per cell, so the memory use
+ * does not depend on the size of the file. <br>
+ * The rejected cells are written to a report, one {@code line,key,reason} line per cell, in the file order.
+ * A malformed record is reported once with an empty key and the {@link InvalidationReason#UNKNOWN} reason. <br>
+ * The CSV header is checked once, on line 1: a required field without column is reported with the
+ * {@link InvalidationReason#REQUIRED_FIELD} reason, and a column which is not in the schema with the
+ * {@link InvalidationReason#UNKNOWN} reason. The fields without column are not checked in the records. <br>
+ * A leading UTF-8 byte order mark is skipped. Each record has to fit on a single line: the CSV header gives the keys of the columns, the quoted cells
+ * can not contain line breaks, and each JSON line is a flat object whose values are strings, numbers, booleans or null.
+ */
+public class BulkFileValidator
+{
+    /** The format of the files */
+    public enum Format
+    {
+        /** Comma separated values, with a header line */
+        CSV,
+
+        /** One JSON object per line */
+        JSONL
+    }
+
+    /** The invalidation reasons, indexed by ordinal */
+    private static final InvalidationReason[] REASONS = InvalidationReason.values();
+
+    /** The JSON null literal */
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+    /** The UTF-8 byte order mark */
+    private static final byte[] BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    /** The default size of the chunks, in bytes */
+    private static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+    /** The validator of the records */
+    private final RecordValidator validator;
+
+    /** The format of the files */
+    private final Format format;
+
+    /** The separator of the CSV cells */
+    private byte delimiter = ',';
+
+    /** The approximate size of the chunks, in bytes */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /** The number of threads validating the chunks */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 2 parameters constructor
+     *
+     * @param validator the validator of the records
+     * @param format    the format of the files
+     */
+    public BulkFileValidator (@NotNull RecordValidator validator, @NotNull Format format)
+    {
+        this.validator = validator;
+        this.format = format;
+    }
+
+    /**
+     * Set the separator of the CSV cells
+     *
+     * @param delimiter an ASCII separator, ',' by default
+     */
+    public void setDelimiter (char delimiter)
+    {
+        if (delimiter > 127 || delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+
+        this.delimiter = (byte) delimiter;
+    }
+
+    /**
+     * Set the approximate size of the chunks
+     *
+     * @param chunkSize the size in bytes, 16 MB by default
+     */
+    public void setChunkSize (int chunkSize)
+    {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Set the number of threads validating the chunks
+     *
+     * @param parallelism the number of threads, the number of processors by default
+     */
+    public void setParallelism (int parallelism)
+    {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Validate a file
+     *
+     * @param input  the file to validate
+     * @param report the writer of the rejected cells
+     * @return the summary of the validation
+     * @throws IOException if the file can not be read or the report can not be written
+     */
+    public Summary validate (@NotNull Path input, @NotNull Writer report) throws IOException
+    {
+        RecordSchema schema  = validator.getSchema();
+        Summary      summary = new Summary();
+
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long      size     = channel.size();
+            long      position = startsWithBom(channel, size) ? BOM.length : 0;
+            int[]     columns  = null;
+            boolean[] missing  = null;
+
+            report.write("line,key,reason\n");
+
+            if (format == Format.CSV) {
+                long     headerStart = position;
+                String[] header;
+
+                position = nextLine(channel, headerStart, size);
+                header = readHeader(channel.map(FileChannel.MapMode.READ_ONLY, headerStart, position - headerStart));
+                columns = new int[header.length];
+                missing = new boolean[schema.size()];
+                Arrays.fill(missing, true);
+                summary.nbLines = position > headerStart ? 1 : 0;
+
+                for (int column = 0; column < header.length; column++) {
+                    columns[column] = schema.indexOf(header[column]);
+
+                    if (columns[column] >= 0) {
+                        missing[columns[column]] = false;
+                    }
+                    else if (!header[column].isEmpty()) {
+                        summary.nbUnknownColumns++;
+                        writeHeaderIssue(report, header[column], InvalidationReason.UNKNOWN);
+                    }
+                }
+
+                for (int field = 0; field < schema.size(); field++) {
+                    if (missing[field] && schema.isRequired(field)) {
+                        summary.nbMissingColumns++;
+                        writeHeaderIssue(report, schema.getKey(field), InvalidationReason.REQUIRED_FIELD);
+                    }
+                }
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "bulk-validation");
+                thread.setDaemon(true);
+                return thread;
+            });
+            Deque<Future<ChunkResult>> pending = new ArrayDeque<>();
+
+            try {
+                while (position < size) {
+                    long end = Math.min(nextLine(channel, position + chunkSize - 1, size), size);
+                    pending.add(executor.submit(new ChunkTask(channel, position, end, columns, missing)));
+                    position = end;
+
+                    if (pending.size() >= 2 * parallelism) {
+                        write(pending.poll(), summary, report);
+                    }
+                }
+
+                while (!pending.isEmpty()) {
+                    write(pending.poll(), summary, report);
+                }
+            }
+            finally {
+                executor.shutdownNow();
+            }
+        }
+
+        report.flush();
+        return summary;
+    }
+
+    /**
+     * Know if a file starts with the UTF-8 byte order mark
+     *
+     * @param channel the file
+     * @param size    the size of the file
+     * @return true if the file starts with the byte order mark, false otherwise
+     */
+    private static boolean startsWithBom (FileChannel channel, long size) throws IOException
+    {
+        if (size < BOM.length) {
+            return false;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(BOM.length);
+
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+            // Read the first bytes
+        }
+
+        return Arrays.equals(buffer.array(), BOM);
+    }
+
+    /**
+     * Write an issue of the CSV header to the report, on line 1
+     *
+     * @param report the writer of the report
+     * @param key    the key of the column or the field
+     * @param reason the invalidation reason
+     */
+    private static void writeHeaderIssue (Writer report, String key, InvalidationReason reason) throws IOException
+    {
+        report.append("1,").append(key).append(',').append(reason.name()).append('\n');
+    }
+
+    /**
+     * Find the start of the line following a position
+     *
+     * @param channel the file
+     * @param from    the position where the search starts
+     * @param size    the size of the file
+     * @return the position following the next '\n', or the size of the file if there is none
+     */
+    private static long nextLine (FileChannel channel, long from, long size) throws IOException
+    {
+        ByteBuffer buffer   = ByteBuffer.allocate(8192);
+        long       position = from;
+
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+
+            if (read <= 0) {
+                break;
+            }
+
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+
+            position += read;
+        }
+
+        return size;
+    }
+
+    /**
+     * Read the CSV header
+     *
+     * @return the key of each column
+     */
+    private String[] readHeader (MappedByteBuffer buffer)
+    {
+        int end = buffer.limit();
+
+        while (end > 0 && (buffer.get(end - 1) == '\n' || buffer.get(end - 1) == '\r')) {
+            end--;
+        }
+
+        String[]  keys    = new String[16];
+        int       count   = 0;
+        int       i       = 0;
+        ByteSlice slice   = new ByteSlice();
+
+        while (true) {
+            int start = i;
+            while (i < end && buffer.get(i) != delimiter) {
+                i++;
+            }
+
+            String key = slice.reset(buffer, start, i).decode().trim();
+
+            if (key.length() >= 2 && key.startsWith("\"") && key.endsWith("\"")) {
+                key = key.substring(1, key.length() - 1).replace("\"\"", "\"");
+            }
+
+            if (count == keys.length) {
+                keys = Arrays.copyOf(keys, count * 2);
+            }
+
+            keys[count++] = key;
+
+            if (i >= end) {
+                break;
+            }
+
+            i++;
+        }
+
+        return Arrays.copyOf(keys, count);
+    }
+
+    /**
+     * Write the rejected cells of a chunk, and add its counts to the summary
+     */
+    private void write (Future<ChunkResult> future, Summary summary, Writer report) throws IOException
+    {
+        ChunkResult result;
+
+        try {
+            result = future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+
+        RecordSchema schema = validator.getSchema();
+
+        for (int i = 0; i < result.nbRejects * 3; i += 3) {
+            int field = result.rejects[i + 1];
+
+            report.append(Long.toString(summary.nbLines + result.rejects[i]))
+                  .append(',')
+                  .append(field >= 0 ? schema.getKey(field) : "")
+                  .append(',')
+                  .append(REASONS[result.rejects[i + 2]].name())
+                  .append('\n');
+        }
+
+        summary.nbLines += result.nbLines;
+        summary.nbRecords += result.nbRecords;
+        summary.nbRejectedRecords += result.nbRejectedRecords;
+        summary.nbRejectedCells += result.nbRejects;
+    }
+
+    // ------------------------------------------------------
+    // Inner class Summary
+    // ------------------------------------------------------
+
+    /**
+     * The counts of a file validation
+     */
+    public static class Summary
+    {
+        private long nbLines;
+        private long nbRecords;
+        private long nbRejectedRecords;
+        private long nbRejectedCells;
+        private int  nbMissingColumns;
+        private int  nbUnknownColumns;
+
+        /**
+         * Get the number of validated records
+         *
+         * @return the number of records
+         */
+        public long getRecordCount ()
+        {
+            return nbRecords;
+        }
+
+        /**
+         * Get the number of rejected records
+         *
+         * @return the number of records with at least one invalid cell
+         */
+        public long getRejectedRecordCount ()
+        {
+            return nbRejectedRecords;
+        }
+
+        /**
+         * Get the number of rejected cells
+         *
+         * @return the number of invalid cells
+         */
+        public long getRejectedCellCount ()
+        {
+            return nbRejectedCells;
+        }
+
+        /**
+         * Get the number of required fields without a column in the CSV header
+         *
+         * @return the number of missing required columns
+         */
+        public int getMissingColumnCount ()
+        {
+            return nbMissingColumns;
+        }
+
+        /**
+         * Get the number of columns of the CSV header which are not in the schema
+         *
+         * @return the number of unknown columns
+         */
+        public int getUnknownColumnCount ()
+        {
+            return nbUnknownColumns;
+        }
+
+        @Override
+        public String toString ()
+        {
+            return String.format("Summary: {records=%d, rejectedRecords=%d, rejectedCells=%d, missingColumns=%d, unknownColumns=%d}",
+                                 nbRecords, nbRejectedRecords, nbRejectedCells, nbMissingColumns, nbUnknownColumns);
+        }
+    }
+
+    // ------------------------------------------------------
+    // Chunks
+    // ------------------------------------------------------
+
+    /**
+     * The result of a chunk validation
+     */
+    private static final class ChunkResult
+    {
+        int nbLines;
+        int nbRecords;
+        int nbRejectedRecords;
+
+        /** The rejected cells, as (line in the chunk, field index, reason ordinal) triples */
+        int[] rejects = new int[48];
+        int   nbRejects;
+
+        void reject (int line, int field, InvalidationReason reason)
+        {
+            if (nbRejects * 3 == rejects.length) {
+                rejects = Arrays.copyOf(rejects, rejects.length * 2);
+            }
+
+            rejects[nbRejects * 3] = line;
+            rejects[nbRejects * 3 + 1] = field;
+            rejects[nbRejects * 3 + 2] = reason.ordinal();
+            nbRejects++;
+        }
+    }
+
+    /**
+     * The validation of a chunk of whole lines
+     */
+    private final class ChunkTask implements Callable<ChunkResult>
+    {
+        private final FileChannel channel;
+        private final long        start;
+        private final long        end;
+
+        /** The field index of each CSV column */
+        private final int[] columns;
+
+        /** Has the field no CSV column or not, by field index, null for the JSON lines */
+        private final boolean[] missing;
+
+        /** The keys of the fields, in UTF-8 */
+        private final byte[][] keys;
+
+        /** The cell of each field in the current record */
+        private final CharSequence[] cells;
+
+        /** The reusable slice of each field */
+        private final ByteSlice[] slices;
+
+        /** The reusable buffer of each field, for the cells which have to be decoded */
+        private final StringBuilder[] builders;
+
+        /** The reusable slice of the JSON keys */
+        private final ByteSlice keySlice = new ByteSlice();
+
+        private MappedByteBuffer buffer;
+
+        ChunkTask (FileChannel channel, long start, long end, int[] columns, boolean[] missing)
+        {
+            RecordSchema schema = validator.getSchema();
+
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.columns = columns;
+            this.missing = missing;
+            this.keys = new byte[schema.size()][];
+            this.cells = new CharSequence[schema.size()];
+            this.slices = new ByteSlice[schema.size()];
+            this.builders = new StringBuilder[schema.size()];
+
+            for (int field = 0; field < schema.size(); field++) {
+                keys[field] = schema.getKey(field).getBytes(StandardCharsets.UTF_8);
+                slices[field] = new ByteSlice();
+                builders[field] = new StringBuilder();
+            }
+        }
+
+        @Override
+        public ChunkResult call () throws IOException
+        {
+            ChunkResult result = new ChunkResult();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+            int limit     = buffer.limit();
+            int lineStart = 0;
+
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+
+                int next = lineEnd + 1;
+                if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                    lineEnd--;
+                }
+
+                result.nbLines++;
+
+                if (lineEnd > lineStart) {
+                    validateLine(lineStart, lineEnd, result);
+                }
+
+                lineStart = next;
+            }
+
+            return result;
+        }
+
+        /**
+         * Parse and validate a record
+         */
+        private void validateLine (int lineStart, int lineEnd, ChunkResult result)
+        {
+            Arrays.fill(cells, null);
+            result.nbRecords++;
+
+            boolean parsed = format == Format.CSV ? parseCsv(lineStart, lineEnd) : parseJson(lineStart, lineEnd);
+
+            if (!parsed) {
+                result.nbRejectedRecords++;
+                result.reject(result.nbLines, -1, InvalidationReason.UNKNOWN);
+                return;
+            }
+
+            boolean rejected = false;
+
+            for (int field = 0; field < cells.length; field++) {
+                if (missing != null && missing[field]) {
+                    // Reported once with the header
+                    continue;
+                }
+
+                InvalidationReason reason = validator.check(field, cells[field]);
+
+                if (reason != null) {
+                    rejected = true;
+                    result.reject(result.nbLines, field, reason);
+                }
+            }
+
+            if (rejected) {
+                result.nbRejectedRecords++;
+            }
+        }
+
+        /**
+         * Parse a CSV line into the cells
+         *
+         * @return true if the line is well formed, false otherwise
+         */
+        private boolean parseCsv (int lineStart, int lineEnd)
+        {
+            int column = 0;
+            int i      = lineStart;
+
+            while (true) {
+                int field = column < columns.length ? columns[column] : -1;
+
+                if (i < lineEnd && buffer.get(i) == '"') {
+                    int     cellStart = ++i;
+                    boolean escaped   = false;
+                    boolean ascii     = true;
+
+                    while (i < lineEnd) {
+                        byte b = buffer.get(i);
+
+                        if (b == '"') {
+                            if (i + 1 < lineEnd && buffer.get(i + 1) == '"') {
+                                escaped = true;
+                                i += 2;
+                                continue;
+                            }
+                            break;
+                        }
+
+                        ascii &= b >= 0;
+                        i++;
+                    }
+
+                    if (i >= lineEnd) {
+                        return false;
+                    }
+
+                    int cellEnd = i++;
+
+                    if (i < lineEnd && buffer.get(i) != delimiter) {
+                        return false;
+                    }
+
+                    if (field >= 0) {
+                        cells[field] = cell(field, cellStart, cellEnd, ascii, escaped);
+                    }
+                }
+                else {
+                    int     cellStart = i;
+                    boolean ascii     = true;
+
+                    while (i < lineEnd && buffer.get(i) != delimiter) {
+                        ascii &= buffer.get(i) >= 0;
+                        i++;
+                    }
+
+                    if (field >= 0) {
+                        cells[field] = cell(field, cellStart, i, ascii, false);
+                    }
+                }
+
+                column++;
+
+                if (i >= lineEnd) {
+                    return true;
+                }
+
+                i++;
+            }
+        }
+
+        /**
+         * Parse a flat JSON object into the cells
+         *
+         * @return true if the line is well formed, false otherwise
+         */
+        private boolean parseJson (int lineStart, int lineEnd)
+        {
+            int i = skipSpaces(lineStart, lineEnd);
+
+            if (i >= lineEnd || buffer.get(i) != '{') {
+                return false;
+            }
+
+            i = skipSpaces(i + 1, lineEnd);
+
+            if (i < lineEnd && buffer.get(i) == '}') {
+                return skipSpaces(i + 1, lineEnd) == lineEnd;
+            }
+
+            while (true) {
+                if (i >= lineEnd || buffer.get(i) != '"') {
+                    return false;
+                }
+
+                int keyEnd = stringEnd(i + 1, lineEnd);
+
+                if (keyEnd == -1) {
+                    return false;
+                }
+
+                int field = findField(i + 1, keyEnd);
+                i = skipSpaces(keyEnd + 1, lineEnd);
+
+                if (i >= lineEnd || buffer.get(i) != ':') {
+                    return false;
+                }
+
+                i = skipSpaces(i + 1, lineEnd);
+
+                if (i >= lineEnd) {
+                    return false;
+                }
+
+                byte first = buffer.get(i);
+
+                if (first == '"') {
+                    int valueEnd = stringEnd(i + 1, lineEnd);
+
+                    if (valueEnd == -1) {
+                        return false;
+                    }
+
+                    if (field >= 0) {
+                        cells[field] = jsonString(field, i + 1, valueEnd);
+                    }
+
+                    i = valueEnd + 1;
+                }
+                else if (first == '{' || first == '[') {
+                    return false;
+                }
+                else {
+                    int valueStart = i;
+
+                    while (i < lineEnd && buffer.get(i) != ',' && buffer.get(i) != '}' && !isSpace(buffer.get(i))) {
+                        i++;
+                    }
+
+                    if (field >= 0) {
+                        ByteSlice value = slices[field].reset(buffer, valueStart, i);
+                        cells[field] = value.contentEquals(NULL) ? null : value;
+                    }
+                }
+
+                i = skipSpaces(i, lineEnd);
+
+                if (i >= lineEnd) {
+                    return false;
+                }
+
+                if (buffer.get(i) == '}') {
+                    return skipSpaces(i + 1, lineEnd) == lineEnd;
+                }
+
+                if (buffer.get(i) != ',') {
+                    return false;
+                }
+
+                i = skipSpaces(i + 1, lineEnd);
+            }
+        }
+
+        /**
+         * Get the cell of a field, as a slice if possible, decoded otherwise
+         *
+         * @param escaped true if the cell contains doubled quotes, false otherwise
+         */
+        private CharSequence cell (int field, int cellStart, int cellEnd, boolean ascii, boolean escaped)
+        {
+            ByteSlice slice = slices[field].reset(buffer, cellStart, cellEnd);
+
+            if (!escaped) {
+                return ascii ? slice : slice.decode();
+            }
+
+            CharSequence  raw     = ascii ? slice : slice.decode();
+            StringBuilder builder = builders[field];
+            builder.setLength(0);
+
+            for (int i = 0; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                builder.append(c);
+
+                if (c == '"') {
+                    i++;
+                }
+            }
+
+            return builder;
+        }
+
+        /**
+         * Get a JSON string value, as a slice if it has no escape sequence, unescaped otherwise
+         */
+        private CharSequence jsonString (int field, int stringStart, int stringEnd)
+        {
+            ByteSlice slice   = slices[field].reset(buffer, stringStart, stringEnd);
+            boolean   ascii   = true;
+            boolean   escaped = false;
+
+            for (int i = stringStart; i < stringEnd; i++) {
+                byte b = buffer.get(i);
+                ascii &= b >= 0;
+                escaped |= b == '\\';
+            }
+
+            if (ascii && !escaped) {
+                return slice;
+            }
+
+            CharSequence raw = ascii ? slice : slice.decode();
+
+            if (!escaped) {
+                return raw;
+            }
+
+            StringBuilder builder = builders[field];
+            builder.setLength(0);
+            unescape(raw, builder);
+            return builder;
+        }
+
+        /**
+         * Find the field of a JSON key
+         *
+         * @return the field index, or -1 if the key is not in the schema
+         */
+        private int findField (int keyStart, int keyEnd)
+        {
+            ByteSlice key = keySlice.reset(buffer, keyStart, keyEnd);
+
+            for (int i = keyStart; i < keyEnd; i++) {
+                if (buffer.get(i) == '\\') {
+                    StringBuilder builder = new StringBuilder();
+                    unescape(key.decode(), builder);
+                    return validator.getSchema().indexOf(builder.toString());
+                }
+            }
+
+            for (int field = 0; field < keys.length; field++) {
+                if (key.contentEquals(keys[field])) {
+                    return field;
+                }
+            }
+
+            return -1;
+        }
+
+        /**
+         * Find the end of a JSON string
+         *
+         * @return the index of the closing quote, or -1 if there is none
+         */
+        private int stringEnd (int from, int lineEnd)
+        {
+            for (int i = from; i < lineEnd; i++) {
+                byte b = buffer.get(i);
+
+                if (b == '\\') {
+                    i++;
+                }
+                else if (b == '"') {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        private int skipSpaces (int from, int lineEnd)
+        {
+            int i = from;
+
+            while (i < lineEnd && isSpace(buffer.get(i))) {
+                i++;
+            }
+
+            return i;
+        }
+    }
+
+    /**
+     * Know if a byte is a JSON white space, the line breaks being excluded
+     */
+    private static boolean isSpace (byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * Unescape the content of a JSON string
+     */
+    private static void unescape (CharSequence raw, StringBuilder builder)
+    {
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+
+            if (c != '\\' || i + 1 >= raw.length()) {
+                builder.append(c);
+                continue;
+            }
+
+            char escape = raw.charAt(++i);
+
+            switch (escape) {
+                case 'b':
+                    builder.append('\b');
+                    break;
+                case 'f':
+                    builder.append('\f');
+                    break;
+                case 'n':
+                    builder.append('\n');
+                    break;
+                case 'r':
+                    builder.append('\r');
+                    break;
+                case 't':
+                    builder.append('\t');
+                    break;
+                case 'u':
+                    int code = 0;
+
+                    for (int j = i + 1; j <= i + 4 && code >= 0; j++) {
+                        int digit = j < raw.length() ? Character.digit(raw.charAt(j), 16) : -1;
+                        code = digit < 0 ? -1 : code * 16 + digit;
+                    }
+
+                    if (code >= 0) {
+                        builder.append((char) code);
+                        i += 4;
+                    }
+                    else {
+                        builder.append(escape);
+                    }
+                    break;
+                default:
+                    builder.append(escape);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package fr.polytech.marechal.record;
+
+import fr.polytech.marechal.FieldValueType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line entry point of the {@link BulkFileValidator}, for batch jobs. <br>
+ * Usage: {@code BulkValidationCli [options] <file> <key>:<FieldValueType>[:required]...} <br>
+ * Options:
+ * <ul>
+ * <li>{@code --format csv|jsonl}: the format of the file, guessed from the extension by default</li>
+ * <li>{@code --report <file>}: the report of the rejected cells, the standard output by default</li>
+ * <li>{@code --delimiter <char>}: the separator of the CSV cells, ',' by default</li>
+ * <li>{@code --threads <n>}: the number of threads, the number of processors by default</li>
+ * <li>{@code --chunk-size <MB>}: the size of the chunks, 16 MB by default</li>
+ * </ul>
+ * The exit status is 0 if every record is valid, 1 if some records are rejected or a required column is missing, 2 on errors.
+ */
+public final class BulkValidationCli
+{
+    /** The maximum chunk size, in MB, so that its size in bytes fits an int */
+    private static final int MAX_CHUNK_SIZE_MB = Integer.MAX_VALUE >> 20;
+
+    /** The usage message */
+    private static final String USAGE = "Usage: BulkValidationCli [--format csv|jsonl] [--report <file>] [--delimiter <char>]"
+                                        + " [--threads <n>] [--chunk-size <MB>] <file> <key>:<FieldValueType>[:required]...";
+
+    /** No instance */
+    private BulkValidationCli ()
+    {
+    }
+
+    /**
+     * Validate a file
+     *
+     * @param args the command line arguments
+     */
+    public static void main (String[] args)
+    {
+        try {
+            System.exit(run(args));
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Parse the arguments and validate the file
+     *
+     * @param args the command line arguments
+     * @return the exit status
+     * @throws IOException if the file can not be read or the report can not be written
+     */
+    static int run (String[] args) throws IOException
+    {
+        BulkFileValidator.Format format    = null;
+        Path                     report    = null;
+        Character                delimiter = null;
+        Integer                  threads   = null;
+        Integer                  chunkSize = null;
+        Path                     input     = null;
+        RecordSchema             schema    = new RecordSchema();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+
+            if (arg.startsWith("--")) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value of " + arg);
+                }
+
+                String value = args[++i];
+
+                switch (arg) {
+                    case "--format":
+                        format = BulkFileValidator.Format.valueOf(value.toUpperCase());
+                        break;
+                    case "--report":
+                        report = Paths.get(value);
+                        break;
+                    case "--delimiter":
+                        if (value.length() != 1) {
+                            throw new IllegalArgumentException("The delimiter should be a single char");
+                        }
+                        delimiter = value.charAt(0);
+                        break;
+                    case "--threads":
+                        threads = Integer.valueOf(value);
+                        break;
+                    case "--chunk-size":
+                        chunkSize = parseChunkSize(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            else if (input == null) {
+                input = Paths.get(arg);
+            }
+            else {
+                addField(schema, arg);
+            }
+        }
+
+        if (input == null || schema.size() == 0) {
+            throw new IllegalArgumentException("Missing file or fields");
+        }
+
+        if (format == null) {
+            String name = input.getFileName().toString().toLowerCase();
+            format = name.endsWith(".jsonl") || name.endsWith(".ndjson") ? BulkFileValidator.Format.JSONL : BulkFileValidator.Format.CSV;
+        }
+
+        BulkFileValidator validator = new BulkFileValidator(new RecordValidator(schema), format);
+
+        if (delimiter != null) {
+            validator.setDelimiter(delimiter);
+        }
+        if (threads != null) {
+            validator.setParallelism(threads);
+        }
+        if (chunkSize != null) {
+            validator.setChunkSize(chunkSize);
+        }
+
+        BulkFileValidator.Summary summary;
+
+        if (report != null) {
+            try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                summary = validator.validate(input, writer);
+            }
+        }
+        else {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            summary = validator.validate(input, writer);
+        }
+
+        System.err.println(summary);
+
+        return summary.getRejectedRecordCount() == 0 && summary.getMissingColumnCount() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Add a field described as {@code <key>:<FieldValueType>[:required]} to the schema
+     */
+    private static void addField (RecordSchema schema, String description)
+    {
+        String[] parts = description.split(":");
+
+        if (parts.length < 2 || parts.length > 3 || (parts.length == 3 && !parts[2].equals("required"))) {
+            throw new IllegalArgumentException("Invalid field " + description);
+        }
+
+        schema.add(parts[0], FieldValueType.valueOf(parts[1]), parts.length == 3);
+    }
+
+    /**
+     * Parse a chunk size given in MB
+     *
+     * @param value the number of MB
+     * @return the size in bytes
+     */
+    private static int parseChunkSize (String value)
+    {
+        long megabytes;
+
+        try {
+            megabytes = Long.parseLong(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid chunk size " + value);
+        }
+
+        if (megabytes <= 0 || megabytes > MAX_CHUNK_SIZE_MB) {
+            throw new IllegalArgumentException("The chunk size should be between 1 and " + MAX_CHUNK_SIZE_MB + " MB: " + value);
+        }
+
+        return (int) (megabytes << 20);
+    }
+}
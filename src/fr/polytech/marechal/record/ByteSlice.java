@@ -0,0 +1,122 @@
+package fr.polytech.marechal.record;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reusable {@link CharSequence} over a range of ASCII bytes of a buffer. <br>
+ * Each byte is a char, so the range should only be used as is when it holds no byte above 127.
+ */
+final class ByteSlice implements CharSequence
+{
+    /** The buffer holding the bytes */
+    private ByteBuffer buffer;
+
+    /** The index of the first byte */
+    private int start;
+
+    /** The index following the last byte */
+    private int end;
+
+    /** Default constructor, the slice is empty */
+    ByteSlice ()
+    {
+    }
+
+    /**
+     * 3 parameters constructor
+     *
+     * @param buffer the buffer holding the bytes
+     * @param start  the index of the first byte
+     * @param end    the index following the last byte
+     */
+    ByteSlice (ByteBuffer buffer, int start, int end)
+    {
+        reset(buffer, start, end);
+    }
+
+    /**
+     * Point the slice to another range
+     *
+     * @param buffer the buffer holding the bytes
+     * @param start  the index of the first byte
+     * @param end    the index following the last byte
+     * @return this slice
+     */
+    ByteSlice reset (ByteBuffer buffer, int start, int end)
+    {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    /**
+     * Know if the range holds the same bytes as an array
+     *
+     * @param bytes the bytes
+     * @return true if the bytes are equal, false otherwise
+     */
+    boolean contentEquals (byte[] bytes)
+    {
+        if (bytes.length != end - start) {
+            return false;
+        }
+
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Decode the range as UTF-8
+     *
+     * @return the decoded String
+     */
+    String decode ()
+    {
+        byte[] bytes = new byte[end - start];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int length ()
+    {
+        return end - start;
+    }
+
+    @Override
+    public char charAt (int index)
+    {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Length: " + (end - start));
+        }
+
+        return (char) (buffer.get(start + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence (int from, int to)
+    {
+        if (from < 0 || to > end - start || from > to) {
+            throw new IndexOutOfBoundsException("From: " + from + ", To: " + to + ", Length: " + (end - start));
+        }
+
+        return new ByteSlice(buffer, start + from, start + to);
+    }
+
+    @Override
+    public String toString ()
+    {
+        return decode();
+    }
+}
@@ -0,0 +1,125 @@
+package fr.polytech.marechal.record;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.FieldValueType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The schema of the records validated by a {@link RecordValidator}. <br>
+ * Like a {@link fr.polytech.marechal.FormMap}, each field has a key, a {@link FieldValueType} and a required flag,
+ * but there is no {@link javafx.scene.control.Control}, so the schema can be used without JavaFX. <br>
+ * The fields are indexed in the order they were added.
+ */
+public class RecordSchema
+{
+    /** The keys of the fields */
+    private final List<String> keys = new ArrayList<>();
+
+    /** The types of the fields' values */
+    private final List<FieldValueType> valueTypes = new ArrayList<>();
+
+    /** The required flags of the fields */
+    private final List<Boolean> requiredFlags = new ArrayList<>();
+
+    /** The index of each key */
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    /** Default constructor */
+    public RecordSchema ()
+    {
+    }
+
+    /**
+     * Add an optional field to the schema
+     *
+     * @param key       the key of the field
+     * @param valueType the type of the value (e.g. firstname, date, datetime...)
+     */
+    public void add (@NotNull String key, @NotNull FieldValueType valueType)
+    {
+        add(key, valueType, false);
+    }
+
+    /**
+     * Add a field to the schema <br>
+     * If the key is already in the schema, the field is replaced at the same index
+     *
+     * @param key        the key of the field
+     * @param valueType  the type of the value (e.g. firstname, date, datetime...)
+     * @param isRequired true if the field should not be empty, false otherwise
+     */
+    public void add (@NotNull String key, @NotNull FieldValueType valueType, boolean isRequired)
+    {
+        Integer index = indexes.get(key);
+
+        if (index != null) {
+            valueTypes.set(index, valueType);
+            requiredFlags.set(index, isRequired);
+            return;
+        }
+
+        indexes.put(key, keys.size());
+        keys.add(key);
+        valueTypes.add(valueType);
+        requiredFlags.add(isRequired);
+    }
+
+    /**
+     * Get the number of fields
+     *
+     * @return the number of fields
+     */
+    public int size ()
+    {
+        return keys.size();
+    }
+
+    /**
+     * Get the index of a field
+     *
+     * @param key the key of the field
+     * @return the index of the field, or -1 if the key is not in the schema
+     */
+    public int indexOf (String key)
+    {
+        Integer index = indexes.get(key);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Get the key of a field
+     *
+     * @param index the index of the field
+     * @return the key of the field
+     */
+    public String getKey (int index)
+    {
+        return keys.get(index);
+    }
+
+    /**
+     * Get the type of a field's value
+     *
+     * @param index the index of the field
+     * @return the type of the value
+     */
+    public FieldValueType getValueType (int index)
+    {
+        return valueTypes.get(index);
+    }
+
+    /**
+     * Know if a field is required or not
+     *
+     * @param index the index of the field
+     * @return true if the field is required, false otherwise
+     */
+    public boolean isRequired (int index)
+    {
+        return requiredFlags.get(index);
+    }
+}
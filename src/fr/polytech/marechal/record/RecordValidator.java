@@ -0,0 +1,233 @@
+package fr.polytech.marechal.record;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.validator.ContentValidator;
+import fr.polytech.marechal.validator.InvalidationReason;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A headless validator of records, e.g. imported rows. <br>
+ * The records are validated against a {@link RecordSchema} with the same rules as a {@link fr.polytech.marechal.FormMap},
+ * and the same {@link InvalidationReason} are returned. An empty optional field is valid, like in a form. <br>
+ * This class does not depend on JavaFX. The bulk methods split the records between the threads of a {@link ForkJoinPool}.
+ */
+public class RecordValidator
+{
+    /** The number of cells under which a task is not split anymore */
+    private static final int SPLIT_THRESHOLD = 8192;
+
+    /** The maximum number of cells of a bulk validation, the reasons of every cell being stored in a single array */
+    static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+
+    /** The schema of the records */
+    private final RecordSchema schema;
+
+    /** The pool running the bulk validations */
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * 1 parameter constructor
+     *
+     * @param schema the schema of the records
+     */
+    public RecordValidator (@NotNull RecordSchema schema)
+    {
+        this.schema = schema;
+    }
+
+    /**
+     * Get the schema of the records
+     *
+     * @return the schema of the records
+     */
+    public RecordSchema getSchema ()
+    {
+        return schema;
+    }
+
+    /**
+     * Set the pool running the bulk validations
+     *
+     * @param pool the pool, the common pool by default
+     */
+    public void setPool (@NotNull ForkJoinPool pool)
+    {
+        this.pool = pool;
+    }
+
+    /**
+     * Validate a field's content
+     *
+     * @param field   the index of the field in the schema
+     * @param content the content, null being considered as empty
+     * @return the invalidation reason, or null if the content is valid
+     */
+    public InvalidationReason check (int field, CharSequence content)
+    {
+        boolean required = schema.isRequired(field);
+
+        if (content == null || content.length() == 0) {
+            return required ? InvalidationReason.REQUIRED_FIELD : null;
+        }
+
+        return ContentValidator.check(schema.getValueType(field), content, required);
+    }
+
+    /**
+     * Validate a record
+     *
+     * @param record the content of each field, the missing keys being considered as empty
+     * @return the invalidation reason of each invalid field, in the schema order
+     */
+    public Map<String, InvalidationReason> validate (@NotNull Map<String, ? extends CharSequence> record)
+    {
+        Map<String, InvalidationReason> result = new LinkedHashMap<>();
+
+        for (int field = 0; field < schema.size(); field++) {
+            String             key    = schema.getKey(field);
+            InvalidationReason reason = check(field, record.get(key));
+
+            if (reason != null) {
+                result.put(key, reason);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Know if a record is valid
+     *
+     * @param record the content of each field, the missing keys being considered as empty
+     * @return true if every field is valid, false otherwise
+     */
+    public boolean isValid (@NotNull Map<String, ? extends CharSequence> record)
+    {
+        for (int field = 0; field < schema.size(); field++) {
+            if (check(field, record.get(schema.getKey(field))) != null) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Validate records in parallel
+     *
+     * @param records the records, a random access list is expected
+     * @return the report of the validation
+     * @throws IllegalArgumentException if the records have more than {@link #MAX_CELLS} cells
+     */
+    public ValidationReport validateAll (@NotNull List<? extends Map<String, ? extends CharSequence>> records)
+    {
+        String[] keys = new String[schema.size()];
+
+        for (int field = 0; field < keys.length; field++) {
+            keys[field] = schema.getKey(field);
+        }
+
+        return run(records.size(), (record, field) -> records.get(record).get(keys[field]));
+    }
+
+    /**
+     * Validate column-oriented records in parallel
+     *
+     * @param columns the column of each key, every column having the same size, the missing keys being considered as empty.
+     *                Random access lists are expected
+     * @return the report of the validation
+     * @throws IllegalArgumentException if the records have more than {@link #MAX_CELLS} cells
+     */
+    public ValidationReport validateColumns (@NotNull Map<String, ? extends List<? extends CharSequence>> columns)
+    {
+        int nbRecords = -1;
+        List<? extends CharSequence>[] fieldColumns = new List[schema.size()];
+
+        for (int field = 0; field < fieldColumns.length; field++) {
+            fieldColumns[field] = columns.get(schema.getKey(field));
+
+            if (fieldColumns[field] != null) {
+                if (nbRecords != -1 && fieldColumns[field].size() != nbRecords) {
+                    throw new IllegalArgumentException("The columns should have the same size");
+                }
+                nbRecords = fieldColumns[field].size();
+            }
+        }
+
+        return run(Math.max(nbRecords, 0), (record, field) -> fieldColumns[field] != null ? fieldColumns[field].get(record) : null);
+    }
+
+    /**
+     * Validate every cell in the pool
+     *
+     * @param nbRecords the number of records
+     * @param cells     the content of the cells
+     * @return the report of the validation
+     * @throws IllegalArgumentException if the records have more than {@link #MAX_CELLS} cells
+     */
+    private ValidationReport run (int nbRecords, CellSource cells)
+    {
+        long nbCells = (long) nbRecords * schema.size();
+
+        if (nbCells > MAX_CELLS) {
+            throw new IllegalArgumentException("Too many cells to validate at once: " + nbRecords + " records of " + schema.size()
+                                               + " fields, the limit is " + MAX_CELLS + " cells. Validate the records in smaller chunks");
+        }
+
+        byte[] reasons = new byte[(int) nbCells];
+        pool.invoke(new ValidationTask(cells, reasons, 0, nbRecords));
+        return new ValidationReport(schema, nbRecords, reasons);
+    }
+
+    /**
+     * The content of the cells of several records
+     */
+    @FunctionalInterface
+    private interface CellSource
+    {
+        CharSequence get (int record, int field);
+    }
+
+    /**
+     * Validation of a range of records, split in halves until it is small enough
+     */
+    private class ValidationTask extends RecursiveAction
+    {
+        private final CellSource cells;
+        private final byte[]     reasons;
+        private final int        from;
+        private final int        to;
+
+        ValidationTask (CellSource cells, byte[] reasons, int from, int to)
+        {
+            this.cells = cells;
+            this.reasons = reasons;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute ()
+        {
+            int nbFields = schema.size();
+
+            if ((long) (to - from) * nbFields > SPLIT_THRESHOLD && to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ValidationTask(cells, reasons, from, middle), new ValidationTask(cells, reasons, middle, to));
+                return;
+            }
+
+            // Column by column, so each field's validator stays hot
+            for (int field = 0; field < nbFields; field++) {
+                for (int record = from; record < to; record++) {
+                    reasons[record * nbFields + field] = ValidationReport.encode(check(field, cells.get(record, field)));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package fr.polytech.marechal.record;
+
+import fr.polytech.marechal.validator.InvalidationReason;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of the validation of several records by a {@link RecordValidator}. <br>
+ * The invalidation reasons are stored in a single byte array, one byte per field of each record.
+ */
+public class ValidationReport
+{
+    /** The invalidation reasons, indexed by ordinal */
+    private static final InvalidationReason[] REASONS = InvalidationReason.values();
+
+    /** The schema of the records */
+    private final RecordSchema schema;
+
+    /** The number of records */
+    private final int nbRecords;
+
+    /** The invalidation reason of each field of each record, 0 if valid, the reason's ordinal + 1 otherwise */
+    private final byte[] reasons;
+
+    /** The number of invalid records */
+    private final int nbInvalidRecords;
+
+    /**
+     * Constructor
+     *
+     * @param schema    the schema of the records
+     * @param nbRecords the number of records
+     * @param reasons   the invalidation reasons, {@code nbRecords * schema.size()} bytes
+     * @throws IllegalArgumentException if the number of reasons is not the number of cells
+     */
+    ValidationReport (RecordSchema schema, int nbRecords, byte[] reasons)
+    {
+        if ((long) nbRecords * schema.size() != reasons.length) {
+            throw new IllegalArgumentException("Expected " + nbRecords + " records of " + schema.size() + " fields, got " + reasons.length + " reasons");
+        }
+
+        this.schema = schema;
+        this.nbRecords = nbRecords;
+        this.reasons = reasons;
+
+        int nbFields = schema.size();
+        int invalid  = 0;
+
+        for (int record = 0; record < nbRecords; record++) {
+            for (int i = record * nbFields; i < (record + 1) * nbFields; i++) {
+                if (reasons[i] != 0) {
+                    invalid++;
+                    break;
+                }
+            }
+        }
+
+        this.nbInvalidRecords = invalid;
+    }
+
+    /**
+     * Encode an invalidation reason
+     *
+     * @param reason the reason, or null
+     * @return the encoded reason
+     */
+    static byte encode (InvalidationReason reason)
+    {
+        return reason == null ? 0 : (byte) (reason.ordinal() + 1);
+    }
+
+    /**
+     * Get the schema of the records
+     *
+     * @return the schema of the records
+     */
+    public RecordSchema getSchema ()
+    {
+        return schema;
+    }
+
+    /**
+     * Get the number of records
+     *
+     * @return the number of records
+     */
+    public int getRecordCount ()
+    {
+        return nbRecords;
+    }
+
+    /**
+     * Get the number of invalid records
+     *
+     * @return the number of records with at least one invalid field
+     */
+    public int getInvalidRecordCount ()
+    {
+        return nbInvalidRecords;
+    }
+
+    /**
+     * Know if every record is valid
+     *
+     * @return true if every record is valid, false otherwise
+     */
+    public boolean isValid ()
+    {
+        return nbInvalidRecords == 0;
+    }
+
+    /**
+     * Know if a record is valid
+     *
+     * @param record the index of the record
+     * @return true if every field of the record is valid, false otherwise
+     */
+    public boolean isValid (int record)
+    {
+        int nbFields = schema.size();
+
+        for (int i = record * nbFields; i < (record + 1) * nbFields; i++) {
+            if (reasons[i] != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the invalidation reason of a field
+     *
+     * @param record the index of the record
+     * @param field  the index of the field in the schema
+     * @return the invalidation reason, or null if the field is valid
+     */
+    public InvalidationReason getReason (int record, int field)
+    {
+        if (record < 0 || record >= nbRecords) {
+            throw new IndexOutOfBoundsException("Record: " + record + ", Size: " + nbRecords);
+        }
+
+        if (field < 0 || field >= schema.size()) {
+            throw new IndexOutOfBoundsException("Field: " + field + ", Size: " + schema.size());
+        }
+
+        byte reason = reasons[record * schema.size() + field];
+        return reason == 0 ? null : REASONS[reason - 1];
+    }
+
+    /**
+     * Get the invalidation reason of a field
+     *
+     * @param record the index of the record
+     * @param key    the key of the field
+     * @return the invalidation reason, or null if the field is valid
+     */
+    public InvalidationReason getReason (int record, String key)
+    {
+        int field = schema.indexOf(key);
+
+        if (field == -1) {
+            throw new IllegalArgumentException("Unknown key: " + key);
+        }
+
+        return getReason(record, field);
+    }
+
+    /**
+     * Get the invalidation reasons of a record
+     *
+     * @param record the index of the record
+     * @return the invalidation reason of each invalid field, in the schema order
+     */
+    public Map<String, InvalidationReason> getReasons (int record)
+    {
+        Map<String, InvalidationReason> result = new LinkedHashMap<>();
+
+        for (int field = 0; field < schema.size(); field++) {
+            InvalidationReason reason = getReason(record, field);
+
+            if (reason != null) {
+                result.put(schema.getKey(field), reason);
+            }
+        }
+
+        return result;
+    }
+}
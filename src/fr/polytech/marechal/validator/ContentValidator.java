@@ -0,0 +1,65 @@
+package fr.polytech.marechal.validator;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.FieldValueType;
+
+/**
+ * Validation of a field's content, independent of any {@link javafx.scene.control.Control}. <br>
+ * The methods of this class are thread safe, so they can be called from a background thread.
+ */
+public final class ContentValidator
+{
+    /** No instance */
+    private ContentValidator ()
+    {
+    }
+
+    /**
+     * Test a content against a value type
+     *
+     * @param valueType the type of the value (e.g. firstname, date, datetime...)
+     * @param content   the content to test
+     * @param required  true if the content should not be empty, false otherwise
+     * @return the invalidation reason, or null if the content is valid
+     */
+    public static InvalidationReason check (@NotNull FieldValueType valueType, @NotNull CharSequence content, boolean required)
+    {
+        if (content.length() == 0 && required) {
+            return InvalidationReason.REQUIRED_FIELD;
+        }
+
+        if (!valueType.matches(content)) {
+            return InvalidationReason.INCORRECT_VALUE;
+        }
+
+        return null;
+    }
+
+    /**
+     * Test the HTML of a {@link javafx.scene.web.HTMLEditor} against a value type <br>
+     * The plain text of the HTML is tested. For the types only testing the length of their contents
+     * (see {@link FieldValueType#getMaxLength()}), only the length of the plain text is computed.
+     *
+     * @param valueType the type of the value (e.g. firstname, date, datetime...)
+     * @param html      the HTML to test
+     * @param required  true if the plain text should not be empty, false otherwise
+     * @return the invalidation reason, or null if the content is valid
+     * @see HtmlText
+     */
+    public static InvalidationReason checkHtml (@NotNull FieldValueType valueType, @NotNull CharSequence html, boolean required)
+    {
+        int maxLength = valueType.getMaxLength();
+
+        if (maxLength < 0) {
+            return check(valueType, HtmlText.toPlainText(html), required);
+        }
+
+        int length = HtmlText.plainTextLength(html);
+
+        if (length == 0 && required) {
+            return InvalidationReason.REQUIRED_FIELD;
+        }
+
+        return length <= maxLength ? null : InvalidationReason.INCORRECT_VALUE;
+    }
+}
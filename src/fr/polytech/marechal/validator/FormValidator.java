@@ -4,6 +4,7 @@ import com.sun.istack.internal.NotNull;
 import fr.polytech.marechal.FieldTypes;
 import fr.polytech.marechal.FieldValueType;
 import fr.polytech.marechal.FormMap;
+import fr.polytech.marechal.ValidationCache;
 import javafx.scene.control.ComboBoxBase;
 import javafx.scene.control.Control;
 import javafx.scene.control.TextInputControl;
@@ -21,6 +22,15 @@ public class FormValidator
     /** The invalidation messages map */
     private static InvalidationReasonMessageMap invalidationReasonMessageMap = new InvalidationReasonMessageMap();
 
+    /** The invalidation tooltips, shared by every field */
+    private static InvalidationTooltipCache invalidationTooltipCache = new InvalidationTooltipCache(invalidationReasonMessageMap);
+
+    /** The cache of the validation results shared by every form, null if the results are not cached */
+    private static volatile ValidationCache validationCache;
+
+    /** Are the validation metrics and Flight Recorder events recorded or not */
+    private static volatile boolean metricsEnabled = false;
+
     /** Default constructor */
     public FormValidator ()
     {
@@ -36,6 +46,74 @@ public class FormValidator
         return invalidationReasonMessageMap;
     }
 
+    /**
+     * Get the invalidation tooltips, shared by every field
+     *
+     * @return the invalidation tooltips
+     */
+    public static InvalidationTooltipCache getInvalidationTooltipCache ()
+    {
+        return invalidationTooltipCache;
+    }
+
+    /**
+     * Set the cache of the validation results shared by every form <br>
+     * The cache is checked by {@link #validateField(FormMap.Field)} before testing a content against its value type.
+     * Only the value types tested by the regexp engine are cached by default, see {@link ValidationCache}
+     *
+     * @param validationCache the cache, or null to disable the cache
+     */
+    public static void setValidationCache (ValidationCache validationCache)
+    {
+        FormValidator.validationCache = validationCache;
+    }
+
+    /**
+     * Get the cache of the validation results shared by every form
+     *
+     * @return the cache, or null if the results are not cached
+     */
+    public static ValidationCache getValidationCache ()
+    {
+        return validationCache;
+    }
+
+    /**
+     * Enable or disable the validation metrics and the Flight Recorder events <br>
+     * While disabled, the validation only pays for the read of this flag. While enabled, every validation of a content is
+     * recorded: by {@link #validateField(FormMap.Field)} on the JavaFX thread, and when its result is committed for the
+     * validations run in background (asynchronous fields, virtualized sweeps). The answers of the remote validations
+     * are counted apart, without Flight Recorder event
+     *
+     * @param metricsEnabled true to record the metrics and events, false otherwise
+     * @see FormMap#getMetrics()
+     * @see FormMap.Field#getMetrics()
+     */
+    public static void setMetricsEnabled (boolean metricsEnabled)
+    {
+        FormValidator.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Know if the validation metrics and the Flight Recorder events are recorded or not
+     *
+     * @return true if the metrics are recorded, false otherwise
+     */
+    public static boolean isMetricsEnabled ()
+    {
+        return metricsEnabled;
+    }
+
+    /**
+     * Get the validation metrics of the form
+     *
+     * @return the metrics of the form
+     */
+    public ValidationMetrics getMetrics ()
+    {
+        return form.getMetrics();
+    }
+
     /**
      * 1 parameter constructor
      *
@@ -68,26 +146,27 @@ public class FormValidator
 
     /**
      * Performs the validation of the form <br>
-     * Each field is tested based on the fields' {@link FieldTypes} and their {@link FieldValueType} with regexp test
+     * Each field is tested based on the fields' {@link FieldTypes} and their {@link FieldValueType} with regexp test,
+     * then the rules across several fields are evaluated, see {@link FormMap#validateAll()}
      *
-     * @return true if every fields were validated, false otherwise
+     * @return true if every fields were validated, false otherwise (a pending remote validation included)
      */
     public boolean validateForm ()
     {
-        boolean result = true;
-
-        for (FormMap.Entry<String, FormMap.Field> entry : form.entrySet()) {
-            if (!validateField(entry.getValue())) {
-                result = false;
-            }
+        if (!metricsEnabled) {
+            return form.validateAll();
         }
 
+        Object  event  = ValidationEvents.beginValidateForm();
+        boolean result = form.validateAll();
+        ValidationEvents.endValidateForm(event, form, result);
         return result;
     }
 
     /**
      * Test if a field is valid or not <br>
      * Each field is tested based on it's {@link FieldTypes} and it's {@link FieldValueType} with regexp  <br>
+     * The plain text of a {@link HTMLEditor} is tested, see {@link ContentValidator#checkHtml(FieldValueType, CharSequence, boolean)}. <br>
      * If a field is unvalidated, a CSS style is applied to it.
      *
      * @param formField the form field instance
@@ -95,63 +174,115 @@ public class FormValidator
      */
     public static boolean validateField (@NotNull FormMap.Field formField)
     {
-        final Control        control    = formField.getField();
-        final FieldValueType valueTypes = formField.getValueTypes();
+        if (!metricsEnabled) {
+            return validateFieldContent(formField);
+        }
+
+        Object  event  = ValidationEvents.beginValidateField();
+        long    start  = System.nanoTime();
+        boolean result;
+
+        ValidationMetrics.beginMeasuredSpan();
+
+        try {
+            result = validateFieldContent(formField);
+        }
+        finally {
+            ValidationMetrics.endMeasuredSpan();
+        }
+
+        long nanos = System.nanoTime() - start;
+
+        formField.getMetrics().recordValidation(nanos, result);
+        formField.getForm().getMetrics().recordValidation(nanos, result);
+        ValidationEvents.endValidateField(event, formField, result);
+        return result;
+    }
+
+    /**
+     * Test the content of a field and apply the result
+     *
+     * @param formField the form field instance
+     * @return true if the content is valid, false otherwise
+     */
+    private static boolean validateFieldContent (FormMap.Field formField)
+    {
+        final Control control = formField.getField();
 
         if (control instanceof ComboBoxBase) {
             ComboBoxBase comboBox = (ComboBoxBase) control;
-            if (formField.isRequired() && comboBox.getValue() == null) {
-                formField.addInvalidationReason(InvalidationReason.REQUIRED_FIELD);
-                formField.unValidate();
-                return false;
-            }
+            return applyValidationResult(formField, formField.isRequired() && comboBox.getValue() == null ? InvalidationReason.REQUIRED_FIELD : null);
+        }
 
-            formField.removeInvalidationReason(InvalidationReason.REQUIRED_FIELD);
-            formField.validate();
-            return true;
+        if (control instanceof HTMLEditor) {
+            return applyValidationResult(formField, ContentValidator.checkHtml(formField.getValueTypes(), formField.getTextContent(), formField.isRequired()));
         }
 
-        if (!(control instanceof TextInputControl) && !(control instanceof HTMLEditor)) {
+        if (!(control instanceof TextInputControl)) {
             return true;
         }
 
         try {
-            formField.getInvalidationReasonList().remove(InvalidationReason.UNKNOWN);
-
-            String content;
-
-            if (control instanceof TextInputControl) {
-                content = ((TextInputControl) control).getText();
-            }
-            else {
-                content = ((HTMLEditor) control).getHtmlText();
-            }
+            String content = formField.getTextContent();
 
             if (content.isEmpty() && formField.isRequired()) {
-                formField.unValidate();
-                formField.addInvalidationReason(InvalidationReason.REQUIRED_FIELD);
-                return false;
-            }
-            else {
-                formField.validate();
-                formField.removeInvalidationReason(InvalidationReason.REQUIRED_FIELD);
+                return applyValidationResult(formField, InvalidationReason.REQUIRED_FIELD);
             }
 
-            if (content.matches(valueTypes.getRegexp())) {
-                formField.validate();
-                formField.removeInvalidationReason(InvalidationReason.INCORRECT_VALUE);
-                return true;
-            }
-            else {
-                formField.unValidate();
-                formField.addInvalidationReason(InvalidationReason.INCORRECT_VALUE);
-                return false;
-            }
+            ValidationCache cache   = validationCache;
+            boolean         matches = cache != null
+                                      ? cache.matches(formField.getValueTypes(), content)
+                                      : formField.matchesValueType(content);
+
+            return applyValidationResult(formField, matches ? null : InvalidationReason.INCORRECT_VALUE);
         }
         catch (ClassCastException e) {
+            formField.updateInvalidationReasons(reasonBit(InvalidationReason.UNKNOWN), 0);
             formField.unValidate();
-            formField.addInvalidationReason(InvalidationReason.UNKNOWN);
             return false;
         }
     }
+
+    /**
+     * Apply the result of a content validation to a field <br>
+     * The invalidation reasons of the content are updated at once, then the field is validated or unvalidated once,
+     * so the tooltip, the CSS state and the validity of the form only change if the result changed.
+     * This method has to be called from the JavaFX thread.
+     *
+     * @param formField the form field instance
+     * @param reason    the invalidation reason, or null if the content is valid
+     * @return true if the content is valid, false otherwise
+     * @see ContentValidator#check(FieldValueType, CharSequence, boolean)
+     */
+    public static boolean applyValidationResult (@NotNull FormMap.Field formField, InvalidationReason reason)
+    {
+        int contentReasons = reasonBit(InvalidationReason.REQUIRED_FIELD) | reasonBit(InvalidationReason.INCORRECT_VALUE)
+                             | reasonBit(InvalidationReason.UNKNOWN);
+
+        if (reason == null) {
+            formField.updateInvalidationReasons(0, contentReasons);
+            formField.validate();
+            return true;
+        }
+
+        if (reason == InvalidationReason.REQUIRED_FIELD) {
+            // The incorrect value reason is kept, as before the field was emptied
+            contentReasons &= ~reasonBit(InvalidationReason.INCORRECT_VALUE);
+        }
+
+        formField.updateInvalidationReasons(reasonBit(reason), contentReasons & ~reasonBit(reason));
+        formField.unValidate();
+        return false;
+    }
+
+    /**
+     * Get the bit of an invalidation reason in a bitmask of reasons
+     *
+     * @param reason the invalidation reason
+     * @return the bit {@code 1 << reason.ordinal()}
+     */
+    private static int reasonBit (InvalidationReason reason)
+    {
+        return 1 << reason.ordinal();
+    }
 }
@@ -1,5 +1,7 @@
 package fr.polytech.marechal.validator;
 
+import javafx.css.PseudoClass;
+
 /**
  * Created by Robin on 17/05/2017.<br>
  * This class contains a set of public static constants which are the CSS classes used in the program
@@ -12,6 +14,9 @@ public final class FormValidatorCssClass
     /** A CSS class that allows to put forward that an input is invalid */
     public static final String INPUT_INVALID = "input-invalid";
 
+    /** A CSS pseudo class that allows to put forward that an input is invalid, e.g. {@code .text-field:invalid} */
+    public static final PseudoClass INVALID = PseudoClass.getPseudoClass("invalid");
+
     /**
      * Inner class for CSS Text related classes
      */
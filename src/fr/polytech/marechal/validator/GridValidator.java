@@ -0,0 +1,436 @@
+package fr.polytech.marechal.validator;
+
+import com.sun.istack.internal.NotNull;
+import fr.polytech.marechal.FieldValueType;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.value.ChangeListener;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.event.EventHandler;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A cell-level validator of an editable {@link TableView}. <br>
+ * Each validated column has a {@link FieldValueType} and a required flag, its cells being read with
+ * {@link TableColumn#getCellData(int)}. The validity of every cell is stored in a single bit set, row by row,
+ * so there is no object per cell. Only the edited cells and the added or updated rows are validated,
+ * the moves of the rows (sorting, insertions, removals) only move the bits. <br>
+ * The validity of the grid is known in constant time, and the first invalid cell is cached. <br>
+ * Every method of this class has to be called from the JavaFX thread.
+ *
+ * @param <S> the type of the table's items
+ */
+public class GridValidator<S>
+{
+    /** The table */
+    private final TableView<S> table;
+
+    /** The validated columns */
+    private final List<TableColumn<S, ?>> columns = new ArrayList<>();
+
+    /** The value type of each validated column */
+    private final List<FieldValueType> valueTypes = new ArrayList<>();
+
+    /** The required flag of each validated column */
+    private final BitSet requiredColumns = new BitSet();
+
+    /** The invalid cells, at the index {@code row * columns.size() + column} */
+    private BitSet invalidCells = new BitSet();
+
+    /** The number of invalid cells */
+    private int nbOfInvalidCells = 0;
+
+    /** The index of the first invalid cell, -1 if the grid is valid */
+    private int firstInvalidCell = -1;
+
+    /** Is every cell of the grid valid or not */
+    private final ReadOnlyBooleanWrapper gridValid = new ReadOnlyBooleanWrapper(this, "gridValid", true);
+
+    /** The listener moving the bits along the changes of the items */
+    private final ListChangeListener<S> itemsListener = this::itemsChanged;
+
+    /** The listener following the replacement of the items list */
+    private final ChangeListener<ObservableList<S>> itemsPropertyListener = (observable, oldItems, newItems) -> {
+        if (oldItems != null) {
+            oldItems.removeListener(itemsListener);
+        }
+        if (newItems != null) {
+            newItems.addListener(itemsListener);
+        }
+        validateAll();
+    };
+
+    /**
+     * 1 parameter constructor
+     *
+     * @param table the table to validate
+     */
+    public GridValidator (@NotNull TableView<S> table)
+    {
+        this.table = table;
+        table.itemsProperty().addListener(itemsPropertyListener);
+
+        if (table.getItems() != null) {
+            table.getItems().addListener(itemsListener);
+        }
+    }
+
+    /**
+     * Validate a column <br>
+     * Every cell of the column is validated right away, then each edited cell is validated when the edit is committed
+     *
+     * @param column    the column
+     * @param valueType the type of the cells' value
+     * @param required  true if the cells should not be empty, false otherwise
+     * @param <T>       the type of the column's values
+     */
+    public <T> void addColumn (@NotNull TableColumn<S, T> column, @NotNull FieldValueType valueType, boolean required)
+    {
+        requiredColumns.set(columns.size(), required);
+        columns.add(column);
+        valueTypes.add(valueType);
+
+        column.addEventHandler(TableColumn.<S, T>editCommitEvent(), (EventHandler<TableColumn.CellEditEvent<S, T>>) event -> {
+            int row = event.getTablePosition().getRow();
+
+            if (row >= 0) {
+                setCell(row, columns.indexOf(column), event.getNewValue());
+            }
+        });
+
+        validateAll();
+    }
+
+    /**
+     * Validate every cell of the grid
+     *
+     * @return true if every cell is valid, false otherwise
+     */
+    public boolean validateAll ()
+    {
+        invalidCells = new BitSet();
+
+        for (int row = 0; row < getRowCount(); row++) {
+            for (int column = 0; column < columns.size(); column++) {
+                if (check(row, column) != null) {
+                    invalidCells.set(row * columns.size() + column);
+                }
+            }
+        }
+
+        recount();
+        return isGridValid();
+    }
+
+    /**
+     * Validate every cell of a row
+     *
+     * @param row the index of the row
+     * @return true if every cell of the row is valid, false otherwise
+     */
+    public boolean validateRow (int row)
+    {
+        boolean valid = true;
+
+        for (int column = 0; column < columns.size(); column++) {
+            if (!setCell(row, column, columns.get(column).getCellData(row))) {
+                valid = false;
+            }
+        }
+
+        return valid;
+    }
+
+    /**
+     * The property telling if every cell of the grid is valid <br>
+     * It only changes when the grid goes from valid to invalid or the other way around
+     *
+     * @return the read-only gridValid property
+     */
+    public ReadOnlyBooleanProperty gridValidProperty ()
+    {
+        return gridValid.getReadOnlyProperty();
+    }
+
+    /**
+     * Know if every cell of the grid is valid
+     *
+     * @return true if the grid is valid, false otherwise
+     */
+    public boolean isGridValid ()
+    {
+        return nbOfInvalidCells == 0;
+    }
+
+    /**
+     * Get the number of invalid cells
+     *
+     * @return the number of invalid cells
+     */
+    public int getInvalidCellCount ()
+    {
+        return nbOfInvalidCells;
+    }
+
+    /**
+     * Know if a cell is valid
+     *
+     * @param row    the index of the row
+     * @param column the column
+     * @return true if the cell is valid or its column is not validated, false otherwise
+     */
+    public boolean isCellValid (int row, @NotNull TableColumn<S, ?> column)
+    {
+        int index = columns.indexOf(column);
+        return index < 0 || !invalidCells.get(row * columns.size() + index);
+    }
+
+    /**
+     * Get the invalidation reason of a cell
+     *
+     * @param row    the index of the row
+     * @param column the column
+     * @return the invalidation reason, or null if the cell is valid or its column is not validated
+     */
+    public InvalidationReason getReason (int row, @NotNull TableColumn<S, ?> column)
+    {
+        int index = columns.indexOf(column);
+        return index < 0 ? null : check(row, index);
+    }
+
+    /**
+     * Get the row of the first invalid cell
+     *
+     * @return the index of the row, or -1 if the grid is valid
+     */
+    public int getFirstInvalidRow ()
+    {
+        return firstInvalidCell < 0 ? -1 : firstInvalidCell / columns.size();
+    }
+
+    /**
+     * Get the column of the first invalid cell
+     *
+     * @return the column, or null if the grid is valid
+     */
+    public TableColumn<S, ?> getFirstInvalidColumn ()
+    {
+        return firstInvalidCell < 0 ? null : columns.get(firstInvalidCell % columns.size());
+    }
+
+    /**
+     * Scroll to the first invalid cell, then select and focus it
+     *
+     * @return true if there is an invalid cell, false otherwise
+     */
+    public boolean focusFirstInvalidCell ()
+    {
+        if (firstInvalidCell < 0) {
+            return false;
+        }
+
+        int               row    = getFirstInvalidRow();
+        TableColumn<S, ?> column = getFirstInvalidColumn();
+
+        table.scrollTo(row);
+        table.scrollToColumn(column);
+        table.getSelectionModel().select(row, column);
+        table.getFocusModel().focus(row, column);
+        return true;
+    }
+
+    /**
+     * Stop validating the table
+     */
+    public void dispose ()
+    {
+        table.itemsProperty().removeListener(itemsPropertyListener);
+
+        if (table.getItems() != null) {
+            table.getItems().removeListener(itemsListener);
+        }
+    }
+
+    /**
+     * Get the number of rows
+     *
+     * @return the number of items of the table
+     */
+    private int getRowCount ()
+    {
+        return table.getItems() == null ? 0 : table.getItems().size();
+    }
+
+    /**
+     * Validate a cell of the table
+     *
+     * @param row    the index of the row
+     * @param column the index of the validated column
+     * @return the invalidation reason, or null if the cell is valid
+     */
+    private InvalidationReason check (int row, int column)
+    {
+        return check(column, columns.get(column).getCellData(row));
+    }
+
+    /**
+     * Validate a value of a column
+     *
+     * @param column the index of the validated column
+     * @param value  the value
+     * @return the invalidation reason, or null if the value is valid
+     */
+    private InvalidationReason check (int column, Object value)
+    {
+        CharSequence content = value == null ? "" : value instanceof CharSequence ? (CharSequence) value : value.toString();
+        boolean      required = requiredColumns.get(column);
+
+        if (content.length() == 0 && !required) {
+            return null;
+        }
+
+        return ContentValidator.check(valueTypes.get(column), content, required);
+    }
+
+    /**
+     * Validate the new value of a cell and update its bit
+     *
+     * @param row    the index of the row
+     * @param column the index of the validated column
+     * @param value  the new value of the cell
+     * @return true if the value is valid, false otherwise
+     */
+    private boolean setCell (int row, int column, Object value)
+    {
+        int     index   = row * columns.size() + column;
+        boolean valid   = check(column, value) == null;
+        boolean invalid = invalidCells.get(index);
+
+        if (valid == !invalid) {
+            return valid;
+        }
+
+        if (valid) {
+            invalidCells.clear(index);
+            nbOfInvalidCells--;
+
+            if (index == firstInvalidCell) {
+                firstInvalidCell = invalidCells.nextSetBit(index + 1);
+            }
+        }
+        else {
+            invalidCells.set(index);
+            nbOfInvalidCells++;
+
+            if (firstInvalidCell < 0 || index < firstInvalidCell) {
+                firstInvalidCell = index;
+            }
+        }
+
+        gridValid.set(nbOfInvalidCells == 0);
+        return valid;
+    }
+
+    /**
+     * Move the bits along a change of the items <br>
+     * The permutations move the bits, the removals and insertions shift them, the added, replaced and updated rows are validated
+     *
+     * @param change the change of the items
+     */
+    private void itemsChanged (ListChangeListener.Change<? extends S> change)
+    {
+        int nbOfColumns = columns.size();
+
+        if (nbOfColumns == 0) {
+            return;
+        }
+
+        while (change.next()) {
+            int from = change.getFrom();
+            int to   = change.getTo();
+
+            if (change.wasPermutated()) {
+                BitSet permuted = (BitSet) invalidCells.clone();
+                permuted.clear(from * nbOfColumns, to * nbOfColumns);
+
+                for (int row = from; row < to; row++) {
+                    int newRow = change.getPermutation(row);
+
+                    for (int column = 0; column < nbOfColumns; column++) {
+                        if (invalidCells.get(row * nbOfColumns + column)) {
+                            permuted.set(newRow * nbOfColumns + column);
+                        }
+                    }
+                }
+
+                invalidCells = permuted;
+            }
+            else if (change.wasUpdated()) {
+                for (int row = from; row < to; row++) {
+                    validateRow(row);
+                }
+            }
+            else {
+                int removed = change.getRemovedSize();
+                int added   = change.getAddedSize();
+
+                if (removed > 0) {
+                    invalidCells.clear(from * nbOfColumns, (from + removed) * nbOfColumns);
+                    shift((from + removed) * nbOfColumns, -removed * nbOfColumns);
+                }
+
+                if (added > 0) {
+                    shift(from * nbOfColumns, added * nbOfColumns);
+
+                    for (int row = from; row < from + added; row++) {
+                        for (int column = 0; column < nbOfColumns; column++) {
+                            if (check(row, column) != null) {
+                                invalidCells.set(row * nbOfColumns + column);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        recount();
+    }
+
+    /**
+     * Move the bits from an index to the end
+     *
+     * @param from  the index of the first moved bit
+     * @param delta the distance of the move, negative to move the bits backward
+     */
+    private void shift (int from, int delta)
+    {
+        int end = invalidCells.length();
+
+        if (from >= end) {
+            return;
+        }
+
+        BitSet tail = invalidCells.get(from, end);
+        invalidCells.clear(from, end);
+
+        for (int i = tail.nextSetBit(0); i >= 0; i = tail.nextSetBit(i + 1)) {
+            invalidCells.set(from + delta + i);
+        }
+    }
+
+    /**
+     * Count the invalid cells and find the first one again, after the bits were rebuilt
+     */
+    private void recount ()
+    {
+        nbOfInvalidCells = invalidCells.cardinality();
+        firstInvalidCell = invalidCells.nextSetBit(0);
+        gridValid.set(nbOfInvalidCells == 0);
+    }
+}
@@ -0,0 +1,271 @@
+package fr.polytech.marechal.validator;
+
+import com.sun.istack.internal.NotNull;
+
+/**
+ * The plain text of the HTML of a {@link javafx.scene.web.HTMLEditor}, without building a DOM <br>
+ * The HTML is scanned once: the tags and comments are skipped, as well as the content of the head, title, style and script elements,
+ * and each character reference gives its character. The plain text is an estimate of the text shown by the editor,
+ * since the line breaks of the block elements are not counted. <br>
+ * The methods of this class are thread safe, so they can be called from a background thread.
+ */
+public final class HtmlText
+{
+    /** The elements whose content is not shown */
+    private static final String[] HIDDEN_ELEMENTS = {"head", "title", "style", "script"};
+
+    /** The maximum length of a character reference, between the ampersand and the semicolon */
+    private static final int MAX_REFERENCE_LENGTH = 10;
+
+    /** No instance */
+    private HtmlText ()
+    {
+    }
+
+    /**
+     * Get the length of the plain text of some HTML, without building the text
+     *
+     * @param html the HTML
+     * @return the number of chars of the plain text
+     */
+    public static int plainTextLength (@NotNull CharSequence html)
+    {
+        return scan(html, null);
+    }
+
+    /**
+     * Get the plain text of some HTML
+     *
+     * @param html the HTML
+     * @return the plain text
+     */
+    public static String toPlainText (@NotNull CharSequence html)
+    {
+        StringBuilder builder = new StringBuilder(html.length() / 2);
+        scan(html, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Scan some HTML
+     *
+     * @param html the HTML
+     * @param text the builder of the plain text, or null to only count its chars
+     * @return the number of chars of the plain text
+     */
+    private static int scan (CharSequence html, StringBuilder text)
+    {
+        int length = 0;
+        int i      = 0;
+        int n      = html.length();
+
+        while (i < n) {
+            char c = html.charAt(i);
+
+            if (c == '<') {
+                i = skipMarkup(html, i);
+            }
+            else if (c == '&') {
+                int end       = referenceEnd(html, i);
+                int codePoint = end < 0 ? -1 : decode(html, i + 1, end);
+
+                if (codePoint < 0) {
+                    // Not a known reference, the ampersand is shown as is
+                    length++;
+                    i++;
+
+                    if (text != null) {
+                        text.append('&');
+                    }
+                }
+                else {
+                    length += Character.charCount(codePoint);
+                    i = end + 1;
+
+                    if (text != null) {
+                        text.appendCodePoint(codePoint);
+                    }
+                }
+            }
+            else {
+                length++;
+                i++;
+
+                if (text != null) {
+                    text.append(c);
+                }
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Skip a tag, a comment, or a hidden element with its content
+     *
+     * @param html the HTML
+     * @param from the index of the opening angle bracket
+     * @return the index following the skipped markup
+     */
+    private static int skipMarkup (CharSequence html, int from)
+    {
+        if (startsWith(html, from, "<!--")) {
+            int end = indexOf(html, "-->", from + 4);
+            return end < 0 ? html.length() : end + 3;
+        }
+
+        int end = indexOf(html, ">", from + 1);
+
+        if (end < 0) {
+            return html.length();
+        }
+
+        for (String element : HIDDEN_ELEMENTS) {
+            if (startsWith(html, from + 1, element) && !isNameChar(html, from + 1 + element.length())
+                && html.charAt(end - 1) != '/') {
+                int close = indexOf(html, "</" + element, end + 1);
+
+                if (close < 0) {
+                    return html.length();
+                }
+
+                int closeEnd = indexOf(html, ">", close);
+                return closeEnd < 0 ? html.length() : closeEnd + 1;
+            }
+        }
+
+        return end + 1;
+    }
+
+    /**
+     * Find the semicolon ending a character reference
+     *
+     * @param html the HTML
+     * @param from the index of the ampersand
+     * @return the index of the semicolon, or -1 if there is no reference at this index
+     */
+    private static int referenceEnd (CharSequence html, int from)
+    {
+        int limit = Math.min(html.length(), from + 2 + MAX_REFERENCE_LENGTH);
+
+        for (int i = from + 1; i < limit; i++) {
+            char c = html.charAt(i);
+
+            if (c == ';') {
+                return i > from + 1 ? i : -1;
+            }
+
+            if (!isNameChar(c) && c != '#') {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decode a character reference
+     *
+     * @param html the HTML
+     * @param from the index following the ampersand
+     * @param to   the index of the semicolon
+     * @return the code point, or -1 if the reference is unknown
+     */
+    private static int decode (CharSequence html, int from, int to)
+    {
+        if (html.charAt(from) == '#') {
+            boolean hexadecimal = from + 1 < to && (html.charAt(from + 1) == 'x' || html.charAt(from + 1) == 'X');
+            int     start       = hexadecimal ? from + 2 : from + 1;
+
+            try {
+                int codePoint = Integer.parseInt(html.subSequence(start, to).toString(), hexadecimal ? 16 : 10);
+                return Character.isValidCodePoint(codePoint) ? codePoint : -1;
+            }
+            catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        switch (html.subSequence(from, to).toString()) {
+            case "amp":
+                return '&';
+            case "lt":
+                return '<';
+            case "gt":
+                return '>';
+            case "quot":
+                return '"';
+            case "apos":
+                return '\'';
+            case "nbsp":
+                return '\u00a0';
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Know if some HTML has a String at an index, ignoring the case
+     *
+     * @param html   the HTML
+     * @param from   the index
+     * @param prefix the String, in lower case
+     * @return true if the HTML has the String at this index, false otherwise
+     */
+    private static boolean startsWith (CharSequence html, int from, String prefix)
+    {
+        if (from + prefix.length() > html.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < prefix.length(); i++) {
+            if (Character.toLowerCase(html.charAt(from + i)) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Find a String in some HTML, ignoring the case
+     *
+     * @param html   the HTML
+     * @param target the String, in lower case
+     * @param from   the index to start from
+     * @return the index of the String, or -1 if it is not found
+     */
+    private static int indexOf (CharSequence html, String target, int from)
+    {
+        for (int i = from; i <= html.length() - target.length(); i++) {
+            if (startsWith(html, i, target)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Know if the char at an index can be part of a name
+     *
+     * @param html  the HTML
+     * @param index the index
+     * @return true if there is a letter or a digit at this index, false otherwise
+     */
+    private static boolean isNameChar (CharSequence html, int index)
+    {
+        return index < html.length() && isNameChar(html.charAt(index));
+    }
+
+    /**
+     * Know if a char can be part of a name
+     *
+     * @param c the char
+     * @return true if the char is an ASCII letter or digit, false otherwise
+     */
+    private static boolean isNameChar (char c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+}
@@ -11,6 +11,14 @@ public enum InvalidationReason
     /** The field's value is incorrect */
     INCORRECT_VALUE,
     /** Unknown invalidation reason */
-    UNKNOWN
+    UNKNOWN,
+    /** A rule across several fields is not satisfied */
+    RULE_VIOLATION,
+    /** The value is being checked by a remote validator */
+    PENDING,
+    /** The value was rejected by a remote validator */
+    REMOTE_REJECTED,
+    /** The remote validator could not check the value */
+    REMOTE_ERROR
     ;
 }
@@ -1,6 +1,7 @@
 package fr.polytech.marechal.validator;
 
 import java.util.HashMap;
+import java.util.Objects;
 
 /**
  * Created by Robin on 07/07/2017.
@@ -8,6 +9,15 @@ import java.util.HashMap;
  */
 public class InvalidationReasonMessageMap extends HashMap<InvalidationReason, String>
 {
+    /** The invalidation reasons, indexed by ordinal */
+    private static final InvalidationReason[] REASONS = InvalidationReason.values();
+
+    /** The messages when the version was last checked, indexed by the reasons' ordinals */
+    private final String[] checkedMessages = new String[REASONS.length];
+
+    /** The version of the messages, incremented on each change */
+    private int version = 0;
+
     /**
      * Default constructor
      */
@@ -16,6 +26,10 @@ public class InvalidationReasonMessageMap extends HashMap<InvalidationReason, St
         put(InvalidationReason.INCORRECT_VALUE, "The value is incorrect");
         put(InvalidationReason.REQUIRED_FIELD, "The field is required");
         put(InvalidationReason.UNKNOWN, "Unknown error");
+        put(InvalidationReason.RULE_VIOLATION, "The value does not match the other fields");
+        put(InvalidationReason.PENDING, "The value is being checked");
+        put(InvalidationReason.REMOTE_REJECTED, "The value is not accepted");
+        put(InvalidationReason.REMOTE_ERROR, "The value could not be checked");
     }
 
     /**
@@ -40,4 +54,32 @@ public class InvalidationReasonMessageMap extends HashMap<InvalidationReason, St
     {
         return get(reason);
     }
+
+    /**
+     * Get the version of the messages <br>
+     * The version changes each time a message is changed, so the texts built from the messages can be cached.
+     * The messages are compared with the ones of the last call, so every change is seen,
+     * whatever the method of the map which made it (e.g. {@link #putAll(java.util.Map)}, {@link #merge}, or an entry's setValue).
+     *
+     * @return the version of the messages
+     */
+    public int getVersion ()
+    {
+        boolean changed = false;
+
+        for (InvalidationReason reason : REASONS) {
+            String message = get(reason);
+
+            if (!Objects.equals(message, checkedMessages[reason.ordinal()])) {
+                checkedMessages[reason.ordinal()] = message;
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            version++;
+        }
+
+        return version;
+    }
 }
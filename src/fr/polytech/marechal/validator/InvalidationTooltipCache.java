@@ -0,0 +1,85 @@
+package fr.polytech.marechal.validator;
+
+import com.sun.istack.internal.NotNull;
+import javafx.scene.control.Tooltip;
+
+/**
+ * A cache of the invalidation tooltips, shared by every field. <br>
+ * There is one {@link Tooltip} per combination of invalidation reasons, created the first time it is requested.
+ * When a message of the {@link InvalidationReasonMessageMap} changes, the text of the cached tooltips
+ * is rebuilt on their next request. <br>
+ * This class has to be used from the JavaFX thread.
+ */
+public class InvalidationTooltipCache
+{
+    /** The invalidation reasons, indexed by ordinal */
+    private static final InvalidationReason[] REASONS = InvalidationReason.values();
+
+    /** The messages of the tooltips */
+    private final InvalidationReasonMessageMap messageMap;
+
+    /** The tooltips, indexed by the bitmask of their reasons */
+    private final Tooltip[] tooltips = new Tooltip[1 << REASONS.length];
+
+    /** The version of the messages map when each tooltip text was built */
+    private final int[] versions = new int[1 << REASONS.length];
+
+    /**
+     * 1 parameter constructor
+     *
+     * @param messageMap the messages of the tooltips
+     */
+    InvalidationTooltipCache (@NotNull InvalidationReasonMessageMap messageMap)
+    {
+        this.messageMap = messageMap;
+    }
+
+    /**
+     * Get the tooltip of a combination of invalidation reasons
+     *
+     * @param reasons the bitmask of the reasons, each reason being the bit {@code 1 << reason.ordinal()}
+     * @return the tooltip, or null if there is no reason
+     */
+    public Tooltip getTooltip (int reasons)
+    {
+        if (reasons == 0) {
+            return null;
+        }
+
+        Tooltip tooltip = tooltips[reasons];
+        int     version = messageMap.getVersion();
+
+        if (tooltip == null) {
+            tooltip = new Tooltip(getText(reasons));
+            tooltips[reasons] = tooltip;
+            versions[reasons] = version;
+        }
+        else if (versions[reasons] != version) {
+            tooltip.setText(getText(reasons));
+            versions[reasons] = version;
+        }
+
+        return tooltip;
+    }
+
+    /**
+     * Build the text of a combination of invalidation reasons, one line per reason
+     *
+     * @param reasons the bitmask of the reasons, each reason being the bit {@code 1 << reason.ordinal()}
+     * @return the text of the reasons
+     */
+    public String getText (int reasons)
+    {
+        StringBuilder text = new StringBuilder();
+
+        for (int mask = reasons; mask != 0; mask &= mask - 1) {
+            if (text.length() != 0) {
+                text.append(System.lineSeparator());
+            }
+
+            text.append("- ").append(messageMap.getMessage(REASONS[Integer.numberOfTrailingZeros(mask)]));
+        }
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,24 @@
+package fr.polytech.marechal.validator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of the reload of a field's invalidation tooltip
+ */
+@Name("fr.polytech.marechal.ReloadTooltip")
+@Label("Reload Tooltip")
+@Category("Form Validator")
+@Description("Reload of the invalidation tooltip of a form field")
+class ReloadTooltipEvent extends jdk.jfr.Event
+{
+    /** The key of the field */
+    @Label("Key")
+    String key;
+
+    /** The invalidation reasons of the field, as a bitmask */
+    @Label("Invalidation Reasons")
+    int invalidationReasons;
+}
@@ -0,0 +1,20 @@
+package fr.polytech.marechal.validator;
+
+/**
+ * A validation of a value by a remote service (e.g. the uniqueness of a username, the existence of a postcode) <br>
+ * The value has already been validated by the value type of the field when the service is called.
+ */
+@FunctionalInterface
+public interface RemoteValidator
+{
+    /**
+     * Check a value against the remote service <br>
+     * This method is called off the JavaFX thread and may block. The calling thread is interrupted
+     * when the content of the field changes meanwhile, so the request can be abandoned.
+     *
+     * @param value the value to check
+     * @return true if the service accepts the value, false otherwise
+     * @throws Exception if the service could not check the value
+     */
+    boolean accepts (String value) throws Exception;
+}
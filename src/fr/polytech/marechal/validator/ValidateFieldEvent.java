@@ -0,0 +1,29 @@
+package fr.polytech.marechal.validator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of {@link FormValidator#validateField(fr.polytech.marechal.FormMap.Field)}, or of the test
+ * of a content in background, see {@link fr.polytech.marechal.AsyncValidation}
+ */
+@Name("fr.polytech.marechal.ValidateField")
+@Label("Validate Field")
+@Category("Form Validator")
+@Description("Validation of the content of a form field")
+class ValidateFieldEvent extends jdk.jfr.Event
+{
+    /** The key of the field */
+    @Label("Key")
+    String key;
+
+    /** The value type of the field */
+    @Label("Value Type")
+    String valueType;
+
+    /** Was the content valid or not */
+    @Label("Valid")
+    boolean valid;
+}
@@ -0,0 +1,24 @@
+package fr.polytech.marechal.validator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event of {@link FormValidator#validateForm()}
+ */
+@Name("fr.polytech.marechal.ValidateForm")
+@Label("Validate Form")
+@Category("Form Validator")
+@Description("Validation of every field and rule of a form")
+class ValidateFormEvent extends jdk.jfr.Event
+{
+    /** The number of fields of the form */
+    @Label("Fields")
+    int nbOfFields;
+
+    /** Was the form valid or not */
+    @Label("Valid")
+    boolean valid;
+}
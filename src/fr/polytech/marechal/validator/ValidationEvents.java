@@ -0,0 +1,178 @@
+package fr.polytech.marechal.validator;
+
+import fr.polytech.marechal.FormMap;
+
+/**
+ * The JDK Flight Recorder events of the validation. <br>
+ * The events are only created while {@link FormValidator#isMetricsEnabled()} is true, and never on a runtime without
+ * the {@code jdk.jfr} module: the begin methods then return null, and the end methods ignore null events.
+ * The events are typed as {@link Object} so that this class can be loaded without Flight Recorder.
+ */
+public final class ValidationEvents
+{
+    /** Is Flight Recorder available or not */
+    private static final boolean AVAILABLE = isAvailable();
+
+    /** No instance */
+    private ValidationEvents ()
+    {
+    }
+
+    /**
+     * Know if Flight Recorder is available on this runtime
+     *
+     * @return true if the {@code jdk.jfr} events can be created, false otherwise
+     */
+    private static boolean isAvailable ()
+    {
+        try {
+            Class.forName("jdk.jfr.Event", false, ValidationEvents.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Begin a field validation event
+     *
+     * @return the event, or null if Flight Recorder is not available
+     */
+    public static Object beginValidateField ()
+    {
+        if (!AVAILABLE) {
+            return null;
+        }
+
+        ValidateFieldEvent event = new ValidateFieldEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End a field validation event
+     *
+     * @param event the event, may be null
+     * @param field the validated field
+     * @param valid true if the content was valid, false otherwise
+     */
+    public static void endValidateField (Object event, FormMap.Field field, boolean valid)
+    {
+        endContentCheck(event);
+        commitValidateField(event, field, valid);
+    }
+
+    /**
+     * End the test of the content of a field validation event, whose result is committed later <br>
+     * This method can be called from any thread, see {@link #commitValidateField(Object, FormMap.Field, boolean)}
+     *
+     * @param event the event, may be null
+     */
+    public static void endContentCheck (Object event)
+    {
+        if (event != null) {
+            ((ValidateFieldEvent) event).end();
+        }
+    }
+
+    /**
+     * Commit an ended field validation event, once the result of the validation was committed to the field
+     *
+     * @param event the event ended by {@link #endContentCheck(Object)}, may be null
+     * @param field the validated field
+     * @param valid true if the content was valid, false otherwise
+     */
+    public static void commitValidateField (Object event, FormMap.Field field, boolean valid)
+    {
+        if (event == null) {
+            return;
+        }
+
+        ValidateFieldEvent fieldEvent = (ValidateFieldEvent) event;
+
+        if (fieldEvent.shouldCommit()) {
+            fieldEvent.key = field.getKey();
+            fieldEvent.valueType = field.getValueTypes().name();
+            fieldEvent.valid = valid;
+            fieldEvent.commit();
+        }
+    }
+
+    /**
+     * Begin a form validation event
+     *
+     * @return the event, or null if Flight Recorder is not available
+     */
+    public static Object beginValidateForm ()
+    {
+        if (!AVAILABLE) {
+            return null;
+        }
+
+        ValidateFormEvent event = new ValidateFormEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End a form validation event
+     *
+     * @param event the event, may be null
+     * @param form  the validated form
+     * @param valid true if the form was valid, false otherwise
+     */
+    public static void endValidateForm (Object event, FormMap form, boolean valid)
+    {
+        if (event == null) {
+            return;
+        }
+
+        ValidateFormEvent formEvent = (ValidateFormEvent) event;
+        formEvent.end();
+
+        if (formEvent.shouldCommit()) {
+            formEvent.nbOfFields = form.size();
+            formEvent.valid = valid;
+            formEvent.commit();
+        }
+    }
+
+    /**
+     * Begin a tooltip reload event
+     *
+     * @return the event, or null if Flight Recorder is not available
+     */
+    public static Object beginReloadTooltip ()
+    {
+        if (!AVAILABLE) {
+            return null;
+        }
+
+        ReloadTooltipEvent event = new ReloadTooltipEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * End a tooltip reload event
+     *
+     * @param event the event, may be null
+     * @param field the field whose tooltip was reloaded
+     */
+    public static void endReloadTooltip (Object event, FormMap.Field field)
+    {
+        if (event == null) {
+            return;
+        }
+
+        ReloadTooltipEvent tooltipEvent = (ReloadTooltipEvent) event;
+        tooltipEvent.end();
+
+        if (tooltipEvent.shouldCommit()) {
+            tooltipEvent.key = field.getKey();
+            tooltipEvent.invalidationReasons = field.getInvalidationReasonMask();
+            tooltipEvent.commit();
+        }
+    }
+}
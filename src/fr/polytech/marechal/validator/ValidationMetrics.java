@@ -0,0 +1,309 @@
+package fr.polytech.marechal.validator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The validation metrics of a form or of a field. <br>
+ * The metrics are only recorded while {@link FormValidator#isMetricsEnabled()} is true. Every validation of a content
+ * is counted, whether it ran on the JavaFX thread or in background (asynchronous fields, virtualized sweeps), once its
+ * result is committed; the answers of a remote validation are counted apart, see {@link #getRemoteAnswerCount()}.
+ * The latencies are counted in a histogram of power of two buckets: the bucket {@code i} counts the durations
+ * between {@code 2^i} and {@code 2^(i+1)} nanoseconds. <br>
+ * The recording methods are thread safe.
+ */
+public class ValidationMetrics
+{
+    /** The number of buckets of the latency histogram */
+    public static final int NB_OF_BUCKETS = 64;
+
+    /** The number of validations */
+    private final LongAdder validationCount = new LongAdder();
+
+    /** The number of validations which found the content invalid */
+    private final LongAdder invalidCount = new LongAdder();
+
+    /** The number of answers of a remote validation */
+    private final LongAdder remoteAnswerCount = new LongAdder();
+
+    /** The number of answers of a remote validation which did not accept the content */
+    private final LongAdder remoteRejectedCount = new LongAdder();
+
+    /** The number of tooltip reloads */
+    private final LongAdder tooltipRebuildCount = new LongAdder();
+
+    /** The time (in nanoseconds) spent reloading the tooltips */
+    private final LongAdder tooltipRebuildTime = new LongAdder();
+
+    /** The time (in nanoseconds) spent on the JavaFX thread */
+    private final LongAdder fxThreadTime = new LongAdder();
+
+    /** The latency histogram, by power of two of nanoseconds */
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(NB_OF_BUCKETS);
+
+    /** The number of nested measured spans running on the JavaFX thread, only used from the JavaFX thread */
+    private static int measuredSpans = 0;
+
+    /**
+     * Begin a span of the JavaFX thread whose whole time is recorded, e.g. a validation <br>
+     * The tooltips reloaded during the span are not added to the time spent on the JavaFX thread again.
+     * This method has to be called from the JavaFX thread, then {@link #endMeasuredSpan()} in a finally block
+     */
+    public static void beginMeasuredSpan ()
+    {
+        measuredSpans++;
+    }
+
+    /**
+     * End a span begun by {@link #beginMeasuredSpan()}
+     */
+    public static void endMeasuredSpan ()
+    {
+        measuredSpans--;
+    }
+
+    /**
+     * Record a validation run on the JavaFX thread
+     *
+     * @param nanos the duration of the validation, in nanoseconds
+     * @param valid true if the content was valid, false otherwise
+     */
+    public void recordValidation (long nanos, boolean valid)
+    {
+        validationCount.increment();
+
+        if (!valid) {
+            invalidCount.increment();
+        }
+
+        latencyHistogram.incrementAndGet(bucketOf(nanos));
+        fxThreadTime.add(nanos);
+    }
+
+    /**
+     * Record a validation run in background, whose result was committed on the JavaFX thread <br>
+     * The duration of the test is counted in the latency histogram, not in the time spent on the JavaFX thread
+     *
+     * @param nanos the duration of the test of the content, in nanoseconds
+     * @param valid true if the content was valid, false otherwise
+     */
+    public void recordBackgroundValidation (long nanos, boolean valid)
+    {
+        validationCount.increment();
+
+        if (!valid) {
+            invalidCount.increment();
+        }
+
+        latencyHistogram.incrementAndGet(bucketOf(nanos));
+    }
+
+    /**
+     * Record an answer of a remote validation, committed on the JavaFX thread
+     *
+     * @param accepted true if the content was accepted, false if it was rejected or the check failed
+     */
+    public void recordRemoteAnswer (boolean accepted)
+    {
+        remoteAnswerCount.increment();
+
+        if (!accepted) {
+            remoteRejectedCount.increment();
+        }
+    }
+
+    /**
+     * Record a tooltip reload <br>
+     * Its time is added to the time spent on the JavaFX thread unless it is part of a measured span, already recorded
+     * as a whole. This method has to be called from the JavaFX thread
+     *
+     * @param nanos the duration of the reload, in nanoseconds
+     */
+    public void recordTooltipRebuild (long nanos)
+    {
+        tooltipRebuildCount.increment();
+        tooltipRebuildTime.add(nanos);
+
+        if (measuredSpans == 0) {
+            fxThreadTime.add(nanos);
+        }
+    }
+
+    /**
+     * Record some other time spent on the JavaFX thread (e.g. the commit of a background validation)
+     *
+     * @param nanos the duration, in nanoseconds
+     */
+    public void recordFxThreadTime (long nanos)
+    {
+        fxThreadTime.add(nanos);
+    }
+
+    /**
+     * Get the number of validations
+     *
+     * @return the number of validations
+     */
+    public long getValidationCount ()
+    {
+        return validationCount.sum();
+    }
+
+    /**
+     * Get the number of validations which found the content invalid
+     *
+     * @return the number of invalid results
+     */
+    public long getInvalidCount ()
+    {
+        return invalidCount.sum();
+    }
+
+    /**
+     * Get the ratio of validations which found the content invalid
+     *
+     * @return the invalid ratio, between 0 and 1, or 0 if there was no validation
+     */
+    public double getInvalidRatio ()
+    {
+        long count = getValidationCount();
+        return count == 0 ? 0 : (double) getInvalidCount() / count;
+    }
+
+    /**
+     * Get the number of answers of a remote validation
+     *
+     * @return the number of remote answers
+     */
+    public long getRemoteAnswerCount ()
+    {
+        return remoteAnswerCount.sum();
+    }
+
+    /**
+     * Get the number of answers of a remote validation which did not accept the content
+     *
+     * @return the number of remote answers rejecting the content or reporting an error
+     */
+    public long getRemoteRejectedCount ()
+    {
+        return remoteRejectedCount.sum();
+    }
+
+    /**
+     * Get the number of tooltip reloads
+     *
+     * @return the number of tooltip reloads
+     */
+    public long getTooltipRebuildCount ()
+    {
+        return tooltipRebuildCount.sum();
+    }
+
+    /**
+     * Get the time spent reloading the tooltips, whether during a validation or not
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getTooltipRebuildTime ()
+    {
+        return tooltipRebuildTime.sum();
+    }
+
+    /**
+     * Get the time spent on the JavaFX thread by the validations, their commits and the tooltip reloads <br>
+     * Each span is counted once: the tooltips reloaded by a validation are part of the time of the validation
+     *
+     * @return the time, in nanoseconds
+     */
+    public long getFxThreadTime ()
+    {
+        return fxThreadTime.sum();
+    }
+
+    /**
+     * Get a copy of the latency histogram
+     *
+     * @return the number of validations, by power of two of nanoseconds
+     */
+    public long[] getLatencyHistogram ()
+    {
+        long[] histogram = new long[NB_OF_BUCKETS];
+
+        for (int i = 0; i < NB_OF_BUCKETS; i++) {
+            histogram[i] = latencyHistogram.get(i);
+        }
+
+        return histogram;
+    }
+
+    /**
+     * Get an upper bound of a latency percentile, at the precision of the histogram
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound of the bucket of the percentile, in nanoseconds, or 0 if there was no validation
+     */
+    public long getLatencyPercentile (double percentile)
+    {
+        long[] histogram = getLatencyHistogram();
+        long   total     = 0;
+
+        for (long count : histogram) {
+            total += count;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank  = (long) Math.ceil(total * percentile / 100);
+        long count = 0;
+
+        for (int i = 0; i < NB_OF_BUCKETS; i++) {
+            count += histogram[i];
+
+            if (count >= rank && histogram[i] != 0) {
+                return i == NB_OF_BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Reset every metric
+     */
+    public void reset ()
+    {
+        validationCount.reset();
+        invalidCount.reset();
+        remoteAnswerCount.reset();
+        remoteRejectedCount.reset();
+        tooltipRebuildCount.reset();
+        tooltipRebuildTime.reset();
+        fxThreadTime.reset();
+
+        for (int i = 0; i < NB_OF_BUCKETS; i++) {
+            latencyHistogram.set(i, 0);
+        }
+    }
+
+    /**
+     * Get the bucket of a duration in the latency histogram
+     *
+     * @param nanos the duration, in nanoseconds
+     * @return the index of the bucket
+     */
+    private static int bucketOf (long nanos)
+    {
+        return 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1));
+    }
+
+    @Override
+    public String toString ()
+    {
+        return String.format("ValidationMetrics: {validations=%d, invalidRatio=%.3f, p50=%dns, p99=%dns, remoteAnswers=%d, remoteRejected=%d, tooltipRebuilds=%d, tooltipRebuildTime=%dns, fxThreadTime=%dns}",
+                             getValidationCount(), getInvalidRatio(), getLatencyPercentile(50), getLatencyPercentile(99),
+                             getRemoteAnswerCount(), getRemoteRejectedCount(), getTooltipRebuildCount(), getTooltipRebuildTime(), getFxThreadTime());
+    }
+}
@@ -0,0 +1,140 @@
+package fr.polytech.marechal;
+
+import fr.polytech.marechal.validator.FormValidator;
+import javafx.scene.control.TextField;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the steady-state validation of a content does not allocate <br>
+ * The allocated bytes of the testing thread are read around a warmed-up loop, through
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+public class AllocationTest
+{
+    /** The number of iterations of the warm-up loops, so that the hot paths are compiled */
+    private static final int WARMUP = 200_000;
+
+    /** The number of iterations of the measured loops */
+    private static final int ITERATIONS = 100_000;
+
+    /** The bytes tolerated for the measure itself, far below one allocation per iteration */
+    private static final long TOLERANCE = 1024;
+
+    /** The allocation counters of the threads */
+    private static com.sun.management.ThreadMXBean threadBean;
+
+    @BeforeClass
+    public static void setUpClass ()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("The allocated bytes of the threads are not measurable on this JVM",
+                          bean instanceof com.sun.management.ThreadMXBean
+                          && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+
+        threadBean = (com.sun.management.ThreadMXBean) bean;
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    public void matchingDoesNotAllocate ()
+    {
+        for (FieldValueType type : FieldValueType.values()) {
+            String[] contents = {"robin.marechal@etu.univ-tours.fr", "Jean-Pierre", "2017-05-23 12:30", "-42.5", "x", ""};
+
+            matchAll(type, contents, WARMUP);
+
+            long before = allocatedBytes();
+            matchAll(type, contents, ITERATIONS);
+            long allocated = allocatedBytes() - before;
+
+            assertTrue(type + " allocated " + allocated + " bytes in " + ITERATIONS + " matches", allocated < TOLERANCE);
+        }
+    }
+
+    @Test
+    public void validateFieldDoesNotAllocate () throws Exception
+    {
+        FxTestSupport.startToolkit();
+
+        long allocated = FxTestSupport.onFxThread(() -> {
+            TextField textField = new TextField();
+            FormMap   form      = new FormMap();
+            form.add("email", FieldValueType.EMAIL, textField, true);
+
+            FormMap.Field field = form.get("email");
+
+            for (String content : new String[]{"robin.marechal@etu.univ-tours.fr", "robin.marechal@"}) {
+                textField.setText(content);
+                validateAll(field, WARMUP);
+
+                long before = allocatedBytes();
+                validateAll(field, ITERATIONS);
+                long bytes = allocatedBytes() - before;
+
+                if (bytes >= TOLERANCE) {
+                    return bytes;
+                }
+            }
+
+            return 0L;
+        });
+
+        assertEquals("Bytes allocated by the steady-state validateField loop", 0L, allocated);
+    }
+
+    /**
+     * Match some contents against a value type
+     *
+     * @param type       the value type
+     * @param contents   the contents
+     * @param iterations the number of iterations
+     */
+    private static void matchAll (FieldValueType type, String[] contents, int iterations)
+    {
+        int matches = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            if (type.matches(contents[i % contents.length])) {
+                matches++;
+            }
+        }
+
+        assertTrue(matches >= 0);
+    }
+
+    /**
+     * Validate a field several times
+     *
+     * @param field      the field
+     * @param iterations the number of iterations
+     */
+    private static void validateAll (FormMap.Field field, int iterations)
+    {
+        int valid = 0;
+
+        for (int i = 0; i < iterations; i++) {
+            if (FormValidator.validateField(field)) {
+                valid++;
+            }
+        }
+
+        assertTrue(valid >= 0);
+    }
+
+    /**
+     * Get the bytes allocated by the current thread so far
+     *
+     * @return the allocated bytes
+     */
+    private static long allocatedBytes ()
+    {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,265 @@
+package fr.polytech.marechal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Conformance of the specialized validators of the {@link FieldValueType}s with their regexps <br>
+ * Each specialized validator must accept exactly the contents accepted by the regexp of its value type,
+ * on edge cases and on random contents built from the chars the regexps care about.
+ */
+public class CharValidatorsTest
+{
+    /** The seed of the random contents, fixed so that a failure can be replayed */
+    private static final long SEED = 20170523L;
+
+    /** The number of random contents per value type */
+    private static final int RANDOM_CONTENTS = 50_000;
+
+    /** The chars of the random contents: digits, separators, letters, whitespaces, a non ASCII digit and letter */
+    private static final String ALPHABET = "0123456789--..:: aZz\n\t\u00e9\u0661";
+
+    /** A char outside the Basic Multilingual Plane, as a surrogate pair */
+    private static final String SURROGATE_PAIR = "\uD83D\uDE00";
+
+    @Test
+    public void everySimpleTypeHasASpecializedValidator ()
+    {
+        FieldValueType[] types = {FieldValueType.HOURS, FieldValueType.MINUTES, FieldValueType.SECONDS, FieldValueType.DATE,
+                                  FieldValueType.TIME, FieldValueType.DATETIME, FieldValueType.PRICE, FieldValueType.TEXT,
+                                  FieldValueType.VARCHAR, FieldValueType.NUMBERS_INT, FieldValueType.NUMBERS_INT_UNSIGNED,
+                                  FieldValueType.NUMBERS_DOUBLE, FieldValueType.NUMBERS_DOUBLE_UNSIGNED, FieldValueType.CHARACTER_LETTER,
+                                  FieldValueType.CHARACTER_LETTER_NUMBER, FieldValueType.CHARACTER_NUMBER, FieldValueType.CHARACTER,
+                                  FieldValueType.UNDEFINED};
+
+        for (FieldValueType type : types) {
+            assertTrue(type + " has no specialized validator", type.hasSpecializedValidator());
+        }
+    }
+
+    @Test
+    public void edgeCasesMatchTheRegexps ()
+    {
+        List<String> contents = edgeCases();
+
+        for (FieldValueType type : FieldValueType.values()) {
+            if (type.hasSpecializedValidator()) {
+                for (String content : contents) {
+                    assertConforms(type, content);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void randomContentsMatchTheRegexps ()
+    {
+        Random random = new Random(SEED);
+
+        for (FieldValueType type : FieldValueType.values()) {
+            if (!type.hasSpecializedValidator()) {
+                continue;
+            }
+
+            for (int i = 0; i < RANDOM_CONTENTS; i++) {
+                assertConforms(type, randomContent(random, random.nextInt(4) == 0 ? 300 : 20));
+            }
+
+            for (int i = 0; i < RANDOM_CONTENTS; i++) {
+                assertConforms(type, mutate(random, validSample(type)));
+            }
+        }
+    }
+
+    /**
+     * Check that the specialized validator of a value type gives the same result as its regexp
+     *
+     * @param type    the value type
+     * @param content the content
+     */
+    private static void assertConforms (FieldValueType type, String content)
+    {
+        boolean expected = type.getPattern().matcher(content).matches();
+
+        assertEquals(type + " on \"" + escape(content) + "\" (" + content.length() + " chars)", expected, type.matches(content));
+    }
+
+    /**
+     * Get the edge cases of the specialized validators: bounds of the repetitions, signs, separators, surrogates
+     *
+     * @return the edge cases
+     */
+    private static List<String> edgeCases ()
+    {
+        List<String> contents = new ArrayList<>();
+        String[]     samples  = {
+                "", "0", "00", "000", "9", "a", "Z", "aa", "a0", " ", "\n", "\t", "\r\n", "\u00e9", "\u0661", "\u0661\u0662",
+                "-", "--", "-0", "-00", "--1", "0-", "+1", "1e5", "0x1F",
+                ".", "1.", ".1", "1.0", "-1.0", "-.5", "1.0.0", "1..0", "01.50", "-0.0", "1. 0",
+                "12\n", "\n12", "12 ", " 12", "1\u00002",
+                "2017-05-23", "2017-5-3", "017-05-23", "20170-05-23", "2017-05-123", "2017-005-23", "2017--05-23", "2017-05-",
+                "2017-05-23 ", "2017-05-23 1:2", "2017-05-23 12:30", "2017-05-23  12:30", "2017-05-23T12:30", "2017-05-23 123:30",
+                "2017-05-23 12:", "2017-05-23 12:300", "\u0661017-05-23",
+                "12:30", "1:2", "123:4", "12:345", ":30", "12:", "12::30", "12:3a",
+                SURROGATE_PAIR, SURROGATE_PAIR + "a", "\uD83D", "\uDE00", "\uDE00\uD83D", "a\uD83D"
+        };
+
+        for (String sample : samples) {
+            contents.add(sample);
+        }
+
+        for (int length : new int[]{254, 255, 256, 509, 510, 511}) {
+            contents.add(repeat("a", length));
+            contents.add(repeat("1", length));
+        }
+
+        for (int pairs : new int[]{254, 255, 256}) {
+            contents.add(repeat(SURROGATE_PAIR, pairs));
+            contents.add(repeat(SURROGATE_PAIR, pairs) + "a");
+            contents.add(repeat(SURROGATE_PAIR, pairs - 1) + "\uD83D");
+        }
+
+        return contents;
+    }
+
+    /**
+     * Get a valid content of a value type, to be mutated
+     *
+     * @param type the value type
+     * @return a valid content
+     */
+    private static String validSample (FieldValueType type)
+    {
+        switch (type) {
+            case DATE:
+                return "2017-05-23";
+            case TIME:
+                return "12:30";
+            case DATETIME:
+                return "2017-05-23 12:30";
+            case PRICE:
+            case NUMBERS_DOUBLE:
+                return "-12.50";
+            case NUMBERS_DOUBLE_UNSIGNED:
+                return "12.50";
+            case NUMBERS_INT:
+                return "-1250";
+            case CHARACTER_LETTER:
+                return "a";
+            case CHARACTER:
+                return SURROGATE_PAIR;
+            case VARCHAR:
+                return repeat("a", 255);
+            default:
+                return "12";
+        }
+    }
+
+    /**
+     * Build a random content
+     *
+     * @param random    the random generator
+     * @param maxLength the maximum length of the content
+     * @return the content
+     */
+    private static String randomContent (Random random, int maxLength)
+    {
+        int           length  = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length + 1);
+
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(50) == 0) {
+                builder.append(SURROGATE_PAIR);
+            }
+            else {
+                builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Insert, delete or replace a few chars of a content
+     *
+     * @param random  the random generator
+     * @param content the content
+     * @return the mutated content
+     */
+    private static String mutate (Random random, String content)
+    {
+        StringBuilder builder = new StringBuilder(content);
+        int           changes = 1 + random.nextInt(3);
+
+        for (int i = 0; i < changes; i++) {
+            int  index = random.nextInt(builder.length() + 1);
+            char c     = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+
+            switch (random.nextInt(3)) {
+                case 0:
+                    builder.insert(index, c);
+                    break;
+                case 1:
+                    if (index < builder.length()) {
+                        builder.deleteCharAt(index);
+                    }
+                    break;
+                default:
+                    if (index < builder.length()) {
+                        builder.setCharAt(index, c);
+                    }
+                    break;
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Repeat a String
+     *
+     * @param s     the String
+     * @param count the number of repetitions
+     * @return the repeated String
+     */
+    private static String repeat (String s, int count)
+    {
+        StringBuilder builder = new StringBuilder(s.length() * count);
+
+        for (int i = 0; i < count; i++) {
+            builder.append(s);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Escape the control and non ASCII chars of a content, for the failure messages
+     *
+     * @param content the content
+     * @return the escaped content
+     */
+    private static String escape (String content)
+    {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+
+            if (c < ' ' || c > '~') {
+                builder.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                builder.append(c);
+            }
+        }
+
+        return builder.toString();
+    }
+}
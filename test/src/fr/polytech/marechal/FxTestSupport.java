@@ -0,0 +1,78 @@
+package fr.polytech.marechal;
+
+import javafx.application.Platform;
+import org.junit.Assume;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access to the JavaFX thread from the tests <br>
+ * The tests needing the toolkit are skipped when it cannot start, e.g. without a display
+ */
+public final class FxTestSupport
+{
+    /** Has the toolkit been started or not */
+    private static boolean started = false;
+
+    /** The failure of the start of the toolkit, null if it did not fail; a failed start cannot be retried */
+    private static Throwable startFailure;
+
+    /** No instance */
+    private FxTestSupport ()
+    {
+    }
+
+    /**
+     * Start the JavaFX toolkit, or skip the test if there is no display
+     */
+    public static synchronized void startToolkit ()
+    {
+        if (!started && startFailure == null) {
+            try {
+                Platform.startup(() -> {
+                });
+                Platform.setImplicitExit(false);
+                started = true;
+            }
+            catch (RuntimeException | Error e) {
+                startFailure = e;
+            }
+        }
+
+        Assume.assumeNoException("The JavaFX toolkit cannot start", startFailure);
+    }
+
+    /**
+     * Run a task on the JavaFX thread and wait for its result
+     *
+     * @param callable the task
+     * @param <T>      the type of the result
+     * @return the result of the task
+     * @throws Exception the exception thrown by the task
+     */
+    public static <T> T onFxThread (Callable<T> callable) throws Exception
+    {
+        FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+
+        try {
+            return task.get(1, TimeUnit.MINUTES);
+        }
+        catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Wait until the tasks already queued on the JavaFX thread have run
+     *
+     * @throws Exception if the JavaFX thread does not answer
+     */
+    public static void waitForFxThread () throws Exception
+    {
+        onFxThread(() -> null);
+    }
+}
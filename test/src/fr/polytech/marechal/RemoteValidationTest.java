@@ -0,0 +1,371 @@
+package fr.polytech.marechal;
+
+import fr.polytech.marechal.validator.InvalidationReason;
+import fr.polytech.marechal.validator.RemoteValidator;
+import javafx.scene.control.TextField;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The remote validation of the fields, see {@link RemoteValidation} <br>
+ * The remote service is a stub, and its requests are queued by an executor run by the test, so that a request can be
+ * answered, cancelled or outdated at a chosen point. The checks of the fields need the JavaFX toolkit.
+ */
+public class RemoteValidationTest
+{
+    /** The stub of the remote service */
+    private StubService service;
+
+    /** The executor of the requests, run by the test */
+    private ManualExecutor executor;
+
+    /** The remote validation */
+    private RemoteValidation remoteValidation;
+
+    /** The form, null until a test needs the JavaFX toolkit */
+    private FormMap form;
+
+    /** The control of the checked field */
+    private TextField textField;
+
+    /** The checked field */
+    private FormMap.Field field;
+
+    @Before
+    public void setUp ()
+    {
+        service = new StubService();
+        executor = new ManualExecutor();
+        remoteValidation = new RemoteValidation(service, 2, 0);
+        remoteValidation.setExecutor(executor);
+    }
+
+    @Test
+    public void answersAreCached () throws Exception
+    {
+        assertNull("Answer of an accepted value", remoteValidation.check("robin"));
+        assertEquals("Answer of a rejected value", InvalidationReason.REMOTE_REJECTED, remoteValidation.check("taken"));
+
+        assertEquals("Cached answer of an accepted value", Boolean.TRUE, remoteValidation.getCachedAnswer("robin"));
+        assertEquals("Cached answer of a rejected value", Boolean.FALSE, remoteValidation.getCachedAnswer("taken"));
+
+        remoteValidation.clearCache();
+        assertNull("Cached answer after clearCache", remoteValidation.getCachedAnswer("robin"));
+    }
+
+    @Test
+    public void failuresAreNotCached () throws Exception
+    {
+        assertEquals("Answer of a failed request", InvalidationReason.REMOTE_ERROR, remoteValidation.check("error"));
+        assertNull("Cached answer of a failed request", remoteValidation.getCachedAnswer("error"));
+    }
+
+    @Test
+    public void leastRecentlyUsedAnswerIsEvicted () throws Exception
+    {
+        remoteValidation.check("a");
+        remoteValidation.check("b");
+        remoteValidation.getCachedAnswer("a");
+        remoteValidation.check("c");
+
+        assertEquals("Cached answer recently used", Boolean.TRUE, remoteValidation.getCachedAnswer("a"));
+        assertNull("Cached answer least recently used", remoteValidation.getCachedAnswer("b"));
+        assertEquals("Cached answer just added", Boolean.TRUE, remoteValidation.getCachedAnswer("c"));
+    }
+
+    @Test
+    public void answersExpire () throws Exception
+    {
+        RemoteValidation expiring = new RemoteValidation(service, 2, 1);
+        expiring.check("robin");
+        Thread.sleep(20);
+
+        assertNull("Cached answer after its time to live", expiring.getCachedAnswer("robin"));
+    }
+
+    @Test
+    public void fieldIsPendingUntilTheAnswer () throws Exception
+    {
+        showField();
+
+        FxTestSupport.onFxThread(() -> {
+            textField.setText("robin");
+
+            assertTrue("Pending while checked", field.isPending());
+            assertTrue("Pending reason while checked", field.hasInvalidationReason(InvalidationReason.PENDING));
+            assertFalse("Form validity while checked", form.isFormValid());
+            return null;
+        });
+        answer();
+
+        FxTestSupport.onFxThread(() -> {
+            assertFalse("Pending once accepted", field.isPending());
+            assertEquals("Reasons once accepted", 0, field.getInvalidationReasonMask());
+            assertTrue("Form validity once accepted", form.isFormValid());
+
+            textField.setText("taken");
+            assertTrue("Pending while checked again", field.isPending());
+            return null;
+        });
+        answer();
+
+        FxTestSupport.onFxThread(() -> {
+            assertFalse("Pending once rejected", field.isPending());
+            assertTrue("Rejected reason", field.hasInvalidationReason(InvalidationReason.REMOTE_REJECTED));
+            assertFalse("Pending reason once rejected", field.hasInvalidationReason(InvalidationReason.PENDING));
+            assertFalse("Form validity once rejected", form.isFormValid());
+
+            textField.setText("error");
+            return null;
+        });
+        answer();
+
+        FxTestSupport.onFxThread(() -> {
+            assertTrue("Error reason", field.hasInvalidationReason(InvalidationReason.REMOTE_ERROR));
+            assertFalse("Rejected reason after an error", field.hasInvalidationReason(InvalidationReason.REMOTE_REJECTED));
+
+            textField.setText("");
+            assertEquals("Reasons of an empty optional field", 0, field.getInvalidationReasonMask());
+            return null;
+        });
+        assertEquals("Requests", Arrays.asList("robin", "taken", "error"), service.getCalls());
+    }
+
+    @Test
+    public void changeCancelsTheRequest () throws Exception
+    {
+        showField();
+
+        FxTestSupport.onFxThread(() -> {
+            textField.setText("robin");
+            textField.setText("robin.marechal");
+
+            assertTrue("Pending after the change", field.isPending());
+            return null;
+        });
+
+        assertEquals("Queued requests", 2, executor.size());
+        answer();
+
+        assertEquals("Requests run", Collections.singletonList("robin.marechal"), service.getCalls());
+        assertNull("Cached answer of the cancelled request", remoteValidation.getCachedAnswer("robin"));
+        assertFalse("Pending once the last request answered", FxTestSupport.onFxThread(field::isPending));
+    }
+
+    @Test
+    public void outdatedAnswerIsIgnored () throws Exception
+    {
+        showField();
+
+        FxTestSupport.onFxThread(() -> {
+            // The answer of "robin" is committed later on the JavaFX thread, after the change to "taken"
+            textField.setText("robin");
+            executor.runAll();
+            textField.setText("taken");
+            return null;
+        });
+        FxTestSupport.waitForFxThread();
+
+        assertTrue("Pending after an outdated answer", FxTestSupport.onFxThread(field::isPending));
+        answer();
+
+        assertTrue("Rejected reason of the last content",
+                   FxTestSupport.onFxThread(() -> field.hasInvalidationReason(InvalidationReason.REMOTE_REJECTED)));
+    }
+
+    @Test
+    public void cachedAnswerIsNotPending () throws Exception
+    {
+        showField();
+
+        FxTestSupport.onFxThread(() -> {
+            textField.setText("robin");
+            return null;
+        });
+        answer();
+
+        FxTestSupport.onFxThread(() -> {
+            textField.setText("robin.marechal");
+            textField.setText("robin");
+
+            assertFalse("Pending with a cached answer", field.isPending());
+            assertEquals("Reasons with a cached answer", 0, field.getInvalidationReasonMask());
+            return null;
+        });
+
+        assertEquals("Queued requests", 1, executor.size());
+        answer();
+
+        assertEquals("Requests", Collections.singletonList("robin"), service.getCalls());
+    }
+
+    @Test
+    public void evictedAnswerIsCheckedAgain () throws Exception
+    {
+        showField();
+
+        for (String value : new String[]{"a", "b", "c"}) {
+            FxTestSupport.onFxThread(() -> {
+                textField.setText(value);
+                return null;
+            });
+            answer();
+        }
+
+        assertTrue("Pending with an evicted answer", FxTestSupport.onFxThread(() -> {
+            textField.setText("a");
+            return field.isPending();
+        }));
+        answer();
+
+        assertEquals("Requests", Arrays.asList("a", "b", "c", "a"), service.getCalls());
+    }
+
+    /**
+     * Create the form and its remotely validated field
+     */
+    private void showField () throws Exception
+    {
+        FxTestSupport.startToolkit();
+        FxTestSupport.onFxThread(() -> {
+            form = new FormMap();
+            textField = new TextField();
+            form.add("username", FieldValueType.TEXT, textField);
+            field = form.get("username");
+            field.setRemoteValidation(remoteValidation);
+            return null;
+        });
+    }
+
+    /**
+     * Run the queued requests, then wait for their answers to be committed on the JavaFX thread
+     */
+    private void answer () throws Exception
+    {
+        executor.runAll();
+        FxTestSupport.waitForFxThread();
+    }
+
+    /**
+     * A remote service accepting every value but {@code "taken"}, and failing on {@code "error"}
+     */
+    private static class StubService implements RemoteValidator
+    {
+        /** The checked values, in order */
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public synchronized boolean accepts (String value) throws Exception
+        {
+            calls.add(value);
+
+            if (value.equals("error")) {
+                throw new IOException("The service is unavailable");
+            }
+
+            return !value.equals("taken");
+        }
+
+        /**
+         * Get the checked values
+         *
+         * @return the checked values, in order
+         */
+        synchronized List<String> getCalls ()
+        {
+            return new ArrayList<>(calls);
+        }
+    }
+
+    /**
+     * An executor queuing its tasks until the test runs them, on the calling thread <br>
+     * A cancelled task stays queued, and does nothing when it is run
+     */
+    private static class ManualExecutor extends AbstractExecutorService
+    {
+        /** The queued tasks */
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public synchronized void execute (Runnable command)
+        {
+            tasks.add(command);
+        }
+
+        /**
+         * Get the number of queued tasks
+         *
+         * @return the number of queued tasks
+         */
+        synchronized int size ()
+        {
+            return tasks.size();
+        }
+
+        /**
+         * Run the queued tasks, in order
+         */
+        void runAll ()
+        {
+            Runnable task;
+
+            while ((task = poll()) != null) {
+                task.run();
+            }
+        }
+
+        /**
+         * Remove the first queued task
+         *
+         * @return the task, null if there is none
+         */
+        private synchronized Runnable poll ()
+        {
+            return tasks.poll();
+        }
+
+        @Override
+        public void shutdown ()
+        {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow ()
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown ()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated ()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination (long timeout, TimeUnit unit)
+        {
+            return false;
+        }
+    }
+}
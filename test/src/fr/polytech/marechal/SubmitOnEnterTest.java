@@ -0,0 +1,137 @@
+package fr.polytech.marechal;
+
+import javafx.event.Event;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Control;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Submission of the form with the enter key, see {@link FormMap#setSubmitButton(Button)} <br>
+ * The key events go through a shown stage, so that the skins of the controls handle them as with a keyboard.
+ */
+public class SubmitOnEnterTest
+{
+    /** The form */
+    private FormMap form;
+
+    /** The submit button */
+    private Button submitButton;
+
+    /** The stage showing the form */
+    private Stage stage;
+
+    /** The number of submissions */
+    private int submissions;
+
+    @Before
+    public void setUp () throws Exception
+    {
+        FxTestSupport.startToolkit();
+        FxTestSupport.onFxThread(() -> {
+            form = new FormMap();
+            submitButton = new Button("Submit");
+            submitButton.setOnAction(event -> submissions++);
+            form.setSubmitButton(submitButton);
+            return null;
+        });
+    }
+
+    @After
+    public void tearDown () throws Exception
+    {
+        if (stage != null) {
+            FxTestSupport.onFxThread(() -> {
+                stage.close();
+                return null;
+            });
+        }
+    }
+
+    @Test
+    public void enterInATextFieldSubmits () throws Exception
+    {
+        TextField textField = FxTestSupport.onFxThread(() -> new TextField("robin.marechal@etu.univ-tours.fr"));
+        show(textField);
+        pressEnter(textField);
+
+        assertEquals("Submissions after enter in a text field", 1, submissions);
+    }
+
+    @Test
+    public void enterInATextFieldWithAnActionSubmits () throws Exception
+    {
+        TextField textField = FxTestSupport.onFxThread(() -> {
+            TextField field = new TextField("robin.marechal@etu.univ-tours.fr");
+            field.setOnAction(event -> {
+            });
+            return field;
+        });
+        show(textField);
+        pressEnter(textField);
+
+        assertEquals("Submissions after enter in a text field with an action", 1, submissions);
+    }
+
+    @Test
+    public void enterInATextAreaDoesNotSubmit () throws Exception
+    {
+        TextArea textArea = FxTestSupport.onFxThread(() -> new TextArea("robin.marechal@etu.univ-tours.fr"));
+        show(textArea);
+        pressEnter(textArea);
+
+        assertEquals("Submissions after enter in a text area", 0, submissions);
+    }
+
+    @Test
+    public void enterInAnInvalidFormDoesNotSubmit () throws Exception
+    {
+        TextField textField = FxTestSupport.onFxThread(() -> new TextField("robin.marechal@"));
+        show(textField);
+        pressEnter(textField);
+
+        assertEquals("Submissions after enter in an invalid form", 0, submissions);
+    }
+
+    /**
+     * Add a field to the form, then show it with the submit button and give it the focus
+     *
+     * @param control the control of the field
+     */
+    private void show (Control control) throws Exception
+    {
+        FxTestSupport.onFxThread(() -> {
+            form.add("email", FieldValueType.EMAIL, control, true);
+            stage = new Stage();
+            stage.setScene(new Scene(new VBox(control, submitButton)));
+            stage.show();
+            control.requestFocus();
+            return null;
+        });
+        FxTestSupport.waitForFxThread();
+    }
+
+    /**
+     * Press the enter key in a control, as the keyboard would: the event targets the focused control
+     *
+     * @param control the focused control
+     */
+    private static void pressEnter (Control control) throws Exception
+    {
+        FxTestSupport.onFxThread(() -> {
+            Event.fireEvent(control, new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.ENTER, false, false, false, false));
+            return null;
+        });
+        FxTestSupport.waitForFxThread();
+    }
+}
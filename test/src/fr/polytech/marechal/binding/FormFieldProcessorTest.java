@@ -0,0 +1,300 @@
+package fr.polytech.marechal.binding;
+
+import fr.polytech.marechal.FormMap;
+import fr.polytech.marechal.FxTestSupport;
+import javafx.scene.control.Control;
+import javafx.scene.control.TextField;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compilation of sample classes with the {@link FormFieldProcessor} <br>
+ * The generated binders must compile, whatever the keys, and write the typed values of the form into the sample
+ * classes; the schema errors must be reported by the compiler.
+ */
+public class FormFieldProcessorTest
+{
+    /** A sample class whose schema is valid, with a key needing escapes in the generated literal */
+    private static final String ACCOUNT = String.join("\n",
+            "package sample;",
+            "",
+            "import fr.polytech.marechal.FieldValueType;",
+            "import fr.polytech.marechal.binding.FormField;",
+            "",
+            "public class Account",
+            "{",
+            "    @FormField(type = FieldValueType.EMAIL, required = true)",
+            "    public String email;",
+            "",
+            "    @FormField(key = \"age\\n\\\"years\\\"\\t\\001\", type = FieldValueType.NUMBERS_INT)",
+            "    int age;",
+            "",
+            "    @FormField(type = FieldValueType.NUMBERS_DOUBLE)",
+            "    private Double balance;",
+            "",
+            "    public void setBalance (Double balance)",
+            "    {",
+            "        this.balance = balance;",
+            "    }",
+            "",
+            "    public Double getBalance ()",
+            "    {",
+            "        return balance;",
+            "    }",
+            "}");
+
+    /** A sample class whose schema has one error per field */
+    private static final String BROKEN = String.join("\n",
+            "package sample;",
+            "",
+            "import fr.polytech.marechal.FieldValueType;",
+            "import fr.polytech.marechal.binding.FormField;",
+            "",
+            "public class Broken",
+            "{",
+            "    @FormField(type = FieldValueType.EMAIL)",
+            "    static String email;",
+            "",
+            "    @FormField(type = FieldValueType.EMAIL)",
+            "    int mail;",
+            "",
+            "    @FormField(key = \"mail\")",
+            "    String other;",
+            "",
+            "    @FormField",
+            "    private String secret;",
+            "}");
+
+    /** The compiler */
+    private JavaCompiler compiler;
+
+    /** The output directory of the compilation */
+    private Path output;
+
+    /** The diagnostics of the compilation */
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @Before
+    public void setUp () throws Exception
+    {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        Assume.assumeTrue("A Java compiler is needed to run the processor", compiler != null);
+
+        output = Files.createTempDirectory("fxorms-processor");
+        diagnostics = new DiagnosticCollector<>();
+    }
+
+    @Test
+    public void generatedBinderCompiles () throws Exception
+    {
+        assertTrue("Compilation of the sample: " + getErrors(), compile("sample.Account", ACCOUNT));
+
+        String binder = new String(Files.readAllBytes(output.resolve("sample/AccountFormBinder.java")), StandardCharsets.UTF_8);
+        assertTrue("Parameterized field of the binder", binder.contains("private final fr.polytech.marechal.FormMap.Field<?> emailField;"));
+        assertFalse("Raw field of the binder", binder.contains("FormMap.Field emailField"));
+
+        try (URLClassLoader loader = newClassLoader()) {
+            Class<?> binderClass = loader.loadClass("sample.AccountFormBinder");
+
+            assertEquals("Key of the field email", "email", binderClass.getField("EMAIL").get(null));
+            assertEquals("Escaped key of the field age", "age\n\"years\"\t\001", binderClass.getField("AGE").get(null));
+            assertEquals("Key of the field balance", "balance", binderClass.getField("BALANCE").get(null));
+        }
+    }
+
+    @Test
+    public void schemaErrorsAreReported () throws Exception
+    {
+        assertFalse("Compilation of a broken sample", compile("sample.Broken", BROKEN));
+
+        List<String> errors = getErrors();
+        assertTrue("Static field: " + errors, contains(errors, "must not be static or final"));
+        assertTrue("Type not holding the value type: " + errors, contains(errors, "The type int cannot hold the values of the EMAIL value type"));
+        assertTrue("Duplicate key: " + errors, contains(errors, "Duplicate @FormField key \"mail\""));
+        assertTrue("Private field without setter: " + errors, contains(errors, "needs a non-private setter setSecret(java.lang.String)"));
+        assertFalse("Binder of a broken schema", Files.exists(output.resolve("sample/BrokenFormBinder.java")));
+    }
+
+    @Test
+    public void bindWritesTheTypedValues () throws Exception
+    {
+        assertTrue("Compilation of the sample: " + getErrors(), compile("sample.Account", ACCOUNT));
+        FxTestSupport.startToolkit();
+
+        try (URLClassLoader loader = newClassLoader()) {
+            Class<?> accountClass = loader.loadClass("sample.Account");
+            Class<?> binderClass  = loader.loadClass("sample.AccountFormBinder");
+
+            Object account = FxTestSupport.onFxThread(() -> {
+                FormMap form = new FormMap();
+                FormBinder<Object> binder = newBinder(binderClass, form, new TextField("robin.marechal@etu.univ-tours.fr"),
+                                                      new TextField("22"), new TextField("1250.5"));
+                assertTrue("Validity of the bound form", form.isFormValid());
+
+                Object target = accountClass.newInstance();
+                binder.bind(target);
+                return target;
+            });
+
+            assertEquals("Bound email", "robin.marechal@etu.univ-tours.fr", accountClass.getField("email").get(account));
+            assertEquals("Bound age", 22, getAge(accountClass, account));
+            assertEquals("Bound balance", 1250.5, accountClass.getMethod("getBalance").invoke(account));
+        }
+    }
+
+    @Test
+    public void bindWritesNullForAnEmptyWrapper () throws Exception
+    {
+        assertTrue("Compilation of the sample: " + getErrors(), compile("sample.Account", ACCOUNT));
+        FxTestSupport.startToolkit();
+
+        try (URLClassLoader loader = newClassLoader()) {
+            Class<?> accountClass = loader.loadClass("sample.Account");
+            Class<?> binderClass  = loader.loadClass("sample.AccountFormBinder");
+
+            Object account = FxTestSupport.onFxThread(() -> {
+                FormBinder<Object> binder = newBinder(binderClass, new FormMap(), new TextField("robin.marechal@etu.univ-tours.fr"),
+                                                      new TextField(""), new TextField(""));
+                Object target = accountClass.newInstance();
+                binder.bind(target);
+                return target;
+            });
+
+            assertEquals("Bound empty int", 0, getAge(accountClass, account));
+            assertEquals("Bound empty Double", null, accountClass.getMethod("getBalance").invoke(account));
+        }
+    }
+
+    /**
+     * Compile a source with the processor, the generated sources and classes going to the output directory
+     *
+     * @param className the qualified name of the class
+     * @param source    the source of the class
+     * @return true if the compilation succeeded, false otherwise
+     */
+    private boolean compile (String className, String source)
+    {
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+                                                       JavaFileObject.Kind.SOURCE)
+        {
+            @Override
+            public CharSequence getCharContent (boolean ignoreEncodingErrors)
+            {
+                return source;
+            }
+        };
+
+        List<String> options = Arrays.asList("-d", output.toString(), "-s", output.toString(),
+                                             "-classpath", System.getProperty("java.class.path"), "-nowarn");
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new FormFieldProcessor()));
+
+        return task.call();
+    }
+
+    /**
+     * Get the messages of the errors reported by the compilation
+     *
+     * @return the messages
+     */
+    private List<String> getErrors ()
+    {
+        List<String> errors = new ArrayList<>();
+
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+
+        return errors;
+    }
+
+    /**
+     * Create a class loader of the compiled classes, delegating to the loader of the tests for the library
+     *
+     * @return the class loader
+     */
+    private URLClassLoader newClassLoader () throws Exception
+    {
+        return new URLClassLoader(new URL[]{output.toUri().toURL()}, getClass().getClassLoader());
+    }
+
+    /**
+     * Create the binder of the sample, adding its fields to a form
+     *
+     * @param binderClass the class of the binder
+     * @param form        the form
+     * @param controls    the controls of the fields, in declaration order
+     * @return the binder
+     */
+    @SuppressWarnings("unchecked")
+    private static FormBinder<Object> newBinder (Class<?> binderClass, FormMap form, Control... controls) throws Exception
+    {
+        Class<?>[] parameterTypes = new Class<?>[controls.length + 1];
+        Object[]   arguments      = new Object[controls.length + 1];
+        parameterTypes[0] = FormMap.class;
+        arguments[0] = form;
+
+        for (int i = 0; i < controls.length; i++) {
+            parameterTypes[i + 1] = Control.class;
+            arguments[i + 1] = controls[i];
+        }
+
+        return (FormBinder<Object>) binderClass.getConstructor(parameterTypes).newInstance(arguments);
+    }
+
+    /**
+     * Get the package-private field {@code age} of the sample
+     *
+     * @param accountClass the class of the sample
+     * @param account      the sample
+     * @return the value of the field
+     */
+    private static int getAge (Class<?> accountClass, Object account) throws Exception
+    {
+        java.lang.reflect.Field field = accountClass.getDeclaredField("age");
+        field.setAccessible(true);
+        return field.getInt(account);
+    }
+
+    /**
+     * Know if a message of a list contains a text
+     *
+     * @param messages the messages
+     * @param text     the text
+     * @return true if a message contains the text, false otherwise
+     */
+    private static boolean contains (List<String> messages, String text)
+    {
+        for (String message : messages) {
+            if (message.contains(text)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}